@@ -53,6 +53,7 @@ import use_case.save_recipe.SaveRecipeDataAccessInterface;
 import use_case.save_recipe.SaveRecipeInputBoundary;
 import use_case.save_recipe.SaveRecipeInteractor;
 import use_case.save_recipe.SaveRecipeOutputBoundary;
+import use_case.save_recipe.SaveRecipeWriteQueue;
 import use_case.saved_recipes.ShowSavedRecipesDataAccessInterface;
 import use_case.saved_recipes.ShowSavedRecipesInputBoundary;
 import use_case.saved_recipes.ShowSavedRecipesInteractor;
@@ -78,11 +79,9 @@ import view.*;
 import javax.swing.*;
 import java.awt.*;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class AppBuilder {
     private final JPanel cardPanel = new JPanel();
@@ -96,7 +95,9 @@ public class AppBuilder {
     private ReviewDataAccessObject reviewDataAccessObject = new ReviewDataAccessObject();
 
     private static final boolean USE_FIREBASE = true;
+    private static final boolean USE_MEALDB_MIRROR = true;
     private FirebaseUserDataAccessObject firebaseUserDataAccessObject;
+    private SaveRecipeWriteQueue saveRecipeWriteQueue;
     private FirebaseRecipeDataAccessObject firebaseRecipeDataAccessObject;
     private RecipeDataAccessObject apiRecipeDataAccessObject; // For MealDB API
     private FirebaseReviewDataAccessObject firebaseReviewDataAccessObject;
@@ -118,6 +119,7 @@ public class AppBuilder {
 
     private RecommendRecipeViewModel recommendRecipeViewModel;
     private RecommendRecipeView recommendRecipeView;
+    private RecommendRecipeController recommendController;
 
     private EditReviewViewModel editReviewViewModel;
     private EditReviewController editReviewController;
@@ -126,7 +128,12 @@ public class AppBuilder {
     public AppBuilder() {
         cardPanel.setLayout(cardLayout);
 
-        apiRecipeDataAccessObject = new RecipeDataAccessObject();
+        // Search results are returned as soon as their text is parsed; images follow in the background
+        apiRecipeDataAccessObject = new RecipeDataAccessObject(8, true);
+        if (USE_MEALDB_MIRROR) {
+            // Until the first sync finishes, searches keep going to the live API
+            apiRecipeDataAccessObject.attachCatalog(Paths.get("mealdb_catalog.json.gz"), Duration.ofHours(6));
+        }
         recipeDataAccessObject = apiRecipeDataAccessObject;
 
         if (USE_FIREBASE) {
@@ -195,7 +202,7 @@ public class AppBuilder {
 
         RecipeSearchRecipeDataAccessInterface recipeDAO;
         if (USE_FIREBASE && firebaseRecipeDataAccessObject != null) {
-            recipeDAO = new AppBuilderCompositeRecipeSearchDAO(apiRecipeDataAccessObject, firebaseRecipeDataAccessObject);
+            recipeDAO = new CompositeRecipeSearchDAO(apiRecipeDataAccessObject, firebaseRecipeDataAccessObject);
         } else {
             recipeDAO = apiRecipeDataAccessObject;
         }
@@ -216,9 +223,9 @@ public class AppBuilder {
 
         recommendRecipeViewModel = new RecommendRecipeViewModel();
         RecommendRecipeOutputBoundary recommendPresenter = new RecommendRecipePresenter(recommendRecipeViewModel, viewManagerModel);
-        RecommendRecipeDataAccessInterface recommendDAO = new CompositeRecommendRecipeDAO(savedRecipesDAO, new RecommendRecipeDataAccessObject());
+        RecommendRecipeDataAccessInterface recommendDAO = new CompositeRecommendRecipeDAO(savedRecipesDAO, new RecommendRecipeDataAccessObject(apiRecipeDataAccessObject));
         RecommendRecipeInputBoundary recommendInteractor = new RecommendRecipeInteractor(recommendDAO, recommendPresenter);
-        RecommendRecipeController recommendController = new RecommendRecipeController(recommendInteractor);
+        recommendController = new RecommendRecipeController(recommendInteractor);
 
         recipeSearchView = new RecipeSearchView(
                 recipeSearchViewModel,
@@ -238,7 +245,7 @@ public class AppBuilder {
         if (recommendRecipeViewModel == null) {
             recommendRecipeViewModel = new RecommendRecipeViewModel();
         }
-        recommendRecipeView = new RecommendRecipeView(recommendRecipeViewModel, viewManagerModel, viewRecipeController);
+        recommendRecipeView = new RecommendRecipeView(recommendRecipeViewModel, viewManagerModel, viewRecipeController, recommendController);
         cardPanel.add(recommendRecipeView, recommendRecipeView.viewName);
         return this;
     }
@@ -248,11 +255,13 @@ public class AppBuilder {
         SaveRecipeViewModel saveRecipeViewModel = new SaveRecipeViewModel();
         SaveRecipeOutputBoundary saveRecipePresenter = new SaveRecipePresenter(saveRecipeViewModel);
         SaveRecipeDataAccessInterface saveRecipeDAO = new FirebaseSaveRecipeDataAccessObject(apiRecipeDataAccessObject);
-        SaveRecipeInputBoundary saveRecipeInteractor = new SaveRecipeInteractor(saveRecipeDAO, saveRecipePresenter);
+        // Save toggles show at once and are written in the background
+        saveRecipeWriteQueue = new SaveRecipeWriteQueue(saveRecipeDAO);
+        SaveRecipeInputBoundary saveRecipeInteractor = new SaveRecipeInteractor(saveRecipeDAO, saveRecipePresenter, saveRecipeWriteQueue);
         SaveRecipeController saveRecipeController = new SaveRecipeController(saveRecipeInteractor);
 
         UnsaveRecipeOutputBoundary unsaveRecipeOutputBoundary = new UnsaveRecipePresenter(saveRecipeViewModel);
-        UnsaveRecipeInputBoundary unsaveRecipeInteractor = new UnsaveRecipeInteractor((UnsaveRecipeDataAccessInterface) saveRecipeDAO, unsaveRecipeOutputBoundary);
+        UnsaveRecipeInputBoundary unsaveRecipeInteractor = new UnsaveRecipeInteractor((UnsaveRecipeDataAccessInterface) saveRecipeDAO, unsaveRecipeOutputBoundary, saveRecipeWriteQueue);
         UnsaveRecipeController unsaveRecipeController = new UnsaveRecipeController(unsaveRecipeInteractor);
 
         recipeView = new RecipeView(viewRecipeViewModel, viewManagerModel, saveRecipeController, saveRecipeViewModel, unsaveRecipeController);
@@ -329,6 +338,10 @@ public class AppBuilder {
         final JFrame application = new JFrame("Recipe Application");
         application.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (saveRecipeWriteQueue != null) {
+                // Finish the save toggles still queued while Firestore is up
+                saveRecipeWriteQueue.close();
+            }
             if (USE_FIREBASE) {
                 FirebaseInitializer.shutdown();
             }
@@ -392,78 +405,4 @@ public class AppBuilder {
             apiDAO.recordView(recipeId);
         }
     }
-
-    // -------------------------------------------------------------------------
-    // AppBuilderCompositeRecipeSearchDAO
-    // Responsible for Search. Combines results from API and Firebase.
-    // -------------------------------------------------------------------------
-    private static class AppBuilderCompositeRecipeSearchDAO implements RecipeSearchRecipeDataAccessInterface {
-        private final RecipeDataAccessObject apiDAO;
-        private final FirebaseRecipeDataAccessObject firebaseDAO;
-
-        public AppBuilderCompositeRecipeSearchDAO(RecipeDataAccessObject apiDAO, FirebaseRecipeDataAccessObject firebaseDAO) {
-            this.apiDAO = apiDAO;
-            this.firebaseDAO = firebaseDAO;
-        }
-
-        @Override
-        public List<Recipe> search(String name, String category) {
-            // 1. Get recipes from the API
-            List<Recipe> apiRecipes = apiDAO.search(name, category);
-
-            // 2. Get recipes from Firebase
-            List<Recipe> firebaseRecipes;
-            if (firebaseDAO != null) {
-                if (category != null && !category.isEmpty()) {
-                    firebaseRecipes = firebaseDAO.findByCategory(category, name);
-                } else {
-                    firebaseRecipes = firebaseDAO.search(name, null);
-                }
-            } else {
-                firebaseRecipes = new ArrayList<>();
-            }
-
-
-            // 3. Combine and remove duplicates
-            List<Recipe> combinedRecipes = Stream.concat(apiRecipes.stream(), firebaseRecipes.stream())
-                    .distinct()
-                    .collect(Collectors.toList());
-
-            // 4. Asynchronously fetch popularity data (views, saves, averageRating) from Firebase
-            if (firebaseDAO != null && combinedRecipes != null && !combinedRecipes.isEmpty()) {
-                List<CompletableFuture<Void>> futures = combinedRecipes.stream()
-                        .flatMap(recipe -> {
-                            String recipeId = recipe.getRecipeId();
-                            // Create futures for views, saves, and averageRating
-                            CompletableFuture<Void> viewsFuture = firebaseDAO.getViewCount(recipeId)
-                                    .thenAccept(recipe::setViews);
-                            CompletableFuture<Void> savesFuture = firebaseDAO.getSaveCount(recipeId)
-                                    .thenAccept(recipe::setSaves);
-                            CompletableFuture<Void> ratingFuture = firebaseDAO.getAverageRating(recipeId)
-                                    .thenAccept(recipe::setAverageRating);
-                            return java.util.stream.Stream.of(viewsFuture, savesFuture, ratingFuture);
-                        })
-                        .collect(Collectors.toList());
-
-                // 5. Wait for all the fetches to complete
-                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-            }
-
-            return combinedRecipes;
-        }
-
-        @Override
-        public List<String> getAllCategories() {
-            List<String> apiCategories = apiDAO.getAllCategories();
-            List<String> firebaseCategories = new ArrayList<>();
-            if (firebaseDAO != null) {
-                firebaseCategories = firebaseDAO.getAllCategories();
-            }
-
-
-            return Stream.concat(apiCategories.stream(), firebaseCategories.stream())
-                    .distinct()
-                    .collect(Collectors.toList());
-        }
-    }
 }
@@ -0,0 +1,61 @@
+package app;
+
+import data_access.FirebaseInitializer;
+import data_access.FirebaseRecipeDataAccessObject;
+import data_access.FirebaseReviewDataAccessObject;
+
+/**
+ * Runs one-off backfill jobs that bring existing Firestore documents up to date with fields
+ * newer code writes. Every job is safe to re-run.
+ *
+ * Usage: FirestoreBackfill <job>
+ *   title-index        adds titleLower and titleTokens to recipes saved before title search pushdown
+ *   category-registry  rebuilds the category name registry from the published recipes
+ *   recipe-stats       completes the recipe_stats document of every recipe from its views, saves and reviews,
+ *                      then marks metadata/stats backfilled
+ *   save-counts        recounts every recipe's saves from the users' saved lists (after recipe-stats)
+ *   review-index       makes every review findable by the recipe_id and author_id queries
+ */
+public class FirestoreBackfill {
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Usage: FirestoreBackfill <title-index|category-registry|recipe-stats|save-counts|review-index>");
+            System.exit(2);
+        }
+
+        try {
+            FirebaseInitializer.initialize();
+            switch (args[0]) {
+                case "title-index":
+                    int updated = new FirebaseRecipeDataAccessObject().backfillTitleIndex();
+                    System.out.println("Title index backfilled on " + updated + " recipes");
+                    break;
+                case "category-registry":
+                    int categories = new FirebaseRecipeDataAccessObject().backfillCategoryRegistry();
+                    System.out.println("Category registry rebuilt with " + categories + " categories");
+                    break;
+                case "recipe-stats":
+                    int stats = new FirebaseRecipeDataAccessObject().backfillRecipeStats();
+                    System.out.println("Recipe stats written for " + stats + " recipes");
+                    break;
+                case "save-counts":
+                    int counted = new FirebaseRecipeDataAccessObject().backfillSaveCounts();
+                    System.out.println("Save counts written for " + counted + " recipes");
+                    break;
+                case "review-index":
+                    int reviews = new FirebaseReviewDataAccessObject().migrateReviewIndex();
+                    System.out.println("Review index migrated on " + reviews + " reviews");
+                    break;
+                default:
+                    System.err.println("Unknown backfill job: " + args[0]);
+                    System.exit(2);
+            }
+        } catch (Exception e) {
+            System.err.println("Backfill failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            FirebaseInitializer.shutdown();
+        }
+    }
+}
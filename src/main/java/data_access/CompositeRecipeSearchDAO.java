@@ -1,17 +1,31 @@
 package data_access;
 
 import entity.Recipe;
+import use_case.recipe_search.RecipePage;
 import use_case.recipe_search.RecipeSearchRecipeDataAccessInterface;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * Search over both TheMealDB and the recipes users posted to Firebase. The Firebase DAO may be
+ * null, in which case only TheMealDB is searched.
+ */
 public class CompositeRecipeSearchDAO implements RecipeSearchRecipeDataAccessInterface {
+    // Page tokens name the source the next page comes from: TheMealDB results come first
+    private static final String API_SOURCE = "api";
+    private static final String FIREBASE_SOURCE = "fb";
 
     private final RecipeDataAccessObject apiDAO;
     private final FirebaseRecipeDataAccessObject firebaseDAO;
+    // TheMealDB results of the search being paged through
+    private volatile ApiResults apiResults;
 
     public CompositeRecipeSearchDAO(RecipeDataAccessObject apiDAO, FirebaseRecipeDataAccessObject firebaseDAO) {
         this.apiDAO = apiDAO;
@@ -21,7 +35,10 @@ public class CompositeRecipeSearchDAO implements RecipeSearchRecipeDataAccessInt
     @Override
     public List<String> getAllCategories() {
         List<String> apiCategories = apiDAO.getAllCategories();
-        List<String> firebaseCategories = firebaseDAO.getAllCategories();
+        List<String> firebaseCategories = new ArrayList<>();
+        if (firebaseDAO != null) {
+            firebaseCategories = firebaseDAO.getAllCategories();
+        }
 
         return Stream.concat(apiCategories.stream(), firebaseCategories.stream())
                 .distinct()
@@ -34,11 +51,13 @@ public class CompositeRecipeSearchDAO implements RecipeSearchRecipeDataAccessInt
         List<Recipe> apiRecipes = apiDAO.search(name, category);
 
         // 2. Get recipes from Firebase
-        List<Recipe> firebaseRecipes;
-        if (category != null && !category.isEmpty()) {
-            firebaseRecipes = firebaseDAO.findByCategory(category, name);
-        } else {
-            firebaseRecipes = firebaseDAO.search(name, null);
+        List<Recipe> firebaseRecipes = new ArrayList<>();
+        if (firebaseDAO != null) {
+            if (category != null && !category.isEmpty()) {
+                firebaseRecipes = firebaseDAO.findByCategory(category, name);
+            } else {
+                firebaseRecipes = firebaseDAO.search(name, null);
+            }
         }
 
         // 3. Combine and remove duplicates
@@ -46,26 +65,123 @@ public class CompositeRecipeSearchDAO implements RecipeSearchRecipeDataAccessInt
                 .distinct()
                 .collect(Collectors.toList());
 
-        // 4. Asynchronously fetch popularity data (views, saves, averageRating) from Firebase
-        if (firebaseDAO != null && combinedRecipes != null && !combinedRecipes.isEmpty()) {
-            List<CompletableFuture<Void>> futures = combinedRecipes.stream()
-                    .flatMap(recipe -> {
-                        String recipeId = recipe.getRecipeId();
-                        // Create futures for views, saves, and averageRating
-                        CompletableFuture<Void> viewsFuture = firebaseDAO.getViewCount(recipeId)
-                                .thenAccept(recipe::setViews);
-                        CompletableFuture<Void> savesFuture = firebaseDAO.getSaveCount(recipeId)
-                                .thenAccept(recipe::setSaves);
-                        CompletableFuture<Void> ratingFuture = firebaseDAO.getAverageRating(recipeId)
-                                .thenAccept(recipe::setAverageRating);
-                        return java.util.stream.Stream.of(viewsFuture, savesFuture, ratingFuture);
-                    })
-                    .collect(Collectors.toList());
-
-            // 5. Wait for all the fetches to complete
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        // 4. Fetch popularity data (views, saves, averageRating) from Firebase
+        fetchPopularity(combinedRecipes);
+        return combinedRecipes;
+    }
+
+    /**
+     * Pages through TheMealDB's results first and then through Firebase's, filling a page that
+     * straddles the two from both. Popularity data is only fetched for the page.
+     *
+     * TheMealDB cannot page, so its results are fetched once, on the first page, and later pages of
+     * the same search are cut from them.
+     */
+    @Override
+    public RecipePage searchPage(String name, String category, String pageToken, int pageSize) {
+        String source = API_SOURCE;
+        String sourceToken = null;
+        if (pageToken != null) {
+            String decoded = decodePageToken(pageToken);
+            int separator = decoded.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid page token: " + pageToken);
+            }
+            source = decoded.substring(0, separator);
+            sourceToken = separator + 1 < decoded.length() ? decoded.substring(separator + 1) : null;
         }
 
-        return combinedRecipes;
+        List<Recipe> recipes = new ArrayList<>();
+        String nextPageToken = null;
+
+        if (API_SOURCE.equals(source)) {
+            RecipePage apiPage = RecipePage.slice(apiResultsFor(name, category, pageToken == null), sourceToken, pageSize);
+            recipes.addAll(apiPage.getRecipes());
+            if (apiPage.hasNextPage()) {
+                nextPageToken = encodePageToken(API_SOURCE, apiPage.getNextPageToken());
+            } else {
+                source = FIREBASE_SOURCE;
+                sourceToken = null;
+            }
+        }
+
+        if (FIREBASE_SOURCE.equals(source) && firebaseDAO != null) {
+            if (recipes.size() < pageSize) {
+                RecipePage firebasePage = firebaseDAO.searchPage(name, category, sourceToken, pageSize - recipes.size());
+                recipes.addAll(firebasePage.getRecipes());
+                if (firebasePage.hasNextPage()) {
+                    nextPageToken = encodePageToken(FIREBASE_SOURCE, firebasePage.getNextPageToken());
+                }
+            } else {
+                // TheMealDB filled this page exactly; Firebase starts on the next one
+                nextPageToken = encodePageToken(FIREBASE_SOURCE, null);
+            }
+        }
+
+        List<Recipe> pageRecipes = recipes.stream().distinct().collect(Collectors.toList());
+        fetchPopularity(pageRecipes);
+        return new RecipePage(pageRecipes, nextPageToken);
+    }
+
+    /**
+     * @param newSearch true on the first page, which always runs the search again
+     * @return TheMealDB's results for the search, fetched unless they are held from an earlier page
+     */
+    private List<Recipe> apiResultsFor(String name, String category, boolean newSearch) {
+        ApiResults held = apiResults;
+        if (!newSearch && held != null && held.matches(name, category)) {
+            return held.recipes;
+        }
+        List<Recipe> recipes = apiDAO.search(name, category);
+        apiResults = new ApiResults(name, category, recipes);
+        return recipes;
+    }
+
+    /**
+     * Fills in views, saves and averageRating from Firebase with one bulk read for the whole list.
+     */
+    private void fetchPopularity(List<Recipe> recipes) {
+        if (firebaseDAO == null || recipes == null || recipes.isEmpty()) {
+            return;
+        }
+        List<String> recipeIds = recipes.stream().map(Recipe::getRecipeId).collect(Collectors.toList());
+        Map<String, RecipeStats> stats = firebaseDAO.getStats(recipeIds);
+        for (Recipe recipe : recipes) {
+            RecipeStats recipeStats = stats.get(recipe.getRecipeId());
+            if (recipeStats != null) {
+                recipe.setViews(recipeStats.getViews());
+                recipe.setSaves(recipeStats.getSaves());
+                recipe.setAverageRating(recipeStats.getAverageRating());
+            }
+        }
+    }
+
+    private static String encodePageToken(String source, String sourceToken) {
+        String token = source + ":" + (sourceToken != null ? sourceToken : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodePageToken(String pageToken) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token: " + pageToken, e);
+        }
+    }
+
+    private static class ApiResults {
+        final String name;
+        final String category;
+        final List<Recipe> recipes;
+
+        ApiResults(String name, String category, List<Recipe> recipes) {
+            this.name = name;
+            this.category = category;
+            this.recipes = recipes;
+        }
+
+        boolean matches(String name, String category) {
+            return Objects.equals(this.name, name) && Objects.equals(this.category, category);
+        }
     }
 }
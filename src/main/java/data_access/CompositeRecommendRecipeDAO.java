@@ -60,4 +60,14 @@ public class CompositeRecommendRecipeDAO implements RecommendRecipeDataAccessInt
     public List<Recipe> getRecipesByCategory(String category) {
         return apiDAO.getRecipesByCategory(category);
     }
-}
\ No newline at end of file
+
+    /**
+     * Fill in the details of recommended recipes from MealDB API.
+     *
+     * @param recipes the recommendations to hydrate
+     */
+    @Override
+    public void hydrateRecipes(List<Recipe> recipes) {
+        apiDAO.hydrateRecipes(recipes);
+    }
+}
@@ -9,10 +9,13 @@ import com.google.firebase.cloud.FirestoreClient;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 public class FirebaseInitializer {
     private static boolean initialized = false;
     private static Firestore firestore;
+    private static final List<Runnable> shutdownTasks = new ArrayList<>();
 
     public static synchronized void initialize() throws IOException {
         if (initialized) {
@@ -61,12 +64,36 @@ public class FirebaseInitializer {
         return initialized;
     }
 
+    /**
+     * Registers work to run at the start of shutdown(), while Firestore is still usable, such as
+     * flushing buffered writes. Tasks run once, in the order they were added, without this class's
+     * lock held, so they may take locks of their own.
+     */
+    public static synchronized void addShutdownTask(Runnable task) {
+        shutdownTasks.add(task);
+    }
+
     public static void shutdown() {
-        if (initialized && FirebaseApp.getApps() != null && !FirebaseApp.getApps().isEmpty()) {
-            FirebaseApp.getInstance().delete();
-            initialized = false;
-            firestore = null;
-            System.out.println("Firebase shut down successfully.");
+        List<Runnable> tasks;
+        synchronized (FirebaseInitializer.class) {
+            tasks = new ArrayList<>(shutdownTasks);
+            shutdownTasks.clear();
+        }
+        for (Runnable task : tasks) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error running Firebase shutdown task: " + e.getMessage());
+            }
+        }
+
+        synchronized (FirebaseInitializer.class) {
+            if (initialized && FirebaseApp.getApps() != null && !FirebaseApp.getApps().isEmpty()) {
+                FirebaseApp.getInstance().delete();
+                initialized = false;
+                firestore = null;
+                System.out.println("Firebase shut down successfully.");
+            }
         }
     }
 }
@@ -7,19 +7,42 @@ import entity.Ingredient;
 import entity.Recipe;
 import entity.Review;
 import use_case.post_recipe.PostRecipeDataAccessInterface;
+import use_case.recipe_search.RecipePage;
 import use_case.view_recipe.ViewRecipeDataAccessInterface;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * Recipes posted by users, in the Firestore recipes collection.
+ *
+ * The list reads (search, findByCategory, findByAuthor, findPublishedRecipes, findByTitlePrefix
+ * and their paged forms) only read the fields in RecipeSummaryProjection and return
+ * RecipeSummary objects. findById returns the full recipe.
+ *
+ * In replica mode (see RecipeReplica) findById, search, findByCategory and findByAuthor are
+ * served from memory while the replica is live, and from Firestore otherwise.
+ */
 public class FirebaseRecipeDataAccessObject implements PostRecipeDataAccessInterface, ViewRecipeDataAccessInterface {
+    // Stays under the 500 writes allowed in one batch
+    private static final int BACKFILL_PAGE_SIZE = 400;
+    static final int MAX_BATCH_WRITES = 500;
+    private static final String CATEGORY_NAMES_FIELD = "names";
+    private static final String CATEGORY_BACKFILLED_FIELD = "backfilled";
+
     private final Firestore db;
     private final CollectionReference recipesCollection;
-    private final CollectionReference recipeViewsCollection;
+    private final ShardedViewCounter viewCounter;
+    private final WriteBehindViewRecorder viewRecorder;
+    private final RecipeStatsStore statsStore;
     private final CollectionReference categoriesCollection;
+    private final DocumentReference categoryRegistry;
+    private final RecipeReplica replica;
 
     public FirebaseRecipeDataAccessObject() {
         this(FirebaseInitializer.getFirestore());
@@ -28,124 +51,211 @@ public class FirebaseRecipeDataAccessObject implements PostRecipeDataAccessInter
     public FirebaseRecipeDataAccessObject(Firestore db) {
         this.db = db;
         this.recipesCollection = db.collection("recipes");
-        this.recipeViewsCollection = db.collection("recipe_views");
+        this.viewCounter = new ShardedViewCounter(db);
+        this.viewRecorder = WriteBehindViewRecorder.getInstance(db);
+        this.statsStore = new RecipeStatsStore(db, viewCounter, ViewCountCache.getInstance());
         this.categoriesCollection = db.collection("categories");
+        this.categoryRegistry = db.collection("metadata").document("categories");
+        this.replica = RecipeReplica.getInstance(db);
     }
 
     @Override
     public Recipe saveRecipe(Recipe recipe) {
         try {
-            // 1. Save the recipe to the "recipes" collection
-            Map<String, Object> data = new HashMap<>();
-            data.put("recipeId", recipe.getRecipeId());
-            data.put("authorId", recipe.getAuthorId());
-            data.put("title", recipe.getTitle());
-            data.put("description", recipe.getDescription());
-            data.put("category", recipe.getCategory());
-            data.put("tags", recipe.getTags());
-            data.put("imagePath", recipe.getImagePath());
-            data.put("status", recipe.getStatus().toString());
-            data.put("creationDate", recipe.getCreationDate().getTime());
-            data.put("updateDate", recipe.getUpdateDate().getTime());
-            data.put("saves", recipe.getSaves());
-            data.put("averageRating", recipe.getAverageRating());
-            data.put("shareable", recipe.isShareable());
-            data.put("reviews", recipe.getReviews());
-
-            List<Map<String, String>> ingredientsList = recipe.getIngredients().stream()
-                    .map(ingredient -> {
-                        Map<String, String> ingMap = new HashMap<>();
-                        ingMap.put("name", ingredient.getName());
-                        ingMap.put("measure", ingredient.getMeasure());
-                        return ingMap;
-                    })
-                    .collect(Collectors.toList());
-            data.put("ingredients", ingredientsList);
-
-            recipesCollection.document(recipe.getRecipeId()).set(data).get();
-
-            // 2. Update the "categories" collection
+            return saveRecipeAsync(recipe).get();
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error saving recipe to Firebase: " + e.getMessage());
+            throw new RuntimeException("Error saving recipe", e);
+        }
+    }
+
+    /**
+     * Publishes a recipe without blocking: the recipe document and its category's entry in the
+     * category registry are written together in one WriteBatch, in one round trip. arrayUnion
+     * makes the registry write safe to repeat, so no transaction is needed.
+     *
+     * @return a future completed with the recipe once both writes are committed
+     */
+    public CompletableFuture<Recipe> saveRecipeAsync(Recipe recipe) {
+        WriteBatch batch = db.batch();
+        addToBatch(batch, Collections.singletonList(recipe));
+        return toCompletableFuture(batch.commit()).thenApply(results -> recipe);
+    }
+
+    /**
+     * Publishes many recipes, for imports. They are written in WriteBatches of at most 500
+     * operations, committed concurrently, each with one category registry write for all of its
+     * recipes. Batches commit independently, so if the future fails some batches may have been
+     * written; saving the same recipes again is safe.
+     *
+     * @return a future completed with the recipes once every batch is committed
+     */
+    public CompletableFuture<List<Recipe>> saveRecipes(List<Recipe> recipes) {
+        List<CompletableFuture<List<WriteResult>>> commits = new ArrayList<>();
+        for (List<Recipe> chunk : chunkForBatches(recipes, MAX_BATCH_WRITES)) {
+            WriteBatch batch = db.batch();
+            addToBatch(batch, chunk);
+            commits.add(toCompletableFuture(batch.commit()));
+        }
+        return CompletableFuture.allOf(commits.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> recipes);
+    }
+
+    /**
+     * Splits recipes into groups whose writes fit in one batch: one write per recipe plus one
+     * category registry write if any of them has a category.
+     */
+    static List<List<Recipe>> chunkForBatches(List<Recipe> recipes, int maxWrites) {
+        List<List<Recipe>> chunks = new ArrayList<>();
+        List<Recipe> chunk = new ArrayList<>();
+        boolean registryWrite = false;
+        for (Recipe recipe : recipes) {
+            boolean hasCategory = recipe.getCategory() != null && !recipe.getCategory().isEmpty();
+            int writes = chunk.size() + 1 + (registryWrite || hasCategory ? 1 : 0);
+            if (writes > maxWrites && !chunk.isEmpty()) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                registryWrite = false;
+            }
+            chunk.add(recipe);
+            registryWrite |= hasCategory;
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private void addToBatch(WriteBatch batch, List<Recipe> recipes) {
+        Set<String> categories = new LinkedHashSet<>();
+        for (Recipe recipe : recipes) {
+            // A merge keeps the counters, which toDocument leaves out, when a recipe is republished
+            batch.set(recipesCollection.document(recipe.getRecipeId()), toDocument(recipe), SetOptions.merge());
             String category = recipe.getCategory();
             if (category != null && !category.isEmpty()) {
-                DocumentReference categoryDocRef = categoriesCollection.document(category);
-                ApiFuture<Void> future = db.runTransaction(transaction -> {
-                    DocumentSnapshot snapshot = transaction.get(categoryDocRef).get();
-                    if (snapshot.exists()) {
-                        transaction.update(categoryDocRef, "recipes", FieldValue.arrayUnion(recipe.getRecipeId()));
-                    } else {
-                        Map<String, Object> catData = new HashMap<>();
-                        catData.put("recipes", Collections.singletonList(recipe.getRecipeId()));
-                        transaction.set(categoryDocRef, catData);
-                    }
-                    return null;
-                });
-                future.get(); // Wait for transaction to complete
+                categories.add(category);
             }
+        }
+        // A merge set creates the registry document if it does not exist yet
+        if (!categories.isEmpty()) {
+            batch.set(categoryRegistry,
+                    Collections.singletonMap(CATEGORY_NAMES_FIELD, FieldValue.arrayUnion(categories.toArray())),
+                    SetOptions.merge());
+        }
+    }
 
-            return recipe;
+    /**
+     * @return the recipe's fields, without saves and averageRating: those are kept by the save and
+     * review DAOs, and a missing one reads as 0
+     */
+    private Map<String, Object> toDocument(Recipe recipe) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("recipeId", recipe.getRecipeId());
+        data.put("authorId", recipe.getAuthorId());
+        data.put("title", recipe.getTitle());
+        data.put(RecipeTitleIndex.TITLE_LOWER_FIELD, RecipeTitleIndex.normalize(recipe.getTitle()));
+        data.put(RecipeTitleIndex.TITLE_TOKENS_FIELD, RecipeTitleIndex.titleTokens(recipe.getTitle()));
+        data.put("description", recipe.getDescription());
+        data.put("category", recipe.getCategory());
+        data.put("tags", recipe.getTags());
+        data.put("imagePath", recipe.getImagePath());
+        data.put("status", recipe.getStatus().toString());
+        data.put("creationDate", recipe.getCreationDate().getTime());
+        data.put("updateDate", recipe.getUpdateDate().getTime());
+        data.put("shareable", recipe.isShareable());
+        data.put("reviews", recipe.getReviews());
+
+        List<Map<String, String>> ingredientsList = recipe.getIngredients().stream()
+                .map(ingredient -> {
+                    Map<String, String> ingMap = new HashMap<>();
+                    ingMap.put("name", ingredient.getName());
+                    ingMap.put("measure", ingredient.getMeasure());
+                    return ingMap;
+                })
+                .collect(Collectors.toList());
+        data.put("ingredients", ingredientsList);
+        return data;
+    }
 
-        } catch (InterruptedException | ExecutionException e) {
-            System.err.println("Error saving recipe to Firebase: " + e.getMessage());
-            throw new RuntimeException("Error saving recipe", e);
-        }
+    private static <T> CompletableFuture<T> toCompletableFuture(ApiFuture<T> apiFuture) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        apiFuture.addListener(() -> {
+            try {
+                future.complete(apiFuture.get());
+            } catch (InterruptedException | ExecutionException e) {
+                future.completeExceptionally(e instanceof ExecutionException ? e.getCause() : e);
+            }
+        }, Runnable::run);
+        return future;
     }
 
+    /**
+     * Reads the category names from the registry document, one small read. Publishing creates the
+     * registry before the backfill has filled it, so until the backfill has marked it backfilled
+     * the old categories collection is read as well and merged in.
+     */
     public List<String> getAllCategories() {
         try {
-            ApiFuture<QuerySnapshot> future = categoriesCollection.get();
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-            return documents.stream()
-                    .map(QueryDocumentSnapshot::getId)
-                    .collect(Collectors.toList());
+            DocumentSnapshot registry = categoryRegistry.get().get();
+            List<String> legacyNames = null;
+            if (!registry.exists() || !Boolean.TRUE.equals(registry.getBoolean(CATEGORY_BACKFILLED_FIELD))) {
+                legacyNames = categoriesCollection.get().get().getDocuments().stream()
+                        .map(QueryDocumentSnapshot::getId)
+                        .collect(Collectors.toList());
+            }
+            return categoryNames(registry.exists() ? registry.get(CATEGORY_NAMES_FIELD) : null, legacyNames);
         } catch (InterruptedException | ExecutionException e) {
             System.err.println("Error fetching categories from Firebase: " + e.getMessage());
             return new ArrayList<>();
         }
     }
 
-    public List<Recipe> findByCategory(String category, String name) {
-        try {
-            DocumentReference categoryDocRef = categoriesCollection.document(category);
-            ApiFuture<DocumentSnapshot> future = categoryDocRef.get();
-            DocumentSnapshot document = future.get();
-
-            if (!document.exists()) {
-                return new ArrayList<>();
-            }
-
-            @SuppressWarnings("unchecked")
-            List<String> recipeIds = (List<String>) document.get("recipes");
-            if (recipeIds == null || recipeIds.isEmpty()) {
-                return new ArrayList<>();
-            }
-
-            // Fetch all recipes by their IDs
-            List<ApiFuture<DocumentSnapshot>> futures = new ArrayList<>();
-            for (String id : recipeIds) {
-                if (id != null && !id.isEmpty()) {
-                    futures.add(recipesCollection.document(id).get());
+    /**
+     * The sorted, distinct category names of the registry and, if it is not backfilled yet, the
+     * old categories collection.
+     *
+     * @param registryNames the registry's names field, or null if it has none
+     * @param legacyNames the IDs in the old categories collection, or null once the registry is backfilled
+     */
+    static List<String> categoryNames(Object registryNames, List<String> legacyNames) {
+        Set<String> names = new TreeSet<>();
+        if (registryNames instanceof List) {
+            for (Object name : (List<?>) registryNames) {
+                if (name instanceof String) {
+                    names.add((String) name);
                 }
             }
+        }
+        if (legacyNames != null) {
+            names.addAll(legacyNames);
+        }
+        return new ArrayList<>(names);
+    }
 
-            List<Recipe> recipes = new ArrayList<>();
-            for (ApiFuture<DocumentSnapshot> f : futures) {
-                DocumentSnapshot doc = f.get();
-                if (doc.exists()) {
-                    recipes.add(documentToRecipe(doc));
-                }
+    /**
+     * Finds the published recipes of a category with one indexed query, however big the category.
+     * The name filter keeps the "title contains" match.
+     */
+    public List<Recipe> findByCategory(String category, String name) {
+        try {
+            List<? extends DocumentSnapshot> documents = replicaDocuments(doc ->
+                    category.equals(doc.getString("category")) && "PUBLISHED".equals(doc.getString("status")));
+            if (documents == null) {
+                documents = categoryQuery(category).get().get().getDocuments();
             }
 
-            Stream<Recipe> recipeStream = recipes.stream();
+            Stream<Recipe> recipeStream = documents.stream().map(RecipeSummaryProjection::parse);
 
             // Filter by name if provided
             if (name != null && !name.isEmpty()) {
                 recipeStream = recipeStream.filter(recipe ->
                         recipe.getTitle() != null &&
-                        recipe.getTitle().toLowerCase().contains(name.toLowerCase())
+                        RecipeTitleIndex.matches(recipe.getTitle(), name)
                 );
             }
 
-            return recipeStream.collect(Collectors.toList());
+            // Only fetch view counts for the recipes that passed the filter
+            return applyViewCounts(recipeStream.collect(Collectors.toList()));
 
         } catch (InterruptedException | ExecutionException e) {
             System.err.println("Error finding recipes by category: " + e.getMessage());
@@ -153,8 +263,38 @@ public class FirebaseRecipeDataAccessObject implements PostRecipeDataAccessInter
         }
     }
 
+    /**
+     * The paged form of {@link #findByCategory}, in document ID order.
+     *
+     * @param pageToken null for the first page, otherwise the token of the previous page
+     */
+    public RecipePage findByCategoryPage(String category, String name, String pageToken, int pageSize) {
+        Predicate<Recipe> filter = recipe -> true;
+        if (name != null && !name.isEmpty()) {
+            filter = recipe -> recipe.getTitle() != null && RecipeTitleIndex.matches(recipe.getTitle(), name);
+        }
+        try {
+            return queryPage(categoryQuery(category), filter, pageToken, pageSize);
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error finding recipes by category: " + e.getMessage());
+            throw new RuntimeException("Error finding recipes by category", e);
+        }
+    }
+
+    private Query categoryQuery(String category) {
+        return recipesCollection
+                .whereEqualTo("category", category)
+                .whereEqualTo("status", "PUBLISHED")
+                .select(RecipeSummaryProjection.FIELDS);
+    }
+
     @Override
     public Recipe findById(String recipeId) {
+        if (isReplicaLive()) {
+            // The replica mirrors the whole collection, so a recipe missing from it does not exist
+            DocumentSnapshot document = replica.get(recipeId);
+            return document != null ? documentToRecipe(document) : null;
+        }
         try {
             DocumentReference docRef = recipesCollection.document(recipeId);
             ApiFuture<DocumentSnapshot> future = docRef.get();
@@ -174,18 +314,30 @@ public class FirebaseRecipeDataAccessObject implements PostRecipeDataAccessInter
 
     public List<Recipe> search(String name, String category) {
         try {
-            Query query = recipesCollection.whereEqualTo("status", "PUBLISHED");
-
-            ApiFuture<QuerySnapshot> future = query.get();
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
+            List<? extends DocumentSnapshot> documents = replicaDocuments(doc -> true);
+            String token = RecipeTitleIndex.queryToken(name);
+            if (documents != null) {
+                // Every recipe is in memory; the filters below do the matching
+            } else if (token.isEmpty()) {
+                documents = recipesCollection.whereEqualTo("status", "PUBLISHED")
+                        .select(RecipeSummaryProjection.FIELDS)
+                        .get().get().getDocuments();
+            } else {
+                // Only recipes with a title word starting with the query's most selective word
+                documents = recipesCollection.whereArrayContains(RecipeTitleIndex.TITLE_TOKENS_FIELD, token)
+                        .select(RecipeSummaryProjection.FIELDS)
+                        .get().get().getDocuments();
+            }
 
-            Stream<Recipe> recipeStream = documents.stream().map(this::documentToRecipe);
+            Stream<Recipe> recipeStream = documents.stream()
+                    .filter(doc -> "PUBLISHED".equals(doc.getString("status")))
+                    .map(RecipeSummaryProjection::parse);
 
-            // Filter by name
+            // Filter by name: the candidates are narrowed down, this keeps the "title contains" match
             if (name != null && !name.isEmpty()) {
                 recipeStream = recipeStream.filter(recipe ->
                         recipe.getTitle() != null &&
-                        recipe.getTitle().toLowerCase().contains(name.toLowerCase())
+                        RecipeTitleIndex.matches(recipe.getTitle(), name)
                 );
             }
 
@@ -197,7 +349,8 @@ public class FirebaseRecipeDataAccessObject implements PostRecipeDataAccessInter
                 );
             }
 
-            return recipeStream.collect(Collectors.toList());
+            // Only fetch view counts for the recipes that passed the filters
+            return applyViewCounts(recipeStream.collect(Collectors.toList()));
 
         } catch (InterruptedException | ExecutionException e) {
             System.err.println("Error searching recipes in Firebase: " + e.getMessage());
@@ -205,46 +358,181 @@ public class FirebaseRecipeDataAccessObject implements PostRecipeDataAccessInter
         }
     }
 
-    @Override
-    public void recordView(String recipeId) {
-        DocumentReference viewDocRef = recipeViewsCollection.document(recipeId);
-        ApiFuture<Void> future = db.runTransaction(transaction -> {
-            DocumentSnapshot snapshot = transaction.get(viewDocRef).get();
-            if (snapshot.exists()) {
-                long newViews = snapshot.getLong("num_views") + 1;
-                transaction.update(viewDocRef, "num_views", newViews);
-            } else {
-                Map<String, Object> data = new HashMap<>();
-                data.put("num_views", 1);
-                transaction.set(viewDocRef, data);
-            }
-            return null;
-        });
+    /**
+     * The paged form of {@link #search}: the same matches, a page at a time in document ID order.
+     * With a category it browses that category, as {@link #findByCategoryPage} does.
+     *
+     * @param pageToken null for the first page, otherwise the token of the previous page
+     */
+    public RecipePage searchPage(String name, String category, String pageToken, int pageSize) {
+        if (category != null && !category.isEmpty()) {
+            return findByCategoryPage(category, name, pageToken, pageSize);
+        }
+
+        String token = RecipeTitleIndex.queryToken(name);
+        Query query;
+        if (!token.isEmpty()) {
+            query = recipesCollection.whereArrayContains(RecipeTitleIndex.TITLE_TOKENS_FIELD, token);
+        } else {
+            query = recipesCollection.whereEqualTo("status", "PUBLISHED");
+        }
+
+        Predicate<Recipe> filter = recipe -> recipe.getStatus() == Recipe.Status.PUBLISHED;
+        if (name != null && !name.isEmpty()) {
+            filter = filter.and(recipe -> recipe.getTitle() != null && RecipeTitleIndex.matches(recipe.getTitle(), name));
+        }
+
         try {
-            future.get();
+            return queryPage(query, filter, pageToken, pageSize);
         } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException("Error recording view", e);
+            System.err.println("Error searching recipes in Firebase: " + e.getMessage());
+            throw new RuntimeException("Error searching recipes", e);
         }
     }
 
-    public CompletableFuture<Integer> getViewCount(String recipeId) {
-        CompletableFuture<Integer> future = new CompletableFuture<>();
-        DocumentReference docRef = recipeViewsCollection.document(recipeId);
-        ApiFuture<DocumentSnapshot> apiFuture = docRef.get();
-        apiFuture.addListener(() -> {
-            try {
-                DocumentSnapshot document = apiFuture.get();
-                if (document.exists()) {
-                    Long views = document.getLong("num_views");
-                    future.complete(views != null ? views.intValue() : 0);
-                } else {
-                    future.complete(0);
+    /**
+     * Finds published recipes whose whole title starts with the given text, in title order, with a
+     * range query on titleLower. Suited to type-ahead suggestions. The status filter is part of the
+     * query, so drafts do not count against the limit; it needs a composite index on status and
+     * titleLower.
+     *
+     * @param prefix the start of the title
+     * @param limit  the maximum number of recipes to return
+     */
+    public List<Recipe> findByTitlePrefix(String prefix, int limit) {
+        String normalized = RecipeTitleIndex.normalize(prefix);
+        if (normalized.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            List<QueryDocumentSnapshot> documents = recipesCollection
+                    .whereEqualTo("status", "PUBLISHED")
+                    .whereGreaterThanOrEqualTo(RecipeTitleIndex.TITLE_LOWER_FIELD, normalized)
+                    .whereLessThan(RecipeTitleIndex.TITLE_LOWER_FIELD, normalized + "\uf8ff")
+                    .orderBy(RecipeTitleIndex.TITLE_LOWER_FIELD)
+                    .select(RecipeSummaryProjection.FIELDS)
+                    .limit(limit)
+                    .get().get().getDocuments();
+            return documentsToSummaries(documents);
+
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error finding recipes by title prefix: " + e.getMessage());
+            throw new RuntimeException("Error finding recipes by title prefix", e);
+        }
+    }
+
+    /**
+     * Writes titleLower and titleTokens on every recipe that lacks them or has stale values, for
+     * recipes saved before the title index existed. Pages through the collection in document ID
+     * order and commits each page as one batch, so it can be re-run safely.
+     *
+     * @return the number of recipes updated
+     */
+    public int backfillTitleIndex() {
+        int updated = 0;
+        DocumentSnapshot last = null;
+        try {
+            while (true) {
+                Query page = recipesCollection.orderBy(FieldPath.documentId()).limit(BACKFILL_PAGE_SIZE);
+                if (last != null) {
+                    page = page.startAfter(last);
+                }
+                List<QueryDocumentSnapshot> documents = page.get().get().getDocuments();
+                if (documents.isEmpty()) {
+                    break;
+                }
+
+                WriteBatch batch = db.batch();
+                int inBatch = 0;
+                for (QueryDocumentSnapshot doc : documents) {
+                    String title = doc.getString("title");
+                    String titleLower = RecipeTitleIndex.normalize(title);
+                    List<String> titleTokens = RecipeTitleIndex.titleTokens(title);
+                    if (!titleLower.equals(doc.getString(RecipeTitleIndex.TITLE_LOWER_FIELD))
+                            || !titleTokens.equals(doc.get(RecipeTitleIndex.TITLE_TOKENS_FIELD))) {
+                        batch.update(doc.getReference(),
+                                RecipeTitleIndex.TITLE_LOWER_FIELD, titleLower,
+                                RecipeTitleIndex.TITLE_TOKENS_FIELD, titleTokens);
+                        inBatch++;
+                    }
+                }
+                if (inBatch > 0) {
+                    batch.commit().get();
+                    updated += inBatch;
+                }
+
+                last = documents.get(documents.size() - 1);
+                if (documents.size() < BACKFILL_PAGE_SIZE) {
+                    break;
                 }
-            } catch (InterruptedException | ExecutionException e) {
-                future.completeExceptionally(e);
             }
-        }, Runnable::run);
-        return future;
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error backfilling recipe title index: " + e.getMessage());
+            throw new RuntimeException("Error backfilling recipe title index", e);
+        }
+        return updated;
+    }
+
+    /**
+     * Rebuilds the category registry from the categories of all published recipes, dropping
+     * categories no published recipe uses any more. Reads only the category and status fields,
+     * a page at a time, so it can be re-run safely.
+     *
+     * @return the number of categories in the registry
+     */
+    public int backfillCategoryRegistry() {
+        Set<String> categories = new TreeSet<>();
+        DocumentSnapshot last = null;
+        try {
+            while (true) {
+                Query page = recipesCollection.select("category", "status")
+                        .orderBy(FieldPath.documentId()).limit(BACKFILL_PAGE_SIZE);
+                if (last != null) {
+                    page = page.startAfter(last);
+                }
+                List<QueryDocumentSnapshot> documents = page.get().get().getDocuments();
+                for (QueryDocumentSnapshot doc : documents) {
+                    String category = doc.getString("category");
+                    if ("PUBLISHED".equals(doc.getString("status")) && category != null && !category.isEmpty()) {
+                        categories.add(category);
+                    }
+                }
+                if (documents.size() < BACKFILL_PAGE_SIZE) {
+                    break;
+                }
+                last = documents.get(documents.size() - 1);
+            }
+
+            // Only the backfill marks the registry complete; publishing alone never does
+            Map<String, Object> registry = new HashMap<>();
+            registry.put(CATEGORY_NAMES_FIELD, new ArrayList<>(categories));
+            registry.put(CATEGORY_BACKFILLED_FIELD, true);
+            categoryRegistry.set(registry).get();
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error backfilling category registry: " + e.getMessage());
+            throw new RuntimeException("Error backfilling category registry", e);
+        }
+        return categories.size();
+    }
+
+    /**
+     * Queues the view; it is written with others in the next batch.
+     */
+    @Override
+    public void recordView(String recipeId) {
+        viewRecorder.record(recipeId);
+    }
+
+    public CompletableFuture<Integer> getViewCount(String recipeId) {
+        return viewCounter.getCount(recipeId);
+    }
+
+    /**
+     * Spreads a recipe's view counter over more shards, for recipes with more views than the
+     * default shard count keeps up with.
+     */
+    public void setViewShardCount(String recipeId, int shards) {
+        viewCounter.setShardCount(recipeId, shards);
     }
 
     /**
@@ -294,19 +582,17 @@ public class FirebaseRecipeDataAccessObject implements PostRecipeDataAccessInter
     }
 
     public List<Recipe> findByAuthor(String authorId) {
+        List<DocumentSnapshot> replicated = replicaDocuments(doc -> authorId.equals(doc.getString("authorId")));
+        if (replicated != null) {
+            return documentsToSummaries(replicated);
+        }
         try {
             ApiFuture<QuerySnapshot> future = recipesCollection
                     .whereEqualTo("authorId", authorId)
+                    .select(RecipeSummaryProjection.FIELDS)
                     .get();
 
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-            List<Recipe> recipes = new ArrayList<>();
-
-            for (DocumentSnapshot doc : documents) {
-                recipes.add(documentToRecipe(doc));
-            }
-
-            return recipes;
+            return documentsToSummaries(future.get().getDocuments());
 
         } catch (InterruptedException | ExecutionException e) {
             System.err.println("Error finding recipes by author: " + e.getMessage());
@@ -318,24 +604,196 @@ public class FirebaseRecipeDataAccessObject implements PostRecipeDataAccessInter
         try {
             ApiFuture<QuerySnapshot> future = recipesCollection
                     .whereEqualTo("status", "PUBLISHED")
+                    .select(RecipeSummaryProjection.FIELDS)
                     .get();
 
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-            List<Recipe> recipes = new ArrayList<>();
+            return documentsToSummaries(future.get().getDocuments());
 
-            for (DocumentSnapshot doc : documents) {
-                recipes.add(documentToRecipe(doc));
-            }
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error finding published recipes: " + e.getMessage());
+            throw new RuntimeException("Error finding published recipes", e);
+        }
+    }
 
-            return recipes;
+    /**
+     * The paged form of {@link #findByAuthor}, in document ID order.
+     *
+     * @param pageToken null for the first page, otherwise the token of the previous page
+     */
+    public RecipePage findByAuthorPage(String authorId, String pageToken, int pageSize) {
+        try {
+            return queryPage(recipesCollection.whereEqualTo("authorId", authorId), recipe -> true, pageToken, pageSize);
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error finding recipes by author: " + e.getMessage());
+            throw new RuntimeException("Error finding recipes by author", e);
+        }
+    }
 
+    /**
+     * The paged form of {@link #findPublishedRecipes}, in document ID order.
+     *
+     * @param pageToken null for the first page, otherwise the token of the previous page
+     */
+    public RecipePage findPublishedRecipesPage(String pageToken, int pageSize) {
+        try {
+            return queryPage(recipesCollection.whereEqualTo("status", "PUBLISHED"), recipe -> true, pageToken, pageSize);
         } catch (InterruptedException | ExecutionException e) {
             System.err.println("Error finding published recipes: " + e.getMessage());
             throw new RuntimeException("Error finding published recipes", e);
         }
     }
 
+    /**
+     * Reads one page of a query with a document ID cursor: ordered by document ID, limited to the
+     * page size and started after the last document the previous page looked at. Recipes the
+     * filter rejects do not count towards the page, so more reads follow until it is full or the
+     * query runs out. Only the page's recipes get their view counts fetched.
+     *
+     * The continuation token is the encoded ID of the last document looked at. A page that ends
+     * exactly at the end of the results still returns a token; the page after it is empty.
+     */
+    private RecipePage queryPage(Query query, Predicate<Recipe> filter, String pageToken, int pageSize)
+            throws InterruptedException, ExecutionException {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        String cursor = decodePageToken(pageToken);
+        List<Recipe> recipes = new ArrayList<>();
+        boolean exhausted = false;
+
+        while (recipes.size() < pageSize && !exhausted) {
+            Query page = query.select(RecipeSummaryProjection.FIELDS).orderBy(FieldPath.documentId()).limit(pageSize);
+            if (cursor != null) {
+                page = page.startAfter(cursor);
+            }
+            List<QueryDocumentSnapshot> documents = page.get().get().getDocuments();
+            exhausted = documents.size() < pageSize;
+
+            for (int i = 0; i < documents.size() && recipes.size() < pageSize; i++) {
+                QueryDocumentSnapshot doc = documents.get(i);
+                cursor = doc.getId();
+                Recipe recipe = RecipeSummaryProjection.parse(doc);
+                if (filter.test(recipe)) {
+                    recipes.add(recipe);
+                }
+                if (recipes.size() == pageSize && i < documents.size() - 1) {
+                    exhausted = false; // Stopped part-way through this read
+                }
+            }
+        }
+
+        applyViewCounts(recipes);
+        return new RecipePage(recipes, exhausted ? null : encodePageToken(cursor));
+    }
+
+    private static String encodePageToken(String documentId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(documentId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodePageToken(String pageToken) {
+        if (pageToken == null) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token: " + pageToken, e);
+        }
+    }
+
+    /**
+     * Fetches the view counts of many recipes in two getAll calls, whatever their number.
+     *
+     * @return the view count of each recipe ID, 0 for recipes that have never been viewed
+     */
+    public Map<String, Integer> getViewCounts(Collection<String> recipeIds) {
+        return viewCounter.getCounts(recipeIds);
+    }
+
+    /**
+     * Reads the views, saves and ratings of many recipes, posted or from TheMealDB, with one getAll.
+     *
+     * @return the stats of each recipe ID; recipes whose stats could not be read are left out
+     */
+    public Map<String, RecipeStats> getStats(Collection<String> recipeIds) {
+        return statsStore.getStats(recipeIds);
+    }
+
+    /**
+     * Creates the recipe_stats document of every existing recipe.
+     *
+     * @return the number of stats documents written
+     */
+    public int backfillRecipeStats() {
+        return statsStore.backfill();
+    }
+
+    /**
+     * Recounts every recipe's saves from the users' saved lists.
+     *
+     * @return the number of recipes whose count was written
+     */
+    public int backfillSaveCounts() {
+        return statsStore.backfillSaves();
+    }
+
+    private boolean isReplicaLive() {
+        return replica != null && replica.isLive();
+    }
+
+    /**
+     * @return the replicated recipe documents that match, or null if reads should go to Firestore
+     */
+    private List<DocumentSnapshot> replicaDocuments(Predicate<DocumentSnapshot> filter) {
+        if (!isReplicaLive()) {
+            return null;
+        }
+        return replica.getAll().stream().filter(filter).collect(Collectors.toList());
+    }
+
+    /**
+     * Converts a projected result set to summaries, fetching all of its view counts in one round
+     * trip instead of one per document.
+     */
+    private List<Recipe> documentsToSummaries(List<? extends DocumentSnapshot> documents) {
+        List<Recipe> recipes = new ArrayList<>();
+        for (DocumentSnapshot doc : documents) {
+            recipes.add(RecipeSummaryProjection.parse(doc));
+        }
+        return applyViewCounts(recipes);
+    }
+
+    private List<Recipe> applyViewCounts(List<Recipe> recipes) {
+        List<String> recipeIds = new ArrayList<>();
+        for (Recipe recipe : recipes) {
+            recipeIds.add(recipe.getRecipeId());
+        }
+        Map<String, Integer> viewCounts = getViewCounts(recipeIds);
+        for (Recipe recipe : recipes) {
+            // Default to 0 if the count could not be fetched
+            recipe.setViews(viewCounts.getOrDefault(recipe.getRecipeId(), 0));
+        }
+        return recipes;
+    }
+
     private Recipe documentToRecipe(DocumentSnapshot doc) {
+        Recipe recipe = parseRecipe(doc);
+
+        // Fetch views from the separate recipe_views collection
+        try {
+            Integer actualViews = getViewCount(recipe.getRecipeId()).get(); // Synchronously get views
+            recipe.setViews(actualViews);
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error fetching view count for recipe " + recipe.getRecipeId() + ": " + e.getMessage());
+            recipe.setViews(0); // Default to 0 on error
+        }
+        return recipe;
+    }
+
+    /**
+     * Converts a recipe document without its view count, which lives in the recipe_views collection.
+     */
+    private Recipe parseRecipe(DocumentSnapshot doc) {
         String recipeId = doc.getString("recipeId");
         String authorId = doc.getString("authorId");
         String title = doc.getString("title");
@@ -408,15 +866,6 @@ public class FirebaseRecipeDataAccessObject implements PostRecipeDataAccessInter
                 imagePath
         );
 
-        // Fetch views from the separate recipe_views collection
-        try {
-            Integer actualViews = getViewCount(recipeId).get(); // Synchronously get views
-            recipe.setViews(actualViews);
-        } catch (InterruptedException | ExecutionException e) {
-            System.err.println("Error fetching view count for recipe " + recipeId + ": " + e.getMessage());
-            recipe.setViews(0); // Default to 0 on error
-        }
-
         Long saves = doc.getLong("saves");
         Boolean shareable = doc.getBoolean("shareable");
 
@@ -433,7 +882,10 @@ public class FirebaseRecipeDataAccessObject implements PostRecipeDataAccessInter
 
     public void deleteRecipe(String recipeId) {
         try {
-            recipesCollection.document(recipeId).delete().get();
+            WriteBatch batch = db.batch();
+            batch.delete(recipesCollection.document(recipeId));
+            batch.delete(RecipeStatsStore.statsRef(db, recipeId));
+            batch.commit().get();
             System.out.println("Recipe deleted: " + recipeId);
         } catch (InterruptedException | ExecutionException e) {
             System.err.println("Error deleting recipe: " + e.getMessage());
@@ -17,15 +17,20 @@ import java.util.concurrent.ExecutionException;
  * The DAO for recipes from the API.
  */
 public class FirebaseReviewDataAccessObject implements EditReviewDataAccessInterface {
+    // Stays under the 500 writes allowed in one batch
+    private static final int MIGRATION_PAGE_SIZE = 400;
+
     private final Firestore db;
     private final CollectionReference reviewsCollection;
     private final CollectionReference recipesCollection;
+    private final RecipeStatsStore statsStore;
 
 
     public FirebaseReviewDataAccessObject() {
         this.db = FirebaseInitializer.getFirestore();
         this.reviewsCollection = db.collection("reviews");
         this.recipesCollection = db.collection("recipes");
+        this.statsStore = new RecipeStatsStore(db);
     }
 
 
@@ -35,6 +40,9 @@ public class FirebaseReviewDataAccessObject implements EditReviewDataAccessInter
             String title = review.getTitle();
             String description = review.getDescription();
             DocumentReference reviewDocRef = reviewsCollection.document(review.getReviewId());
+            // The stored rating has to be read before it is overwritten
+            DocumentSnapshot storedReview = reviewDocRef.get().get();
+            Object storedRating = storedReview.exists() ? storedReview.get("rating") : null;
 
             reviewDocRef.update("title", title);
             reviewDocRef.update("description", description);
@@ -64,9 +72,12 @@ public class FirebaseReviewDataAccessObject implements EditReviewDataAccessInter
                 }
             }
 
+            Integer oldRating = null;
             for (Review review1 : tempReviews) {
                 if (!(review1.getReviewId().equals(review.getReviewId()))) {
                     reviews.add(review1);
+                } else {
+                    oldRating = review1.getRating();
                 }
             }
             reviews.add(review);
@@ -77,6 +88,9 @@ public class FirebaseReviewDataAccessObject implements EditReviewDataAccessInter
             double averageRating = totalRating / tempReviews.size();
             recipeDocRef.update("reviews", reviews);
             recipeDocRef.update("averageRating", averageRating);
+            // Reviews the index migration has not copied yet are only in the embedded list
+            long[] ratingChange = ratingChange(storedRating != null ? storedRating : oldRating, review.getRating());
+            statsStore.addRating(review.getRecipeId(), ratingChange[0], ratingChange[1]);
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Error editing review", e);
         }
@@ -141,6 +155,7 @@ public class FirebaseReviewDataAccessObject implements EditReviewDataAccessInter
 
             recipeDocRef.update("reviews", reviews);
             recipeDocRef.update("averageRating", averageRating);
+            statsStore.addRating(recipeId, review.getRating(), 1);
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Error recording review", e);
         }
@@ -178,31 +193,37 @@ public class FirebaseReviewDataAccessObject implements EditReviewDataAccessInter
 
     @Override
     public Review findByAuthor(String authorId, String recipeId) {
-        List<Review> reviews = findByRecipe(recipeId);
+        try {
+            List<QueryDocumentSnapshot> documents = reviewsCollection
+                    .whereEqualTo("recipe_id", recipeId)
+                    .whereEqualTo("author_id", authorId)
+                    .get().get().getDocuments();
 
-        if (reviews == null || reviews.isEmpty()) {
+            for (DocumentSnapshot doc : documents) {
+                Review review = documentToReview(doc);
+                if (review != null) {
+                    return review;
+                }
+            }
             return null;
-        }
 
-        for (Review review : reviews) {
-            if (review.getAuthorId().equals(authorId)) {
-                return review;
-            }
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error finding review by author: " + e.getMessage());
+            throw new RuntimeException("Error finding review by author", e);
         }
-
-        return null;
     }
 
     @Override
     public List<Review> findByRecipe(String recipeId) {
         try {
-            ApiFuture<QuerySnapshot> future = reviewsCollection.get();
+            // Only this recipe's reviews, through the single-field index on recipe_id
+            ApiFuture<QuerySnapshot> future = reviewsCollection.whereEqualTo("recipe_id", recipeId).get();
             List<QueryDocumentSnapshot> documents = future.get().getDocuments();
             List<Review> reviews = new ArrayList<>();
 
             for (DocumentSnapshot doc : documents) {
                 Review tempReview = documentToReview(doc);
-                if (tempReview != null && tempReview.getRecipeId().equals(recipeId)) {
+                if (tempReview != null) {
                     reviews.add(tempReview);
                 }
             }
@@ -219,6 +240,141 @@ public class FirebaseReviewDataAccessObject implements EditReviewDataAccessInter
         }
     }
 
+    /**
+     * Makes every review findable by the recipe_id and author_id queries. Review documents that
+     * only have the camelCase field names get the indexed ones, and reviews that only exist inside
+     * their recipe document are copied to the reviews collection. Safe to re-run.
+     *
+     * @return the number of review documents written
+     */
+    public int migrateReviewIndex() {
+        int written = 0;
+        try {
+            // 1. Fill in the indexed fields on review documents
+            Set<String> reviewIds = new HashSet<>();
+            DocumentSnapshot last = null;
+            while (true) {
+                Query page = reviewsCollection.orderBy(FieldPath.documentId()).limit(MIGRATION_PAGE_SIZE);
+                if (last != null) {
+                    page = page.startAfter(last);
+                }
+                List<QueryDocumentSnapshot> documents = page.get().get().getDocuments();
+
+                WriteBatch batch = db.batch();
+                int inBatch = 0;
+                for (QueryDocumentSnapshot doc : documents) {
+                    reviewIds.add(doc.getId());
+                    Map<String, Object> fixes = indexFieldFixes(doc.getData());
+                    if (!fixes.isEmpty()) {
+                        batch.update(doc.getReference(), fixes);
+                        inBatch++;
+                    }
+                }
+                if (inBatch > 0) {
+                    batch.commit().get();
+                    written += inBatch;
+                }
+
+                if (documents.size() < MIGRATION_PAGE_SIZE) {
+                    break;
+                }
+                last = documents.get(documents.size() - 1);
+            }
+
+            // 2. Copy reviews that are only embedded in their recipe
+            last = null;
+            while (true) {
+                Query page = recipesCollection.select("reviews").orderBy(FieldPath.documentId()).limit(MIGRATION_PAGE_SIZE);
+                if (last != null) {
+                    page = page.startAfter(last);
+                }
+                List<QueryDocumentSnapshot> documents = page.get().get().getDocuments();
+
+                WriteBatch batch = db.batch();
+                int inBatch = 0;
+                for (QueryDocumentSnapshot doc : documents) {
+                    Object embedded = doc.get("reviews");
+                    if (!(embedded instanceof List)) {
+                        continue;
+                    }
+                    for (Object item : (List<?>) embedded) {
+                        if (!(item instanceof Map)) {
+                            continue;
+                        }
+                        Map<String, Object> review = embeddedToDocument((Map<?, ?>) item, doc.getId());
+                        String reviewId = (String) review.get("review_id");
+                        if (reviewId == null || !reviewIds.add(reviewId)) {
+                            continue;
+                        }
+                        batch.set(reviewsCollection.document(reviewId), review);
+                        if (++inBatch == MIGRATION_PAGE_SIZE) {
+                            batch.commit().get();
+                            written += inBatch;
+                            batch = db.batch();
+                            inBatch = 0;
+                        }
+                    }
+                }
+                if (inBatch > 0) {
+                    batch.commit().get();
+                    written += inBatch;
+                }
+
+                if (documents.size() < MIGRATION_PAGE_SIZE) {
+                    break;
+                }
+                last = documents.get(documents.size() - 1);
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error migrating reviews: " + e.getMessage());
+            throw new RuntimeException("Error migrating reviews", e);
+        }
+        return written;
+    }
+
+    /**
+     * @param storedRating the review's rating as stored, or null if it has none yet
+     * @return the change to the recipe's rating total and to its number of ratings when the
+     * review's rating is set to newRating
+     */
+    static long[] ratingChange(Object storedRating, int newRating) {
+        if (storedRating instanceof Number) {
+            return new long[] {newRating - ((Number) storedRating).longValue(), 0};
+        }
+        return new long[] {newRating, 1};
+    }
+
+    /**
+     * @return the indexed fields a review document is missing, taken from their camelCase names
+     */
+    static Map<String, Object> indexFieldFixes(Map<String, Object> data) {
+        Map<String, Object> fixes = new HashMap<>();
+        String[][] names = {{"review_id", "reviewId"}, {"recipe_id", "recipeId"}, {"author_id", "authorId"}};
+        for (String[] name : names) {
+            if (data.get(name[0]) == null && data.get(name[1]) instanceof String) {
+                fixes.put(name[0], data.get(name[1]));
+            }
+        }
+        return fixes;
+    }
+
+    /**
+     * Converts a review embedded in a recipe document, which uses the Review property names, to a
+     * reviews collection document.
+     */
+    static Map<String, Object> embeddedToDocument(Map<?, ?> embedded, String recipeId) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("review_id", embedded.get("reviewId"));
+        Object embeddedRecipeId = embedded.get("recipeId");
+        data.put("recipe_id", embeddedRecipeId != null ? embeddedRecipeId : recipeId);
+        data.put("author_id", embedded.get("authorId"));
+        data.put("title", embedded.get("title"));
+        data.put("description", embedded.get("description"));
+        data.put("rating", embedded.get("rating"));
+        data.put("dateCreated", embedded.get("dateCreated"));
+        return data;
+    }
+
     public User findUserByUsername(String username) {
         return null;
     }
@@ -1,11 +1,13 @@
 package data_access;
 
-import com.google.api.core.ApiFuture;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
 import com.google.cloud.Timestamp;
 import com.google.cloud.firestore.*;
 import entity.Ingredient;
 import entity.Recipe;
 import entity.Review;
+import io.grpc.Status;
 import use_case.save_recipe.SaveRecipeDataAccessInterface;
 import use_case.saved_recipes.ShowSavedRecipesDataAccessInterface;
 import use_case.unsave_recipe.UnsaveRecipeDataAccessInterface;
@@ -14,87 +16,226 @@ import java.util.*;
 import java.util.concurrent.ExecutionException;
 
 public class FirebaseSaveRecipeDataAccessObject implements SaveRecipeDataAccessInterface, ShowSavedRecipesDataAccessInterface, UnsaveRecipeDataAccessInterface {
+    private static final int MAX_SAVE_ATTEMPTS = 3;
 
     private final Firestore db;
     private final CollectionReference recipesCollection;
     private final RecipeDataAccessObject apiRecipeDAO;
     private final FirebaseRecipeDataAccessObject firebaseRecipeDAO; // Add this line
+    private final RecipeReplica replica;
+    private final SavedRecipeIdCache savedIds;
 
     public FirebaseSaveRecipeDataAccessObject(RecipeDataAccessObject apiRecipeDAO) {
         this.db = FirebaseInitializer.getFirestore();
         this.recipesCollection = this.db.collection("recipes");
         this.apiRecipeDAO = apiRecipeDAO;
         this.firebaseRecipeDAO = new FirebaseRecipeDataAccessObject(db); // Initialize it here
+        this.replica = RecipeReplica.getInstance(db);
+        this.savedIds = SavedRecipeIdCache.getInstance(db);
     }
 
     @Override
     public boolean isRecipeSaved(String username, String recipeID) {
-        DocumentReference userDocRef = db.collection("users").document(username);
-        try {
-            DocumentSnapshot userDoc = userDocRef.get().get();
-            if (userDoc.exists()) {
-                List<String> savedRecipeIds = (List<String>) userDoc.get("recipes");
-                return savedRecipeIds != null && savedRecipeIds.contains(recipeID);
-            }
-            return false;
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException("Error checking if recipe is saved", e);
-        }
+        // Answered from memory once the user's saved IDs are loaded
+        return savedIds.isSaved(username, recipeID);
     }
 
 
     @Override
     public void saveRecipe(String username, String recipeID) {
-        DocumentReference doc = db.collection("users").document(username);
-
         try {
-            doc.update("recipes", FieldValue.arrayUnion(recipeID)).get();
-
+            changeSaved(username, recipeID, true);
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Error saving recipe", e);
         }
 
     }
 
+    /**
+     * Adds the recipe to or removes it from the user's saved list and moves its save count by one,
+     * in one batch. The count only moves when the list really changes: the batch is conditional on
+     * the user document being unchanged since it was checked, and is retried if it was changed.
+     */
+    private void changeSaved(String username, String recipeID, boolean save)
+            throws InterruptedException, ExecutionException {
+        DocumentReference userRef = db.collection("users").document(username);
+        DocumentReference recipeRef = recipesCollection.document(recipeID);
+
+        for (int attempt = 1; ; attempt++) {
+            List<DocumentSnapshot> docs = db.getAll(userRef, recipeRef).get();
+            DocumentSnapshot userDoc = docs.get(0);
+            DocumentSnapshot recipeDoc = docs.get(1);
+            if (!userDoc.exists()) {
+                throw new RuntimeException("User not found: " + username);
+            }
+
+            if (SavedRecipeIdCache.savedIdsOf(userDoc).contains(recipeID) == save) {
+                // Already in that state; nothing to count
+                savedIds.recordWrite(username, recipeID, save, userDoc.getReadTime());
+                return;
+            }
+
+            long delta = save ? 1 : -1;
+            WriteBatch batch = db.batch();
+            batch.update(userRef, Precondition.updatedAt(userDoc.getUpdateTime()),
+                    "recipes", save ? FieldValue.arrayUnion(recipeID) : FieldValue.arrayRemove(recipeID));
+            // TheMealDB recipes have no recipe document; their count is only in recipe_stats
+            if (recipeDoc.exists()) {
+                batch.update(recipeRef, "saves", FieldValue.increment(delta));
+            }
+            batch.set(RecipeStatsStore.statsRef(db, recipeID),
+                    Collections.singletonMap(RecipeStatsStore.SAVES_FIELD, FieldValue.increment(delta)), SetOptions.merge());
+
+            try {
+                List<WriteResult> results = batch.commit().get();
+                savedIds.recordWrite(username, recipeID, save, results.get(0).getUpdateTime());
+                return;
+            } catch (ExecutionException e) {
+                // Only a user document changed after it was read is worth checking again
+                if (!isPreconditionFailure(e) || attempt >= MAX_SAVE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether a write failed because its precondition no longer held, rather than for a
+     * reason that retrying would not fix
+     */
+    static boolean isPreconditionFailure(Throwable error) {
+        if (error instanceof ExecutionException) {
+            error = error.getCause();
+        }
+        if (error instanceof FirestoreException) {
+            Status status = ((FirestoreException) error).getStatus();
+            if (status != null) {
+                return status.getCode() == Status.Code.FAILED_PRECONDITION;
+            }
+            // Errors from the RPC layer keep their status on the wrapped exception
+            error = error.getCause();
+        }
+        return error instanceof ApiException
+                && ((ApiException) error).getStatusCode().getCode() == StatusCode.Code.FAILED_PRECONDITION;
+    }
+
     public Recipe findById(String recipeId) {
         try {
-            DocumentReference docRef = recipesCollection.document(recipeId);
-            ApiFuture<DocumentSnapshot> future = docRef.get();
-            DocumentSnapshot document = future.get();
+            DocumentSnapshot document = readRecipeDocument(recipeId);
 
-            if (document.exists()) {
+            if (document != null) {
                 return documentToRecipe(document);
             }
 
-            if (apiRecipeDAO != null) {
-                Recipe apiRecipe = apiRecipeDAO.findById(recipeId);
-                if (apiRecipe != null) {
-                    // Fetch views from the separate recipe_views collection
-                    try {
-                        Integer actualViews = firebaseRecipeDAO.getViewCount(recipeId).get();
-                        apiRecipe.setViews(actualViews);
-                    } catch (InterruptedException | ExecutionException e) {
-                        System.err.println("Error fetching view count for API recipe " + recipeId + ": " + e.getMessage());
-                        apiRecipe.setViews(0);
-                    }
-
-                    // Fetch saves from the recipes collection (where it's stored for all recipes, including API ones after saving)
-                    try {
-                        Integer actualSaves = firebaseRecipeDAO.getSaveCount(recipeId).get();
-                        apiRecipe.setSaves(actualSaves);
-                    } catch (InterruptedException | ExecutionException e) {
-                        System.err.println("Error fetching save count for API recipe " + recipeId + ": " + e.getMessage());
-                        apiRecipe.setSaves(0);
-                    }
-                    return apiRecipe;
+            return findApiRecipe(recipeId);
+
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error finding recipe", e);
+        }
+    }
+
+    /**
+     * Looks up a recipe that is not in the recipes collection in TheMealDB, with its views and
+     * saves from Firebase.
+     */
+    private Recipe findApiRecipe(String recipeId) {
+        if (apiRecipeDAO != null) {
+            Recipe apiRecipe = apiRecipeDAO.findById(recipeId);
+            if (apiRecipe != null) {
+                // Views and saves from the recipe's stats, in one read
+                RecipeStats stats = firebaseRecipeDAO.getStats(Collections.singletonList(recipeId)).get(recipeId);
+                apiRecipe.setViews(stats != null ? stats.getViews() : 0);
+                apiRecipe.setSaves(stats != null ? stats.getSaves() : 0);
+                return apiRecipe;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads a recipe document from the replica while it is live, otherwise from Firestore.
+     *
+     * @return the document, or null if the recipes collection has no such recipe
+     */
+    private DocumentSnapshot readRecipeDocument(String recipeId)
+            throws InterruptedException, ExecutionException {
+        if (replica != null && replica.isLive()) {
+            return replica.get(recipeId);
+        }
+        DocumentReference docRef = recipesCollection.document(recipeId);
+        DocumentSnapshot document = docRef.get().get();
+        return document.exists() ? document : null;
+    }
+
+    /**
+     * The list form of findById, in a few round trips whatever the number of recipes: one getAll
+     * for the Firestore recipes, read as RecipeSummary objects, concurrent TheMealDB lookups for
+     * the rest, which come whole, and one stats read.
+     *
+     * @return the recipes that were found, in the order of recipeIds
+     */
+    private List<Recipe> findSummariesById(List<String> recipeIds) throws InterruptedException, ExecutionException {
+        List<String> ids = new ArrayList<>();
+        for (String recipeId : new LinkedHashSet<>(recipeIds)) {
+            if (recipeId != null && !recipeId.isEmpty()) {
+                ids.add(recipeId);
+            }
+        }
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // 1. Recipes posted to Firebase
+        Map<String, Recipe> found = new HashMap<>();
+        if (replica != null && replica.isLive()) {
+            for (String recipeId : ids) {
+                DocumentSnapshot document = replica.get(recipeId);
+                if (document != null) {
+                    found.put(recipeId, RecipeSummaryProjection.parse(document));
                 }
             }
+        } else {
+            DocumentReference[] refs = new DocumentReference[ids.size()];
+            for (int i = 0; i < ids.size(); i++) {
+                refs[i] = recipesCollection.document(ids.get(i));
+            }
+            for (DocumentSnapshot document : db.getAll(refs, RecipeSummaryProjection.FIELD_MASK).get()) {
+                if (document.exists()) {
+                    found.put(document.getId(), RecipeSummaryProjection.parse(document));
+                }
+            }
+        }
 
-            return null;
+        // 2. The rest from TheMealDB, looked up concurrently
+        Set<String> posted = new HashSet<>(found.keySet());
+        List<String> apiIds = new ArrayList<>();
+        for (String recipeId : ids) {
+            if (!found.containsKey(recipeId)) {
+                apiIds.add(recipeId);
+            }
+        }
+        if (apiRecipeDAO != null && !apiIds.isEmpty()) {
+            for (Recipe apiRecipe : apiRecipeDAO.findAllById(apiIds)) {
+                found.put(apiRecipe.getRecipeId(), apiRecipe);
+            }
+        }
 
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException("Error finding recipe", e);
+        // 3. Views for all of them and saves for TheMealDB's, in one read
+        Map<String, RecipeStats> stats = firebaseRecipeDAO.getStats(found.keySet());
+        List<Recipe> recipes = new ArrayList<>();
+        for (String recipeId : ids) {
+            Recipe recipe = found.get(recipeId);
+            if (recipe == null) {
+                continue;
+            }
+            RecipeStats recipeStats = stats.get(recipeId);
+            recipe.setViews(recipeStats != null ? recipeStats.getViews() : 0);
+            if (!posted.contains(recipeId)) {
+                recipe.setSaves(recipeStats != null ? recipeStats.getSaves() : 0);
+            }
+            recipes.add(recipe);
         }
+        return recipes;
     }
 
     private Recipe documentToRecipe(DocumentSnapshot doc) {
@@ -204,18 +345,7 @@ public class FirebaseSaveRecipeDataAccessObject implements SaveRecipeDataAccessI
                 return new ArrayList<>();
             }
 
-            List<Recipe> recipes = new ArrayList<>();
-            for (String recipeID : recipeIDs) {
-
-                if (recipeID == null || recipeID.isEmpty()) {continue;}
-
-                Recipe recipe = findById(recipeID);
-                if (recipe != null) {
-                    recipes.add(recipe);
-                }
-            }
-
-            return recipes;
+            return findSummariesById(recipeIDs);
 
 
         } catch (Exception e) {
@@ -226,10 +356,8 @@ public class FirebaseSaveRecipeDataAccessObject implements SaveRecipeDataAccessI
 
     @Override
     public void unsaveRecipe(String username, String recipeID) {
-        DocumentReference doc = db.collection("users").document(username);
-
         try {
-            doc.update("recipes", FieldValue.arrayRemove(recipeID)).get();
+            changeSaved(username, recipeID, false);
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Error removing recipe", e);
         }
@@ -71,6 +71,10 @@ public class FirebaseUserDataAccessObject implements LoginUserDataAccessInterfac
     @Override
     public void setCurrentUsername(String name) {
         currentUsername = name;
+        if (name != null) {
+            // Load the user's saved recipes now, so save checks need no network call
+            SavedRecipeIdCache.getInstance(db).startSession(name);
+        }
     }
 
     @Override
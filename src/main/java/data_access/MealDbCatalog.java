@@ -0,0 +1,327 @@
+package data_access;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A local mirror of the whole TheMealDB catalog.
+ *
+ * A full sync walks the first-letter search endpoint, which returns complete meals, and then
+ * cross-checks the category and area listings so that every meal is found and hydrated once.
+ * The mirror is kept in a gzipped JSON file holding only the fields the app reads. After that,
+ * a periodic delta refresh re-lists the category and area IDs, hydrates new meals and drops
+ * removed ones.
+ *
+ * A delta refresh cannot see edits to meals it already holds, since the listings only carry IDs,
+ * so every FULL_SYNC_EVERY_REFRESHES refresh intervals the scheduled job does a full sync
+ * instead, which re-hydrates every meal. Until then an edited meal is served as it was, and a
+ * meal added since the last refresh is missing from searches; lookups of an ID the mirror does
+ * not hold go to the network.
+ *
+ * Meals are kept in TheMealDB's own JSON shape, so callers parse them the same way as live responses.
+ */
+public class MealDbCatalog {
+    private static final int MAX_INGREDIENTS = 20;
+    private static final int FULL_SYNC_EVERY_REFRESHES = 4;
+    private static final List<String> KEPT_FIELDS = List.of(
+            "idMeal", "strMeal", "strCategory", "strArea", "strInstructions", "strMealThumb", "strTags");
+
+    private final Path file;
+    private final MealDbResponseCache.Loader fetcher;
+    private final String baseUrl;
+    private final ScheduledExecutorService refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mealdb-catalog-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Replaced wholesale after each sync, never modified in place
+    private volatile Map<String, JSONObject> meals = Collections.emptyMap();
+    private volatile long syncedAt = 0;
+    private volatile long fullSyncedAt = 0;
+
+    /**
+     * @param file    the file the mirror is stored in
+     * @param fetcher fetches a MealDB URL from the network
+     */
+    public MealDbCatalog(Path file, MealDbResponseCache.Loader fetcher) {
+        this(file, fetcher, MealDbHttpClient.getBaseUrl());
+    }
+
+    /**
+     * @param file    the file the mirror is stored in
+     * @param fetcher fetches a MealDB URL from the network
+     * @param baseUrl the MealDB API base URL, ending in a slash
+     */
+    public MealDbCatalog(Path file, MealDbResponseCache.Loader fetcher, String baseUrl) {
+        this.file = file;
+        this.fetcher = fetcher;
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * @return true once the mirror holds a synced catalog that queries can be served from
+     */
+    public boolean isReady() {
+        return !meals.isEmpty();
+    }
+
+    public int size() {
+        return meals.size();
+    }
+
+    /**
+     * @return the time of the last successful sync or refresh, in epoch milliseconds, or 0 if never synced
+     */
+    public long getSyncedAt() {
+        return syncedAt;
+    }
+
+    public JSONObject findById(String id) {
+        return meals.get(id);
+    }
+
+    /**
+     * Finds meals whose name contains the given text and, if a category is given, that belong to it.
+     * Matches TheMealDB's own case-insensitive search.php and filter.php behaviour.
+     */
+    public List<JSONObject> search(String name, String category) {
+        String lowerName = name == null ? "" : name.trim().toLowerCase();
+        List<JSONObject> matches = new ArrayList<>();
+        for (JSONObject meal : meals.values()) {
+            if (!lowerName.isEmpty() && !meal.optString("strMeal").toLowerCase().contains(lowerName)) {
+                continue;
+            }
+            if (category != null && !category.isEmpty() && !meal.optString("strCategory").equalsIgnoreCase(category)) {
+                continue;
+            }
+            matches.add(meal);
+        }
+        return matches;
+    }
+
+    /**
+     * Loads the mirror from disk (if present) and schedules the sync job. A run does a full sync
+     * when nothing was on disk or the last full sync is FULL_SYNC_EVERY_REFRESHES intervals old,
+     * and a delta refresh otherwise.
+     *
+     * @param refreshInterval the time between delta refreshes
+     */
+    public void start(Duration refreshInterval) {
+        loadFromDisk();
+        long fullSyncMillis = refreshInterval.toMillis() * FULL_SYNC_EVERY_REFRESHES;
+        refreshExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                sync(fullSyncMillis);
+            } catch (IOException | JSONException e) {
+                System.err.println("MealDB catalog sync failed: " + e.getMessage());
+            } catch (RuntimeException e) {
+                // An exception escaping the task would cancel every later run
+                System.err.println("MealDB catalog sync failed unexpectedly: " + e);
+            }
+        }, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs one scheduled sync: a full sync if the mirror is empty or its last full sync is at
+     * least fullSyncMillis old, otherwise a delta refresh.
+     */
+    void sync(long fullSyncMillis) throws IOException {
+        if (!isReady() || System.currentTimeMillis() - fullSyncedAt >= fullSyncMillis) {
+            fullSync();
+        } else {
+            refresh();
+        }
+    }
+
+    public void stop() {
+        refreshExecutor.shutdownNow();
+    }
+
+    // =================================================================================
+    // Sync
+    // =================================================================================
+
+    /**
+     * Rebuilds the whole mirror from TheMealDB.
+     */
+    public void fullSync() throws IOException {
+        Map<String, JSONObject> synced = new LinkedHashMap<>();
+        for (char letter = 'a'; letter <= 'z'; letter++) {
+            JSONArray found = fetchMeals("search.php?f=" + letter);
+            for (int i = 0; i < found.length(); i++) {
+                JSONObject meal = compact(found.getJSONObject(i));
+                synced.put(meal.getString("idMeal"), meal);
+            }
+        }
+
+        // Catch anything the letter index missed
+        for (String id : listAllIds()) {
+            if (!synced.containsKey(id)) {
+                JSONObject meal = lookup(id);
+                if (meal != null) {
+                    synced.put(id, meal);
+                }
+            }
+        }
+
+        fullSyncedAt = System.currentTimeMillis();
+        publish(synced);
+        System.out.println("MealDB catalog synced: " + synced.size() + " meals");
+    }
+
+    /**
+     * Brings the mirror up to date by diffing the listed meal IDs against it. Only new meals are
+     * fetched; meals no longer listed are dropped. Meals already held are kept as they are.
+     */
+    public void refresh() throws IOException {
+        Set<String> listed = listAllIds();
+        Map<String, JSONObject> current = meals;
+        Map<String, JSONObject> refreshed = new LinkedHashMap<>();
+
+        int added = 0;
+        for (String id : listed) {
+            JSONObject meal = current.get(id);
+            if (meal == null) {
+                meal = lookup(id);
+                if (meal == null) {
+                    continue;
+                }
+                added++;
+            }
+            refreshed.put(id, meal);
+        }
+        int removed = current.size() - (refreshed.size() - added);
+
+        if (added > 0 || removed > 0) {
+            publish(refreshed);
+            System.out.println("MealDB catalog refreshed: " + added + " added, " + removed + " removed");
+        } else {
+            syncedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Lists every meal ID through the category and area filters. Throws if any listing fails,
+     * so that a partial listing is never mistaken for deleted meals.
+     */
+    private Set<String> listAllIds() throws IOException {
+        Set<String> ids = new LinkedHashSet<>();
+
+        JSONArray categories = new JSONObject(fetcher.load(baseUrl + "categories.php")).getJSONArray("categories");
+        for (int i = 0; i < categories.length(); i++) {
+            addIds(ids, fetchMeals("filter.php?c=" + encode(categories.getJSONObject(i).getString("strCategory"))));
+        }
+
+        JSONArray areas = fetchMeals("list.php?a=list");
+        for (int i = 0; i < areas.length(); i++) {
+            addIds(ids, fetchMeals("filter.php?a=" + encode(areas.getJSONObject(i).getString("strArea"))));
+        }
+        return ids;
+    }
+
+    private static void addIds(Set<String> ids, JSONArray meals) {
+        for (int i = 0; i < meals.length(); i++) {
+            ids.add(meals.getJSONObject(i).getString("idMeal"));
+        }
+    }
+
+    private JSONObject lookup(String id) throws IOException {
+        JSONArray found = fetchMeals("lookup.php?i=" + encode(id));
+        return found.isEmpty() ? null : compact(found.getJSONObject(0));
+    }
+
+    private JSONArray fetchMeals(String endpoint) throws IOException {
+        JSONObject json = new JSONObject(fetcher.load(baseUrl + endpoint));
+        return json.isNull("meals") ? new JSONArray() : json.getJSONArray("meals");
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Keeps only the fields the app reads, and drops empty ingredient slots.
+     */
+    private static JSONObject compact(JSONObject meal) {
+        JSONObject compacted = new JSONObject();
+        for (String field : KEPT_FIELDS) {
+            if (!meal.isNull(field)) {
+                compacted.put(field, meal.get(field));
+            }
+        }
+        for (int i = 1; i <= MAX_INGREDIENTS; i++) {
+            String ingredient = meal.optString("strIngredient" + i);
+            if (!ingredient.trim().isEmpty()) {
+                compacted.put("strIngredient" + i, ingredient);
+                compacted.put("strMeasure" + i, meal.optString("strMeasure" + i));
+            }
+        }
+        return compacted;
+    }
+
+    // =================================================================================
+    // Storage
+    // =================================================================================
+
+    private void publish(Map<String, JSONObject> synced) throws IOException {
+        meals = Collections.unmodifiableMap(synced);
+        syncedAt = System.currentTimeMillis();
+        saveToDisk();
+    }
+
+    private void loadFromDisk() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            JSONObject json = new JSONObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            JSONArray stored = json.getJSONArray("meals");
+            Map<String, JSONObject> loaded = new LinkedHashMap<>();
+            for (int i = 0; i < stored.length(); i++) {
+                JSONObject meal = stored.getJSONObject(i);
+                loaded.put(meal.getString("idMeal"), meal);
+            }
+            meals = Collections.unmodifiableMap(loaded);
+            syncedAt = json.optLong("syncedAt", 0);
+            fullSyncedAt = json.optLong("fullSyncedAt", 0);
+        } catch (IOException | JSONException e) {
+            System.err.println("Failed to load MealDB catalog, it will be synced again: " + e.getMessage());
+        }
+    }
+
+    private void saveToDisk() throws IOException {
+        JSONObject json = new JSONObject();
+        json.put("syncedAt", syncedAt);
+        json.put("fullSyncedAt", fullSyncedAt);
+        json.put("meals", new JSONArray(meals.values()));
+
+        Path absolute = file.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path tmp = Files.createTempFile(absolute.getParent(), "catalog", ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp));
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            json.write(writer);
+        }
+        Files.move(tmp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,69 @@
+package data_access;
+
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the single OkHttpClient shared by every TheMealDB data access object, so that they share
+ * one connection pool and reuse keep-alive connections instead of each opening their own.
+ * HTTP/2 is used whenever the server negotiates it. Every call goes through MealDbTrafficControl
+ * (rate limiting, adaptive concurrency, retries and circuit breaking), and callTimeoutMillis bounds
+ * a whole call including its retries. The DAOs make synchronous calls, which OkHttp's dispatcher
+ * limits do not apply to, so concurrency is only limited by MealDbTrafficControl.
+ *
+ * The client can be tuned with system properties:
+ * mealdb.http.maxIdleConnections, mealdb.http.keepAliveSeconds, mealdb.http.connectTimeoutMillis,
+ * mealdb.http.readTimeoutMillis and mealdb.http.callTimeoutMillis, plus the properties listed on
+ * MealDbTrafficControl.fromSystemProperties.
+ *
+ * mealdb.baseUrl points every MealDB DAO at another server, such as a local stand-in for load tests.
+ */
+public class MealDbHttpClient {
+    public static final String DEFAULT_BASE_URL = "https://www.themealdb.com/api/json/v1/1/";
+
+    private static OkHttpClient instance;
+
+    private MealDbHttpClient() {}
+
+    public static synchronized OkHttpClient getInstance() {
+        if (instance == null) {
+            instance = create(
+                    Integer.getInteger("mealdb.http.maxIdleConnections", 8),
+                    Long.getLong("mealdb.http.keepAliveSeconds", 300L),
+                    Long.getLong("mealdb.http.connectTimeoutMillis", 5000L),
+                    Long.getLong("mealdb.http.readTimeoutMillis", 10000L))
+                    .newBuilder()
+                    .addInterceptor(MealDbTrafficControl.fromSystemProperties())
+                    .callTimeout(Long.getLong("mealdb.http.callTimeoutMillis", 30000L), TimeUnit.MILLISECONDS)
+                    .build();
+        }
+        return instance;
+    }
+
+    /**
+     * @return the MealDB API base URL from the mealdb.baseUrl property (or the live API), ending in a slash
+     */
+    public static String getBaseUrl() {
+        String baseUrl = System.getProperty("mealdb.baseUrl", DEFAULT_BASE_URL);
+        return baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+    }
+
+    /**
+     * Builds a client with its own connection pool and no traffic control. Most callers should use
+     * getInstance instead.
+     */
+    public static OkHttpClient create(int maxIdleConnections, long keepAliveSeconds,
+                                      long connectTimeoutMillis, long readTimeoutMillis) {
+        return new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS))
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS)
+                .retryOnConnectionFailure(true)
+                .build();
+    }
+}
@@ -0,0 +1,451 @@
+package data_access;
+
+import entity.Ingredient;
+import entity.Recipe;
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A streaming decoder for TheMealDB "meals" responses (search.php and lookup.php).
+ *
+ * It walks the token stream once and builds Recipe and Ingredient objects as it goes, without
+ * building a JSONObject tree first. Keys are matched in a reusable buffer and values of fields the
+ * app does not use are skipped without being turned into strings. The result is the same as
+ * parsing with org.json and reading each field, images excluded: the caller decides whether to
+ * download them.
+ *
+ * A decoder keeps reusable buffers, so one instance must not be shared between threads.
+ */
+public class MealDbJsonDecoder {
+    private static final int MAX_INGREDIENTS = 20;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder text = new StringBuilder(256);
+    private char[] key = new char[32];
+    private int keyLength;
+
+    private Reader reader;
+    private int position;
+    private int limit;
+
+    // Fields of the meal being decoded
+    private String id;
+    private String name;
+    private String category;
+    private String instructions;
+    private String thumb;
+    private String tags;
+    private final String[] ingredients = new String[MAX_INGREDIENTS + 1];
+    private final String[] measures = new String[MAX_INGREDIENTS + 1];
+
+    /**
+     * Decodes every meal in the response.
+     *
+     * @param source the response body; it is read to the end of the top-level object but not closed
+     * @return the decoded recipes, empty if "meals" is null or missing
+     * @throws JSONException if the body is not valid JSON or a meal lacks a required field
+     */
+    public List<Recipe> decodeMeals(Reader source) throws IOException {
+        reader = source;
+        position = 0;
+        limit = 0;
+
+        List<Recipe> recipes = new ArrayList<>();
+        expect('{');
+        if (peekSkippingWhitespace() == '}') {
+            position++;
+            return recipes;
+        }
+        do {
+            readKey();
+            expect(':');
+            if (keyEquals("meals") && peekSkippingWhitespace() == '[') {
+                position++;
+                if (peekSkippingWhitespace() == ']') {
+                    position++;
+                } else {
+                    do {
+                        recipes.add(decodeMeal());
+                    } while (nextIsComma(']'));
+                }
+            } else {
+                skipValue();
+            }
+        } while (nextIsComma('}'));
+        return recipes;
+    }
+
+    private Recipe decodeMeal() throws IOException {
+        id = null;
+        name = null;
+        category = null;
+        instructions = null;
+        thumb = null;
+        tags = null;
+        for (int i = 1; i <= MAX_INGREDIENTS; i++) {
+            ingredients[i] = null;
+            measures[i] = null;
+        }
+
+        expect('{');
+        if (peekSkippingWhitespace() == '}') {
+            position++;
+        } else {
+            do {
+                readKey();
+                expect(':');
+                readField();
+            } while (nextIsComma('}'));
+        }
+        return buildRecipe();
+    }
+
+    private void readField() throws IOException {
+        int slot;
+        if (keyEquals("idMeal")) {
+            id = readNullableString();
+        } else if (keyEquals("strMeal")) {
+            name = readNullableString();
+        } else if (keyEquals("strCategory")) {
+            category = readNullableString();
+        } else if (keyEquals("strInstructions")) {
+            instructions = readNullableString();
+        } else if (keyEquals("strMealThumb")) {
+            thumb = readNullableString();
+        } else if (keyEquals("strTags")) {
+            tags = readNullableString();
+        } else if ((slot = keySlot("strIngredient")) > 0) {
+            ingredients[slot] = readNullableString();
+        } else if ((slot = keySlot("strMeasure")) > 0) {
+            measures[slot] = readNullableString();
+        } else {
+            skipValue();
+        }
+    }
+
+    private Recipe buildRecipe() {
+        List<Ingredient> ingredientList = new ArrayList<>();
+        for (int i = 1; i <= MAX_INGREDIENTS; i++) {
+            String ingredient = ingredients[i];
+            if (ingredient != null && !ingredient.trim().isEmpty()) {
+                ingredientList.add(new Ingredient(ingredient.trim(), measures[i] == null ? "" : measures[i]));
+            }
+        }
+
+        List<String> tagList = new ArrayList<>();
+        if (tags != null) {
+            for (String tag : tags.split(",")) {
+                String trimmed = tag.trim();
+                if (!trimmed.isEmpty()) {
+                    tagList.add(trimmed);
+                }
+            }
+        }
+
+        return new Recipe(
+                required(id, "idMeal"),
+                "N/A", // API does not provide User info
+                required(name, "strMeal"),
+                required(instructions, "strInstructions"),
+                ingredientList,
+                required(category, "strCategory"),
+                tagList,
+                Recipe.Status.PUBLISHED,
+                new Date(),
+                new Date(),
+                thumb,
+                null
+        );
+    }
+
+    private static String required(String value, String field) {
+        if (value == null) {
+            throw new JSONException("JSONObject[\"" + field + "\"] not found.");
+        }
+        return value;
+    }
+
+    // =================================================================================
+    // Keys
+    // =================================================================================
+
+    private void readKey() throws IOException {
+        if (peekSkippingWhitespace() != '"') {
+            throw syntaxError("Expected a key");
+        }
+        position++;
+        keyLength = 0;
+        while (true) {
+            char c = nextChar();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                c = readEscape();
+            }
+            if (keyLength == key.length) {
+                char[] grown = new char[key.length * 2];
+                System.arraycopy(key, 0, grown, 0, keyLength);
+                key = grown;
+            }
+            key[keyLength++] = c;
+        }
+    }
+
+    private boolean keyEquals(String expected) {
+        if (keyLength != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < keyLength; i++) {
+            if (key[i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * If the key is the prefix followed by a number from 1 to 20 (e.g. strIngredient7), returns
+     * that number, otherwise 0.
+     */
+    private int keySlot(String prefix) {
+        int prefixLength = prefix.length();
+        if (keyLength <= prefixLength || keyLength > prefixLength + 2) {
+            return 0;
+        }
+        for (int i = 0; i < prefixLength; i++) {
+            if (key[i] != prefix.charAt(i)) {
+                return 0;
+            }
+        }
+        int slot = 0;
+        for (int i = prefixLength; i < keyLength; i++) {
+            char c = key[i];
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            slot = slot * 10 + (c - '0');
+        }
+        return slot <= MAX_INGREDIENTS ? slot : 0;
+    }
+
+    // =================================================================================
+    // Values
+    // =================================================================================
+
+    private String readNullableString() throws IOException {
+        char c = peekSkippingWhitespace();
+        if (c == '"') {
+            position++;
+            return readStringBody();
+        }
+        if (c == 'n') {
+            expectLiteral("null");
+            return null;
+        }
+        // Not a string: keep its text, as org.json's optString would
+        text.setLength(0);
+        while (true) {
+            c = peek();
+            if (c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+                break;
+            }
+            text.append(c);
+            position++;
+        }
+        return text.toString();
+    }
+
+    private String readStringBody() throws IOException {
+        text.setLength(0);
+        while (true) {
+            // Copy runs of plain characters straight from the buffer
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position];
+                if (c == '"' || c == '\\') {
+                    break;
+                }
+                position++;
+            }
+            text.append(buffer, start, position - start);
+            if (position == limit) {
+                if (!fill()) {
+                    throw syntaxError("Unterminated string");
+                }
+                continue;
+            }
+            char c = buffer[position++];
+            if (c == '"') {
+                return text.toString();
+            }
+            text.append(readEscape());
+        }
+    }
+
+    private void skipValue() throws IOException {
+        char c = peekSkippingWhitespace();
+        switch (c) {
+            case '"':
+                position++;
+                skipStringBody();
+                return;
+            case '{':
+            case '[':
+                skipContainer();
+                return;
+            default:
+                // Number, true, false or null
+                while (true) {
+                    c = peekOrEnd();
+                    if (c == 0 || c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+                        return;
+                    }
+                    position++;
+                }
+        }
+    }
+
+    private void skipStringBody() throws IOException {
+        while (true) {
+            char c = nextChar();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                nextChar();
+            }
+        }
+    }
+
+    private void skipContainer() throws IOException {
+        int depth = 0;
+        do {
+            char c = nextChar();
+            if (c == '"') {
+                skipStringBody();
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            }
+        } while (depth > 0);
+    }
+
+    private char readEscape() throws IOException {
+        char c = nextChar();
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'f':
+                return '\f';
+            case 'r':
+                return '\r';
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(nextChar(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Illegal escape");
+                    }
+                    code = code * 16 + digit;
+                }
+                return (char) code;
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            default:
+                throw syntaxError("Illegal escape");
+        }
+    }
+
+    // =================================================================================
+    // Structure
+    // =================================================================================
+
+    private boolean nextIsComma(char close) throws IOException {
+        char c = peekSkippingWhitespace();
+        position++;
+        if (c == ',') {
+            return true;
+        }
+        if (c == close) {
+            return false;
+        }
+        throw syntaxError("Expected ',' or '" + close + "'");
+    }
+
+    private void expect(char expected) throws IOException {
+        if (peekSkippingWhitespace() != expected) {
+            throw syntaxError("Expected '" + expected + "'");
+        }
+        position++;
+    }
+
+    private void expectLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (nextChar() != literal.charAt(i)) {
+                throw syntaxError("Expected " + literal);
+            }
+        }
+    }
+
+    // =================================================================================
+    // Buffered input
+    // =================================================================================
+
+    private char peekSkippingWhitespace() throws IOException {
+        while (true) {
+            char c = peek();
+            if (!Character.isWhitespace(c)) {
+                return c;
+            }
+            position++;
+        }
+    }
+
+    private char peek() throws IOException {
+        if (position == limit && !fill()) {
+            throw syntaxError("Unexpected end of input");
+        }
+        return buffer[position];
+    }
+
+    private char peekOrEnd() throws IOException {
+        if (position == limit && !fill()) {
+            return 0;
+        }
+        return buffer[position];
+    }
+
+    private char nextChar() throws IOException {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private JSONException syntaxError(String message) {
+        return new JSONException(message + " in MealDB response");
+    }
+}
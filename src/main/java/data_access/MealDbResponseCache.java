@@ -0,0 +1,323 @@
+package data_access;
+
+import okhttp3.HttpUrl;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A disk-backed cache of raw TheMealDB response bodies, shared by the MealDB data access objects.
+ *
+ * Entries are keyed by the normalized request URL and each endpoint has its own time-to-live.
+ * Fresh entries are served without touching the network. Stale entries are still served, and a
+ * background refresh replaces them. The cache is bounded in bytes and evicts the least recently
+ * used entries first. It lives in a directory on disk, so it survives app restarts.
+ */
+public class MealDbResponseCache {
+    private static final String CACHE_DIRECTORY = "mealdb_cache";
+    private static final long DEFAULT_MAX_BYTES = 50L * 1024 * 1024;
+    private static final String ENTRY_SUFFIX = ".entry";
+
+    private static final Map<String, Duration> TTL_BY_ENDPOINT = Map.of(
+            "categories.php", Duration.ofDays(7),
+            "lookup.php", Duration.ofDays(7),
+            "filter.php", Duration.ofDays(1),
+            "search.php", Duration.ofHours(6)
+    );
+    private static final Duration DEFAULT_TTL = Duration.ofHours(1);
+
+    private static MealDbResponseCache instance;
+
+    /**
+     * Fetches a response body from the network on a cache miss or refresh.
+     */
+    public interface Loader {
+        String load(String url) throws IOException;
+    }
+
+    private static class Entry {
+        final Path file;
+        final long fetchedAt;
+        final long sizeBytes;
+
+        Entry(Path file, long fetchedAt, long sizeBytes) {
+            this.file = file;
+            this.fetchedAt = fetchedAt;
+            this.sizeBytes = sizeBytes;
+        }
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    // Concurrent misses for the same URL share one network call, across every DAO using this cache
+    private final SingleFlight<String> loads = new SingleFlight<>();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mealdb-cache-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long totalBytes = 0;
+
+    public static synchronized MealDbResponseCache getInstance() {
+        if (instance == null) {
+            instance = new MealDbResponseCache(Paths.get(CACHE_DIRECTORY), DEFAULT_MAX_BYTES);
+        }
+        return instance;
+    }
+
+    /**
+     * @param directory the directory holding the cache entries, created if it does not exist
+     * @param maxBytes  the total size of cached bodies above which LRU entries are evicted
+     */
+    public MealDbResponseCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        loadIndex();
+    }
+
+    /**
+     * Returns the body for the given URL, from the cache if possible.
+     *
+     * @param url    the MealDB request URL
+     * @param loader fetches the body from the network on a miss or background refresh
+     * @return the response body
+     * @throws IOException if the entry is not cached and the loader fails
+     */
+    public String get(String url, Loader loader) throws IOException {
+        try (Reader reader = getReader(url, loader)) {
+            StringWriter body = new StringWriter();
+            reader.transferTo(body);
+            return body.toString();
+        }
+    }
+
+    /**
+     * Like get, but returns a reader over the body so callers can parse it as a stream. Cached
+     * bodies are streamed straight from disk. The caller must close the reader.
+     */
+    public Reader getReader(String url, Loader loader) throws IOException {
+        String key = normalize(url);
+        Entry entry;
+        synchronized (this) {
+            entry = index.get(key);
+        }
+
+        if (entry != null) {
+            Reader reader = openBody(entry);
+            if (reader != null) {
+                touch(entry);
+                if (isStale(key, entry)) {
+                    refreshInBackground(key, url, loader);
+                }
+                return reader;
+            }
+            // The file disappeared underneath us, treat it as a miss
+            remove(key);
+        }
+
+        return new StringReader(load(key, url, loader));
+    }
+
+    /**
+     * Normalizes a URL so equivalent requests share one cache entry: the scheme and host are
+     * lower-cased, escaping is canonicalized and the query parameters are sorted.
+     */
+    static String normalize(String url) {
+        HttpUrl parsed = HttpUrl.parse(url.trim());
+        if (parsed == null) {
+            return url.trim();
+        }
+        List<String> names = new ArrayList<>(parsed.queryParameterNames());
+        Collections.sort(names);
+
+        HttpUrl.Builder builder = parsed.newBuilder().query(null).fragment(null);
+        for (String name : names) {
+            List<String> values = new ArrayList<>(parsed.queryParameterValues(name));
+            values.sort(Comparator.nullsFirst(Comparator.naturalOrder()));
+            for (String value : values) {
+                builder.addQueryParameter(name, value == null ? null : value.trim());
+            }
+        }
+        return builder.build().toString();
+    }
+
+    private static Duration ttlFor(String key) {
+        HttpUrl parsed = HttpUrl.parse(key);
+        if (parsed == null || parsed.pathSegments().isEmpty()) {
+            return DEFAULT_TTL;
+        }
+        String endpoint = parsed.pathSegments().get(parsed.pathSegments().size() - 1);
+        return TTL_BY_ENDPOINT.getOrDefault(endpoint, DEFAULT_TTL);
+    }
+
+    private boolean isStale(String key, Entry entry) {
+        return System.currentTimeMillis() - entry.fetchedAt > ttlFor(key).toMillis();
+    }
+
+    private void refreshInBackground(String key, String url, Loader loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                load(key, url, loader);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Failed to refresh cached MealDB response for " + url + ": " + e.getMessage());
+            } finally {
+                refreshing.remove(key);
+            }
+        });
+    }
+
+    private String load(String key, String url, Loader loader) throws IOException {
+        return loads.execute(key, () -> {
+            String body = loader.load(url);
+            put(key, body);
+            return body;
+        });
+    }
+
+    // =================================================================================
+    // Disk storage. Each entry is one file: fetch time, key, then the body.
+    // =================================================================================
+
+    private synchronized void put(String key, String body) {
+        long fetchedAt = System.currentTimeMillis();
+        Path file = directory.resolve(fileNameFor(key));
+        long size = body.getBytes(StandardCharsets.UTF_8).length;
+        Path tmp = null;
+        try {
+            Files.createDirectories(directory);
+            tmp = Files.createTempFile(directory, "entry", ".tmp");
+            Files.write(tmp, (fetchedAt + "\n" + key + "\n" + body).getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // A cache write failure should not fail the request itself
+            System.err.println("Failed to write MealDB cache entry: " + e.getMessage());
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException deleteError) {
+                    System.err.println("Failed to delete MealDB cache temp file: " + deleteError.getMessage());
+                }
+            }
+            return;
+        }
+
+        Entry previous = index.put(key, new Entry(file, fetchedAt, size));
+        if (previous != null) {
+            totalBytes -= previous.sizeBytes;
+        }
+        totalBytes += size;
+        evictIfNeeded();
+    }
+
+    private synchronized void remove(String key) {
+        Entry removed = index.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.sizeBytes;
+        }
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Entry>> it = index.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            totalBytes -= eldest.sizeBytes;
+            try {
+                Files.deleteIfExists(eldest.file);
+            } catch (IOException e) {
+                System.err.println("Failed to evict MealDB cache entry: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Opens a reader positioned at the start of the entry's body, or returns null if the file is gone.
+     */
+    private Reader openBody(Entry entry) {
+        try {
+            BufferedReader reader = Files.newBufferedReader(entry.file, StandardCharsets.UTF_8);
+            // Skip the fetch time and key header lines
+            if (reader.readLine() == null || reader.readLine() == null) {
+                reader.close();
+                return null;
+            }
+            return reader;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("Failed to read MealDB cache entry: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void touch(Entry entry) {
+        // The modification time doubles as the last access time when the index is rebuilt
+        try {
+            Files.setLastModifiedTime(entry.file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Only affects eviction order after a restart
+        }
+    }
+
+    private synchronized void loadIndex() {
+        File[] files = directory.toFile().listFiles((dir, name) -> name.endsWith(ENTRY_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        // Oldest access first, so the rebuilt index keeps the LRU order from the last run
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+
+        for (File file : files) {
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                long fetchedAt = Long.parseLong(reader.readLine());
+                String key = reader.readLine();
+                long headerBytes = String.valueOf(fetchedAt).length() + key.length() + 2;
+                long size = Math.max(0, file.length() - headerBytes);
+                index.put(key, new Entry(file.toPath(), fetchedAt, size));
+                totalBytes += size;
+            } catch (IOException | RuntimeException e) {
+                // Skip entries that were only partially written
+                file.delete();
+            }
+        }
+        evictIfNeeded();
+    }
+
+    private static String fileNameFor(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex + ENTRY_SUFFIX;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
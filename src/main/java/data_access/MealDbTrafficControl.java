@@ -0,0 +1,341 @@
+package data_access;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * An OkHttp interceptor that keeps the app within TheMealDB's limits and stops it from piling
+ * threads onto the API when it is degraded. Every request goes through, in order:
+ *
+ * - a circuit breaker, which fails fast while the API keeps failing;
+ * - a token bucket rate limiter, which spaces requests out to a steady rate with some burst;
+ * - an AIMD concurrency limit, which grows by one slot per limit's worth of fast successful
+ *   calls and halves on errors, throttling or slow calls;
+ * - retries with jittered exponential backoff for connection failures, 429 and 5xx responses.
+ *
+ * It is installed on the shared client by MealDbHttpClient, so it covers every MealDB DAO.
+ * When a request fails fast, the response cache keeps serving whatever it holds for that URL.
+ */
+public class MealDbTrafficControl implements Interceptor {
+
+    private final TokenBucket rateLimiter;
+    private final ConcurrencyLimit concurrencyLimit;
+    private final CircuitBreaker circuitBreaker;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    /**
+     * @param maxAttempts       the attempts per request, including the first one
+     * @param baseBackoffMillis the backoff bound before the second attempt, doubled for each attempt after
+     * @param maxBackoffMillis  the largest backoff between two attempts
+     */
+    MealDbTrafficControl(TokenBucket rateLimiter, ConcurrencyLimit concurrencyLimit, CircuitBreaker circuitBreaker,
+                         int maxAttempts, long baseBackoffMillis, long maxBackoffMillis) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimit = concurrencyLimit;
+        this.circuitBreaker = circuitBreaker;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * Builds the traffic control from system properties: mealdb.rate.permitsPerSecond,
+     * mealdb.rate.burst, mealdb.concurrency.initial, mealdb.concurrency.max,
+     * mealdb.concurrency.slowCallMillis, mealdb.concurrency.queueTimeoutMillis,
+     * mealdb.retry.maxAttempts, mealdb.retry.baseBackoffMillis, mealdb.retry.maxBackoffMillis,
+     * mealdb.breaker.failureThreshold and mealdb.breaker.openMillis.
+     */
+    static MealDbTrafficControl fromSystemProperties() {
+        return new MealDbTrafficControl(
+                new TokenBucket(
+                        Integer.getInteger("mealdb.rate.permitsPerSecond", 10),
+                        Integer.getInteger("mealdb.rate.burst", 20),
+                        System::nanoTime),
+                new ConcurrencyLimit(
+                        Integer.getInteger("mealdb.concurrency.initial", 4),
+                        Integer.getInteger("mealdb.concurrency.max", 16),
+                        Long.getLong("mealdb.concurrency.slowCallMillis", 2000L),
+                        Long.getLong("mealdb.concurrency.queueTimeoutMillis", 5000L)),
+                new CircuitBreaker(
+                        Integer.getInteger("mealdb.breaker.failureThreshold", 5),
+                        Long.getLong("mealdb.breaker.openMillis", 30000L),
+                        System::nanoTime),
+                Integer.getInteger("mealdb.retry.maxAttempts", 3),
+                Long.getLong("mealdb.retry.baseBackoffMillis", 200L),
+                Long.getLong("mealdb.retry.maxBackoffMillis", 5000L));
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        if (!circuitBreaker.allowRequest()) {
+            throw new MealDbUnavailableException("MealDB API is unavailable, failing fast: " + chain.request().url());
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            rateLimiter.acquire();
+            if (!concurrencyLimit.acquire()) {
+                circuitBreaker.onAbandoned();
+                throw new MealDbUnavailableException("Timed out waiting for a MealDB request slot");
+            }
+
+            Response response = null;
+            IOException failure = null;
+            long start = System.nanoTime();
+            try {
+                response = chain.proceed(chain.request());
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                boolean overloaded = failure != null || (response != null && isRetryable(response.code()));
+                concurrencyLimit.release(System.nanoTime() - start, overloaded);
+            }
+
+            if (failure == null && !isRetryable(response.code())) {
+                // 4xx other than 429 is the caller's problem, not a sign the API is down
+                circuitBreaker.onSuccess();
+                return response;
+            }
+
+            // A cancelled call (including one past its call timeout) must not be retried
+            boolean cancelled = chain.call().isCanceled() || Thread.currentThread().isInterrupted();
+            if (attempt >= maxAttempts || cancelled) {
+                circuitBreaker.onFailure();
+                if (failure != null) {
+                    throw failure;
+                }
+                return response;
+            }
+
+            long delay = backoffMillis(attempt, response);
+            if (response != null) {
+                response.close();
+            }
+            sleep(delay);
+        }
+    }
+
+    private static boolean isRetryable(int code) {
+        return code == 429 || code >= 500;
+    }
+
+    /**
+     * Full-jitter exponential backoff, raised to the server's Retry-After when it sends one.
+     */
+    private long backoffMillis(int attempt, Response response) {
+        long bound = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(bound + 1);
+        String retryAfter = response == null ? null : response.header("Retry-After");
+        if (retryAfter != null) {
+            try {
+                delay = Math.max(delay, Math.min(maxBackoffMillis, Long.parseLong(retryAfter.trim()) * 1000));
+            } catch (NumberFormatException e) {
+                // An HTTP date, keep the jittered delay
+            }
+        }
+        return delay;
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while backing off a MealDB request");
+        }
+    }
+
+    // =================================================================================
+    // Token bucket
+    // =================================================================================
+
+    /**
+     * Hands out permits at a steady rate, allowing bursts up to the bucket size. A caller that
+     * finds the bucket empty reserves the next permit and sleeps until it is due, so waiting
+     * callers are served in order without spinning.
+     */
+    static class TokenBucket {
+        private final double permitsPerNano;
+        private final double capacity;
+        private final LongSupplier clock;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(double permitsPerSecond, int burst, LongSupplier clock) {
+            this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = burst;
+            this.clock = clock;
+            this.tokens = burst;
+            this.lastRefill = clock.getAsLong();
+        }
+
+        /**
+         * Takes a permit, going into debt if there is none.
+         *
+         * @return how long the caller must wait before using the permit, in nanoseconds
+         */
+        synchronized long reserve() {
+            long now = clock.getAsLong();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+            lastRefill = now;
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / permitsPerNano);
+        }
+
+        void acquire() throws InterruptedIOException {
+            long wait = reserve();
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for a MealDB rate limit permit");
+                }
+            }
+        }
+    }
+
+    // =================================================================================
+    // Adaptive concurrency
+    // =================================================================================
+
+    /**
+     * Limits the number of requests in flight. The limit follows AIMD: each fast successful call
+     * adds 1/limit (so about one slot per round of calls), and an error, throttle or slow call
+     * halves it. Decreases are at most one per slow-call interval, so a burst of failures from the
+     * same moment only counts once.
+     */
+    static class ConcurrencyLimit {
+        private final int maxLimit;
+        private final long slowCallNanos;
+        private final long queueTimeoutMillis;
+        private double limit;
+        private int inFlight;
+        private long lastDecrease;
+
+        ConcurrencyLimit(int initialLimit, int maxLimit, long slowCallMillis, long queueTimeoutMillis) {
+            this.maxLimit = maxLimit;
+            this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+            this.queueTimeoutMillis = queueTimeoutMillis;
+            this.limit = Math.max(1, Math.min(initialLimit, maxLimit));
+            this.lastDecrease = System.nanoTime() - slowCallNanos;
+        }
+
+        /**
+         * Waits for a free slot.
+         *
+         * @return false if none became free within the queue timeout
+         */
+        synchronized boolean acquire() throws InterruptedIOException {
+            long deadline = System.currentTimeMillis() + queueTimeoutMillis;
+            try {
+                while (inFlight >= (int) limit) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    wait(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a MealDB request slot");
+            }
+            inFlight++;
+            return true;
+        }
+
+        synchronized void release(long latencyNanos, boolean overloaded) {
+            inFlight--;
+            long now = System.nanoTime();
+            if (overloaded || latencyNanos > slowCallNanos) {
+                if (now - lastDecrease >= slowCallNanos) {
+                    limit = Math.max(1, limit / 2);
+                    lastDecrease = now;
+                }
+            } else {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            notifyAll();
+        }
+
+        synchronized int getLimit() {
+            return (int) limit;
+        }
+    }
+
+    // =================================================================================
+    // Circuit breaker
+    // =================================================================================
+
+    /**
+     * Opens after a run of consecutive failed requests and rejects everything while open. Once the
+     * open interval has passed, a single probe request is let through: if it succeeds the breaker
+     * closes, otherwise it opens again.
+     */
+    static class CircuitBreaker {
+        enum State { CLOSED, OPEN, HALF_OPEN }
+
+        private final int failureThreshold;
+        private final long openNanos;
+        private final LongSupplier clock;
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+
+        CircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+            this.failureThreshold = failureThreshold;
+            this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+            this.clock = clock;
+        }
+
+        synchronized boolean allowRequest() {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (clock.getAsLong() - openedAt >= openNanos) {
+                        state = State.HALF_OPEN;
+                        return true;
+                    }
+                    return false;
+                default:
+                    // The probe is still in flight, unless it has been so long that it must have been lost
+                    return clock.getAsLong() - openedAt >= 2 * openNanos;
+            }
+        }
+
+        synchronized void onSuccess() {
+            consecutiveFailures = 0;
+            state = State.CLOSED;
+        }
+
+        synchronized void onFailure() {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                state = State.OPEN;
+                openedAt = clock.getAsLong();
+            }
+        }
+
+        /**
+         * The request never reached the API. A probe that is abandoned lets the next request probe instead.
+         */
+        synchronized void onAbandoned() {
+            if (state == State.HALF_OPEN) {
+                state = State.OPEN;
+                openedAt = clock.getAsLong() - openNanos;
+            }
+        }
+
+        synchronized State getState() {
+            return state;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package data_access;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of making a MealDB request when the API is known to be degraded: the circuit
+ * breaker is open, or no request slot became free in time. Callers treat it like any other
+ * failed request, so cached responses keep being served and uncached ones fail fast.
+ */
+public class MealDbUnavailableException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public MealDbUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -8,22 +8,114 @@ import use_case.view_recipe.ViewRecipeDataAccessInterface;
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.Reader;
 import java.net.URL;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import okhttp3.*;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
 public class RecipeDataAccessObject implements RecipeSearchRecipeDataAccessInterface, ViewRecipeDataAccessInterface {
 
     private static final int SUCCESS_CODE = 200;
-    private final OkHttpClient client = new OkHttpClient().newBuilder().build();
+    private static final int DEFAULT_DETAIL_LOOKUP_CONCURRENCY = 8;
+    private static final int IMAGE_DOWNLOAD_CONCURRENCY = 4;
+
+    private final OkHttpClient client = MealDbHttpClient.getInstance();
+    private final ThreadPoolExecutor detailLookupExecutor;
+    private final ThreadPoolExecutor imageExecutor;
+    private final boolean deferImages;
+    private final MealDbResponseCache responseCache;
+    private final String baseUrl;
+    // Callers asking for the same URL at the same time share one fetch and its parsed recipes
+    private final SingleFlight<List<Recipe>> parsedCalls = new SingleFlight<>();
+    // Decoders reuse their buffers, so each lookup thread gets its own
+    private final ThreadLocal<MealDbJsonDecoder> decoders = ThreadLocal.withInitial(MealDbJsonDecoder::new);
+    private volatile MealDbCatalog catalog;
+
+    public RecipeDataAccessObject() {
+        this(DEFAULT_DETAIL_LOOKUP_CONCURRENCY, false);
+    }
+
+    /**
+     * @param detailLookupConcurrency the maximum number of lookup.php calls in flight at once
+     *                                when hydrating category search results
+     */
+    public RecipeDataAccessObject(int detailLookupConcurrency) {
+        this(detailLookupConcurrency, false);
+    }
+
+    /**
+     * @param detailLookupConcurrency the maximum number of lookup.php calls in flight at once
+     *                                when hydrating category search results
+     * @param deferImages             if true, parsing only records strMealThumb and search results
+     *                                are returned before their images are downloaded
+     */
+    public RecipeDataAccessObject(int detailLookupConcurrency, boolean deferImages) {
+        this(detailLookupConcurrency, deferImages, MealDbResponseCache.getInstance());
+    }
+
+    /**
+     * @param detailLookupConcurrency the maximum number of lookup.php calls in flight at once
+     *                                when hydrating category search results
+     * @param deferImages             if true, parsing only records strMealThumb and search results
+     *                                are returned before their images are downloaded
+     * @param responseCache           the cache of MealDB response bodies to read through
+     */
+    public RecipeDataAccessObject(int detailLookupConcurrency, boolean deferImages, MealDbResponseCache responseCache) {
+        this(detailLookupConcurrency, deferImages, responseCache, MealDbHttpClient.getBaseUrl());
+    }
+
+    /**
+     * @param detailLookupConcurrency the maximum number of lookup.php calls in flight at once
+     *                                when hydrating category search results
+     * @param deferImages             if true, parsing only records strMealThumb and search results
+     *                                are returned before their images are downloaded
+     * @param responseCache           the cache of MealDB response bodies to read through
+     * @param baseUrl                 the MealDB API base URL, ending in a slash
+     */
+    public RecipeDataAccessObject(int detailLookupConcurrency, boolean deferImages, MealDbResponseCache responseCache,
+                                  String baseUrl) {
+        if (detailLookupConcurrency < 1) {
+            throw new IllegalArgumentException("detailLookupConcurrency must be at least 1");
+        }
+        this.detailLookupExecutor = newDaemonExecutor("mealdb-lookup-", detailLookupConcurrency);
+        this.imageExecutor = newDaemonExecutor("mealdb-image-", IMAGE_DOWNLOAD_CONCURRENCY);
+        this.deferImages = deferImages;
+        this.responseCache = responseCache;
+        this.baseUrl = baseUrl;
+    }
+
+    private static ThreadPoolExecutor newDaemonExecutor(String namePrefix, int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads,
+                30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // Let idle threads die off between searches
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
 
     // =================================================================================
     // PART 1: Categories + Search.
@@ -31,14 +123,8 @@ public class RecipeDataAccessObject implements RecipeSearchRecipeDataAccessInter
 
     @Override
     public List<String> getAllCategories() {
-        Request request = new Request.Builder()
-                .url("https://www.themealdb.com/api/json/v1/1/categories.php")
-                .build();
         try {
-            Response response = client.newCall(request).execute();
-            if (response.code() != SUCCESS_CODE) throw new RuntimeException("API request failed");
-
-            JSONObject json = new JSONObject(response.body().string());
+            JSONObject json = fetchJson(baseUrl + "categories.php");
             JSONArray arr = json.getJSONArray("categories");
 
             List<String> categories = new ArrayList<>();
@@ -51,31 +137,48 @@ public class RecipeDataAccessObject implements RecipeSearchRecipeDataAccessInter
         }
     }
 
+    /**
+     * Mirrors the whole MealDB catalog into the given file and, once the first sync is done, serves
+     * search and findById from it instead of the network. The mirror is kept current by a delta
+     * refresh every refreshInterval and a periodic full sync; findById still goes to the network
+     * for IDs the mirror does not hold yet.
+     *
+     * @return the attached catalog
+     */
+    public MealDbCatalog attachCatalog(Path file, Duration refreshInterval) {
+        MealDbCatalog mirror = new MealDbCatalog(file, this::fetchFromNetwork, baseUrl);
+        mirror.start(refreshInterval);
+        this.catalog = mirror;
+        return mirror;
+    }
+
     @Override
     public List<Recipe> search(String name, String category) {
-        if (category != null && !category.isEmpty()) {
-            return searchByCategoryAndName(category, name);
+        List<Recipe> recipes;
+        MealDbCatalog mirror = catalog;
+        if (mirror != null && mirror.isReady()) {
+            recipes = mirror.search(name, category).stream()
+                    .map(this::parseRecipe)
+                    .collect(Collectors.toList());
+        } else if (category != null && !category.isEmpty()) {
+            recipes = searchByCategoryAndName(category, name);
         } else {
-            return searchByName(name);
+            recipes = searchByName(name);
+        }
+
+        if (deferImages) {
+            loadImagesAsync(recipes);
         }
+        return recipes;
     }
 
     private List<Recipe> searchByName(String name) {
-        Request request = new Request.Builder()
-                .url(String.format("https://www.themealdb.com/api/json/v1/1/search.php?s=%s", name))
-                .build();
-        return executeAndParse(request);
+        return executeAndParse(String.format("%ssearch.php?s=%s", baseUrl, name));
     }
 
     private List<Recipe> searchByCategoryAndName(String category, String name) {
-        Request request = new Request.Builder()
-                .url(String.format("https://www.themealdb.com/api/json/v1/1/filter.php?c=%s", category))
-                .build();
         try {
-            Response response = client.newCall(request).execute();
-            if (response.code() != SUCCESS_CODE) throw new RuntimeException("API request failed");
-
-            JSONObject json = new JSONObject(response.body().string());
+            JSONObject json = fetchJson(String.format("%sfilter.php?c=%s", baseUrl, category));
             if (json.isNull("meals")) {
                 return new ArrayList<>();
             }
@@ -95,14 +198,10 @@ public class RecipeDataAccessObject implements RecipeSearchRecipeDataAccessInter
             }
 
             // Get details (Filter endpoint only returns ID and name, need to lookup details)
-            List<Recipe> recipes = new ArrayList<>();
-            for (JSONObject meal : filtered) {
-                List<Recipe> lookedUp = lookupById(meal.getString("idMeal"));
-                if (!lookedUp.isEmpty()) {
-                    recipes.add(lookedUp.get(0));
-                }
-            }
-            return recipes;
+            List<String> ids = filtered.stream()
+                    .map(m -> m.getString("idMeal"))
+                    .collect(Collectors.toList());
+            return findAllById(ids);
         } catch (IOException | JSONException e) {
             throw new RuntimeException(e);
         }
@@ -114,16 +213,54 @@ public class RecipeDataAccessObject implements RecipeSearchRecipeDataAccessInter
 
     @Override
     public Recipe findById(String recipeId) {
+        MealDbCatalog mirror = catalog;
+        if (mirror != null && mirror.isReady()) {
+            JSONObject meal = mirror.findById(recipeId);
+            if (meal != null) {
+                return parseRecipe(meal);
+            }
+            // Possibly added since the last refresh
+        }
+
         List<Recipe> list = lookupById(recipeId);
         if (!list.isEmpty()) return list.get(0);
         return null;
     }
 
+    /**
+     * Looks up the full details of several recipes in parallel, bounded by the configured
+     * detail lookup concurrency. Results keep the order of the given IDs; IDs whose lookup
+     * fails or returns nothing are left out, so the caller gets a partial list instead of an error.
+     *
+     * @param recipeIds the MealDB IDs to look up
+     * @return the recipes that could be looked up, in the order of recipeIds
+     */
+    public List<Recipe> findAllById(List<String> recipeIds) {
+        List<CompletableFuture<Recipe>> futures = recipeIds.stream()
+                .map(id -> CompletableFuture.supplyAsync(() -> findById(id), detailLookupExecutor))
+                .collect(Collectors.toList());
+
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                Recipe recipe = futures.get(i).get();
+                if (recipe != null) {
+                    recipes.add(recipe);
+                }
+            } catch (ExecutionException e) {
+                System.err.println("Failed to look up recipe " + recipeIds.get(i) + ": " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                // The search was cancelled, so stop waiting and drop the lookups that have not started
+                futures.forEach(f -> f.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        return recipes;
+    }
+
     private List<Recipe> lookupById(String id) {
-        Request request = new Request.Builder()
-                .url(String.format("https://www.themealdb.com/api/json/v1/1/lookup.php?i=%s", id))
-                .build();
-        return executeAndParse(request);
+        return executeAndParse(String.format("%slookup.php?i=%s", baseUrl, id));
     }
 
     @Override
@@ -140,20 +277,32 @@ public class RecipeDataAccessObject implements RecipeSearchRecipeDataAccessInter
     // PART 3: Helper Methods (Network Requests & Parsing)
     // =================================================================================
 
-    private List<Recipe> executeAndParse(Request request) {
-        try {
-            Response response = client.newCall(request).execute();
-            if (response.code() != SUCCESS_CODE) throw new RuntimeException("API request failed");
+    /**
+     * Parses the response for a MealDB URL straight from the body stream, which comes from the
+     * shared response cache when possible.
+     */
+    private JSONObject fetchJson(String url) throws IOException {
+        try (Reader reader = responseCache.getReader(url, this::fetchFromNetwork)) {
+            return new JSONObject(new JSONTokener(reader));
+        }
+    }
 
-            JSONObject json = new JSONObject(response.body().string());
-            if (json.isNull("meals")) {
-                return new ArrayList<>();
-            }
+    private String fetchFromNetwork(String url) throws IOException {
+        Request request = new Request.Builder().url(url).build();
+        try (Response response = client.newCall(request).execute()) {
+            if (response.code() != SUCCESS_CODE) throw new IOException("API request failed");
+            return response.body().string();
+        }
+    }
 
-            JSONArray meals = json.getJSONArray("meals");
-            List<Recipe> recipes = new ArrayList<>();
-            for (int i = 0; i < meals.length(); i++) {
-                recipes.add(parseRecipe(meals.getJSONObject(i)));
+    private List<Recipe> executeAndParse(String url) {
+        try {
+            // Callers go on to set popularity and images on the recipes, so each caller that
+            // joined the call gets its own copies
+            List<Recipe> shared = parsedCalls.execute(MealDbResponseCache.normalize(url), () -> decodeMeals(url));
+            List<Recipe> recipes = new ArrayList<>(shared.size());
+            for (Recipe recipe : shared) {
+                recipes.add(copyOf(recipe));
             }
             return recipes;
         } catch (IOException | JSONException e) {
@@ -161,11 +310,79 @@ public class RecipeDataAccessObject implements RecipeSearchRecipeDataAccessInter
         }
     }
 
-    private Recipe parseRecipe(JSONObject recipeJson) {
+    /**
+     * Copies a freshly decoded recipe, with its own ingredient and tag lists.
+     */
+    private static Recipe copyOf(Recipe recipe) {
+        Recipe copy = new Recipe(recipe.getRecipeId(), recipe.getAuthorId(), recipe.getTitle(),
+                recipe.getDescription(), new ArrayList<>(recipe.getIngredients()), recipe.getCategory(),
+                new ArrayList<>(recipe.getTags()), recipe.getStatus(), recipe.getCreationDate(),
+                recipe.getUpdateDate(), recipe.getImagePath(),
+                recipe.isImageLoaded() ? recipe.getImage() : null);
+        copy.setReviews(new ArrayList<>(recipe.getReviews()));
+        copy.setViews(recipe.getViews());
+        copy.setSaves(recipe.getSaves());
+        copy.setAverageRating(recipe.getAverageRating());
+        copy.setShareable(recipe.isShareable());
+        copy.setUpdateDate(recipe.getUpdateDate());
+        return copy;
+    }
+
+    /**
+     * Builds the recipes in a search.php or lookup.php response with the streaming decoder,
+     * without building a JSONObject tree.
+     */
+    private List<Recipe> decodeMeals(String url) throws IOException {
+        List<Recipe> recipes;
+        try (Reader reader = responseCache.getReader(url, this::fetchFromNetwork)) {
+            recipes = decoders.get().decodeMeals(reader);
+        }
+
+        if (!deferImages) {
+            for (Recipe recipe : recipes) {
+                String imageUrl = recipe.getImagePath();
+                if (imageUrl != null && !imageUrl.isEmpty()) {
+                    recipe.setImage(downloadImage(imageUrl));
+                }
+            }
+        }
+        return recipes;
+    }
+
+    /**
+     * Downloads the images of the given recipes in the background and sets them on each recipe
+     * as they arrive. Each download is recorded on its recipe, so views wait for it instead of
+     * downloading the image themselves. Recipes whose image is already loaded or downloading are
+     * skipped.
+     *
+     * @param recipes the recipes whose images should be filled in
+     * @return a future that completes once every download has finished or failed
+     */
+    public CompletableFuture<Void> loadImagesAsync(List<Recipe> recipes) {
+        List<CompletableFuture<BufferedImage>> downloads = new ArrayList<>();
+        for (Recipe recipe : recipes) {
+            String imageUrl = recipe.getImagePath();
+            if (recipe.isImageLoaded() || recipe.getImageDownload() != null || imageUrl == null || imageUrl.isEmpty()) {
+                continue;
+            }
+            CompletableFuture<BufferedImage> download = CompletableFuture.supplyAsync(() -> {
+                BufferedImage image = downloadImage(imageUrl);
+                if (image != null) {
+                    recipe.setImage(image);
+                }
+                return image;
+            }, imageExecutor);
+            recipe.setImageDownload(download);
+            downloads.add(download);
+        }
+        return CompletableFuture.allOf(downloads.toArray(new CompletableFuture<?>[0]));
+    }
+
+    Recipe parseRecipe(JSONObject recipeJson) {
         // 1. Handle image (use optString to prevent null, increase robustness)
         String imageUrl = recipeJson.optString("strMealThumb", null);
         BufferedImage image = null;
-        if (imageUrl != null && !imageUrl.isEmpty()) {
+        if (!deferImages && imageUrl != null && !imageUrl.isEmpty()) {
             image = downloadImage(imageUrl);
         }
 
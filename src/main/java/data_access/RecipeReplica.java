@@ -0,0 +1,186 @@
+package data_access;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An in-memory copy of the recipes collection, kept current by a Firestore snapshot listener, so
+ * recipe reads that change rarely do not go to the network.
+ *
+ * The first snapshot loads every document; later ones only carry the documents that changed. The
+ * replica holds the document snapshots themselves, which are immutable, so every read parses a
+ * fresh Recipe that callers are free to change. It mirrors the whole collection, drafts
+ * included, so lookups by ID and author stay exact; readers filter published recipes as their
+ * queries do.
+ *
+ * Replica mode is off unless firebase.replica.enabled is true. Reads fall back to Firestore while
+ * the replica is not live: before its first snapshot, after the listener fails (it reconnects
+ * with backoff), and for good once the copy grows past firebase.replica.maxBytes (default 64 MB),
+ * as a partial copy cannot answer searches. Applying snapshots and the backoff are done by
+ * SnapshotReplica.
+ */
+public class RecipeReplica {
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final Map<Firestore, RecipeReplica> instances = new IdentityHashMap<>();
+
+    private final ScheduledExecutorService reconnector;
+    private final SnapshotReplica<DocumentSnapshot> copy;
+
+    public RecipeReplica(Firestore db, long maxBytes) {
+        Query query = db.collection("recipes");
+        this.reconnector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "recipe-replica");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.copy = new SnapshotReplica<>(replica -> {
+            ListenerRegistration registration = query.addSnapshotListener((snapshot, error) -> {
+                if (error != null) {
+                    replica.onListenerError(error);
+                } else if (snapshot != null) {
+                    replica.onSnapshot(snapshot.getDocuments(), changesOf(snapshot), snapshot.getReadTime());
+                }
+            });
+            return registration::remove;
+        }, (task, delayMillis) -> reconnector.schedule(task, delayMillis, TimeUnit.MILLISECONDS),
+                DocumentSnapshot::getId, DocumentSnapshot::getData, maxBytes);
+    }
+
+    /**
+     * @return the running replica of this Firestore instance, started the first time, or null when
+     * replica mode is off. It is stopped by FirebaseInitializer.shutdown().
+     */
+    public static RecipeReplica getInstance(Firestore db) {
+        if (!Boolean.getBoolean("firebase.replica.enabled")) {
+            return null;
+        }
+        RecipeReplica replica;
+        synchronized (RecipeReplica.class) {
+            replica = instances.get(db);
+            if (replica != null) {
+                return replica;
+            }
+            replica = new RecipeReplica(db, Long.getLong("firebase.replica.maxBytes", DEFAULT_MAX_BYTES));
+            instances.put(db, replica);
+            replica.start();
+        }
+
+        // Registered outside the class lock, which the task takes, so the two locks are never nested
+        RecipeReplica registered = replica;
+        FirebaseInitializer.addShutdownTask(() -> {
+            registered.stop();
+            synchronized (RecipeReplica.class) {
+                instances.remove(db, registered);
+            }
+        });
+        return replica;
+    }
+
+    public void start() {
+        copy.start();
+    }
+
+    public void stop() {
+        copy.stop();
+        reconnector.shutdownNow();
+    }
+
+    private static List<SnapshotReplica.Change<DocumentSnapshot>> changesOf(QuerySnapshot snapshot) {
+        List<SnapshotReplica.Change<DocumentSnapshot>> changes = new ArrayList<>();
+        for (DocumentChange change : snapshot.getDocumentChanges()) {
+            changes.add(new SnapshotReplica.Change<>(change.getDocument(),
+                    change.getType() == DocumentChange.Type.REMOVED));
+        }
+        return changes;
+    }
+
+    // ==================== Reads ====================
+
+    /**
+     * @return true if reads can be served from memory
+     */
+    public boolean isLive() {
+        return copy.isLive();
+    }
+
+    /**
+     * @return the recipe document, or null if the collection has no such recipe
+     */
+    public DocumentSnapshot get(String recipeId) {
+        return copy.get(recipeId);
+    }
+
+    public Collection<DocumentSnapshot> getAll() {
+        return copy.getAll();
+    }
+
+    // ==================== Status ====================
+
+    /**
+     * @return 0 while the listener is live, as changes arrive as they happen; otherwise how long
+     * the copy has been frozen since its last snapshot (-1 if it never had one)
+     */
+    public long getStalenessMillis() {
+        return copy.getStalenessMillis();
+    }
+
+    /**
+     * @return the server time of the last snapshot applied, or null if none has been
+     */
+    public Timestamp getLastReadTime() {
+        return copy.getLastReadTime();
+    }
+
+    public String getState() {
+        return copy.getState().name();
+    }
+
+    public int size() {
+        return copy.size();
+    }
+
+    /**
+     * @return the estimated memory the copy takes, which is checked against the cap
+     */
+    public long getEstimatedBytes() {
+        return copy.getEstimatedBytes();
+    }
+
+    /**
+     * Roughly estimates the heap a document's data takes: strings at two bytes a character plus
+     * object overhead, numbers and other values at a flat size, collections by their contents.
+     */
+    static long estimateBytes(Object value) {
+        if (value == null) {
+            return 8;
+        }
+        if (value instanceof String) {
+            return 40 + 2L * ((String) value).length();
+        }
+        if (value instanceof Map) {
+            long bytes = 48;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                bytes += 32 + estimateBytes(entry.getKey()) + estimateBytes(entry.getValue());
+            }
+            return bytes;
+        }
+        if (value instanceof Collection) {
+            long bytes = 40;
+            for (Object element : (Collection<?>) value) {
+                bytes += 8 + estimateBytes(element);
+            }
+            return bytes;
+        }
+        return 24;
+    }
+}
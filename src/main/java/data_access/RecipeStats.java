@@ -0,0 +1,34 @@
+package data_access;
+
+/**
+ * A recipe's popularity figures as stored in its recipe_stats document.
+ */
+public class RecipeStats {
+    private final int views;
+    private final int saves;
+    private final long ratingSum;
+    private final long ratingCount;
+
+    public RecipeStats(int views, int saves, long ratingSum, long ratingCount) {
+        this.views = views;
+        this.saves = saves;
+        this.ratingSum = ratingSum;
+        this.ratingCount = ratingCount;
+    }
+
+    public int getViews() { return views; }
+    public int getSaves() { return saves; }
+    public long getRatingSum() { return ratingSum; }
+    public long getRatingCount() { return ratingCount; }
+
+    /**
+     * @return the mean rating, or 0 for a recipe without ratings
+     */
+    public double getAverageRating() {
+        return ratingCount > 0 ? (double) ratingSum / ratingCount : 0.0;
+    }
+
+    public RecipeStats withViews(int views) {
+        return new RecipeStats(views, saves, ratingSum, ratingCount);
+    }
+}
@@ -0,0 +1,389 @@
+package data_access;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.*;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A recipe's views, saves and ratings in one document, so the popularity of a whole result set
+ * is read with a single getAll:
+ *
+ * recipe_stats/{recipeId}  views, saves, ratingSum, ratingCount, complete
+ *
+ * Every field is only ever changed with FieldValue.increment, by the code that changes the
+ * underlying data: ShardedViewCounter in the batch that writes the view shards, the save DAO in
+ * the batch that changes a user's saved list, and the review DAO when a rating is added or
+ * changed. A missing field counts as 0.
+ *
+ * Those increments create the document on their first write, so until the recipe-stats backfill
+ * job has written a recipe's document in full (marking it complete) it only holds what changed
+ * since the deploy. Such partial documents are merged with the stats read the old way, from the
+ * view counter and the recipe document, which the same writes keep current for recipes that have
+ * one. Missing documents are merged too until the backfill has finished and set backfilled on
+ * metadata/stats; after that a recipe without a document has never been viewed, saved or rated,
+ * so it reads as zero stats without the legacy reads. The save-counts job recounts saves from the
+ * users' saved lists.
+ */
+public class RecipeStatsStore {
+    static final String STATS_COLLECTION = "recipe_stats";
+    static final String VIEWS_FIELD = "views";
+    static final String SAVES_FIELD = "saves";
+    static final String RATING_SUM_FIELD = "ratingSum";
+    static final String RATING_COUNT_FIELD = "ratingCount";
+    static final String COMPLETE_FIELD = "complete";
+    private static final String BACKFILLED_FIELD = "backfilled";
+
+    // Stays under the 500 writes allowed in one batch
+    private static final int BACKFILL_PAGE_SIZE = 400;
+    // A recipe document and a stats document per recipe
+    private static final int SAVES_BACKFILL_CHUNK = 200;
+    private static final FieldMask LEGACY_FIELDS = FieldMask.of("saves", "reviews");
+
+    private final Firestore db;
+    private final CollectionReference statsCollection;
+    private final CollectionReference recipesCollection;
+    private final ShardedViewCounter viewCounter;
+    private final ViewCountCache cache;
+    private final DocumentReference backfillMarker;
+    // Once the backfill has finished it stays finished, so the marker is not read again
+    private volatile boolean backfilled;
+
+    public RecipeStatsStore(Firestore db) {
+        this(db, new ShardedViewCounter(db), ViewCountCache.getInstance());
+    }
+
+    public RecipeStatsStore(Firestore db, ShardedViewCounter viewCounter, ViewCountCache cache) {
+        this.db = db;
+        this.statsCollection = db.collection(STATS_COLLECTION);
+        this.recipesCollection = db.collection("recipes");
+        this.viewCounter = viewCounter;
+        this.cache = cache;
+        this.backfillMarker = db.collection("metadata").document("stats");
+    }
+
+    static DocumentReference statsRef(Firestore db, String recipeId) {
+        return db.collection(STATS_COLLECTION).document(recipeId);
+    }
+
+    /**
+     * Reads the stats of many recipes in one round trip. Views recorded in this process but not yet
+     * written are included.
+     *
+     * @return the stats of each recipe ID; recipes whose stats could not be read are left out
+     */
+    public Map<String, RecipeStats> getStats(Collection<String> recipeIds) {
+        Map<String, RecipeStats> stats = new HashMap<>();
+        List<String> ids = new ArrayList<>();
+        for (String recipeId : new LinkedHashSet<>(recipeIds)) {
+            if (recipeId != null && !recipeId.isEmpty()) {
+                ids.add(recipeId);
+            }
+        }
+        if (ids.isEmpty()) {
+            return stats;
+        }
+
+        try {
+            stats.putAll(readStats(ids, false));
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error fetching recipe stats: " + e.getMessage());
+        }
+
+        // The count cache also holds the views waiting in the write-behind recorder
+        stats.replaceAll((recipeId, recipeStats) -> {
+            Integer cached = cache.get(recipeId);
+            return cached != null && cached > recipeStats.getViews() ? recipeStats.withViews(cached) : recipeStats;
+        });
+        return stats;
+    }
+
+    /**
+     * Adds to a recipe's rating total, and to its number of ratings for a new rating.
+     */
+    public void addRating(String recipeId, long ratingDelta, long countDelta) {
+        Map<String, Object> data = new HashMap<>();
+        data.put(RATING_SUM_FIELD, FieldValue.increment(ratingDelta));
+        data.put(RATING_COUNT_FIELD, FieldValue.increment(countDelta));
+        try {
+            statsCollection.document(recipeId).set(data, SetOptions.merge()).get();
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error updating recipe rating stats: " + e.getMessage());
+            throw new RuntimeException("Error updating recipe rating stats", e);
+        }
+    }
+
+    /**
+     * Completes the stats document of every recipe that has a recipe document or a view counter,
+     * merging what it holds with the stats computed from those. Views written while a page is
+     * being copied may be missed, so run it while the app is idle.
+     *
+     * @return the number of stats documents written
+     */
+    public int backfill() {
+        Set<String> recipeIds = new TreeSet<>();
+        for (DocumentReference ref : recipesCollection.listDocuments()) {
+            recipeIds.add(ref.getId());
+        }
+        for (DocumentReference ref : db.collection("recipe_views").listDocuments()) {
+            recipeIds.add(ref.getId());
+        }
+
+        List<String> ids = new ArrayList<>(recipeIds);
+        int written = 0;
+        try {
+            for (int from = 0; from < ids.size(); from += BACKFILL_PAGE_SIZE) {
+                List<String> page = ids.subList(from, Math.min(from + BACKFILL_PAGE_SIZE, ids.size()));
+                Map<String, RecipeStats> incomplete = readStats(page, true);
+                if (incomplete.isEmpty()) {
+                    continue;
+                }
+                WriteBatch batch = db.batch();
+                incomplete.forEach((recipeId, recipeStats) ->
+                        batch.set(statsCollection.document(recipeId), toDocument(recipeStats, recipeStats.getSaves())));
+                batch.commit().get();
+                written += incomplete.size();
+            }
+            // From now on a missing stats document means a recipe without views, saves or ratings
+            backfillMarker.set(Collections.singletonMap(BACKFILLED_FIELD, true), SetOptions.merge()).get();
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error backfilling recipe stats: " + e.getMessage());
+            throw new RuntimeException("Error backfilling recipe stats", e);
+        }
+        return written;
+    }
+
+    /**
+     * Recounts every recipe's saves from the users' saved lists, and writes the counts to the recipe
+     * documents and to recipe_stats. The batches of a chunk of recipes are committed in parallel.
+     * Saves made while it runs may be miscounted, so run it while the app is idle.
+     *
+     * @return the number of recipes whose count was written
+     */
+    public int backfillSaves() {
+        try {
+            // 1. Count the saves in every user's saved list
+            List<Object> savedLists = new ArrayList<>();
+            CollectionReference usersCollection = db.collection("users");
+            DocumentSnapshot last = null;
+            while (true) {
+                Query page = usersCollection.select("recipes").orderBy(FieldPath.documentId()).limit(BACKFILL_PAGE_SIZE);
+                if (last != null) {
+                    page = page.startAfter(last);
+                }
+                List<QueryDocumentSnapshot> users = page.get().get().getDocuments();
+                for (QueryDocumentSnapshot user : users) {
+                    savedLists.add(user.get("recipes"));
+                }
+                if (users.size() < BACKFILL_PAGE_SIZE) {
+                    break;
+                }
+                last = users.get(users.size() - 1);
+            }
+            Map<String, Integer> counts = countSaves(savedLists);
+
+            // 2. Recipes nobody saves any more may still have a count to clear
+            Set<String> recipeIds = new TreeSet<>(counts.keySet());
+            for (QueryDocumentSnapshot doc : recipesCollection.whereNotEqualTo("saves", 0).select("saves").get().get()) {
+                recipeIds.add(doc.getId());
+            }
+            for (QueryDocumentSnapshot doc : statsCollection.whereNotEqualTo(SAVES_FIELD, 0).select(SAVES_FIELD).get().get()) {
+                recipeIds.add(doc.getId());
+            }
+
+            // 3. Write the counts, committing the chunks' batches in parallel
+            List<String> ids = new ArrayList<>(recipeIds);
+            List<ApiFuture<List<WriteResult>>> commits = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += SAVES_BACKFILL_CHUNK) {
+                commits.add(writeSaveCounts(ids.subList(from, Math.min(from + SAVES_BACKFILL_CHUNK, ids.size())), counts));
+            }
+            ApiFutures.allAsList(commits).get();
+            return ids.size();
+
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error backfilling save counts: " + e.getMessage());
+            throw new RuntimeException("Error backfilling save counts", e);
+        }
+    }
+
+    private ApiFuture<List<WriteResult>> writeSaveCounts(List<String> recipeIds, Map<String, Integer> counts)
+            throws InterruptedException, ExecutionException {
+        DocumentReference[] recipeRefs = new DocumentReference[recipeIds.size()];
+        for (int i = 0; i < recipeIds.size(); i++) {
+            recipeRefs[i] = recipesCollection.document(recipeIds.get(i));
+        }
+
+        WriteBatch batch = db.batch();
+        // Documents not complete yet are written in full, so their views and ratings are kept
+        Map<String, RecipeStats> incomplete = readStats(recipeIds, true);
+        for (String recipeId : recipeIds) {
+            int count = counts.getOrDefault(recipeId, 0);
+            RecipeStats recipeStats = incomplete.get(recipeId);
+            if (recipeStats != null) {
+                batch.set(statsCollection.document(recipeId), toDocument(recipeStats, count));
+            } else {
+                batch.update(statsCollection.document(recipeId), SAVES_FIELD, count);
+            }
+        }
+        for (DocumentSnapshot recipe : db.getAll(recipeRefs, FieldMask.of("saves")).get()) {
+            int count = counts.getOrDefault(recipe.getId(), 0);
+            Long stored = recipe.getLong("saves");
+            if (recipe.exists() && (stored == null || stored != count)) {
+                batch.update(recipe.getReference(), "saves", count);
+            }
+        }
+        return batch.commit();
+    }
+
+    /**
+     * @param savedLists the recipes field of each user document
+     * @return the number of users that saved each recipe
+     */
+    static Map<String, Integer> countSaves(Collection<?> savedLists) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Object savedList : savedLists) {
+            if (!(savedList instanceof List)) {
+                continue;
+            }
+            // A recipe counts once per user
+            for (Object recipeId : new LinkedHashSet<>((List<?>) savedList)) {
+                if (recipeId instanceof String && !((String) recipeId).isEmpty()) {
+                    counts.merge((String) recipeId, 1, Integer::sum);
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Reads the stats documents of the recipes, merging the ones not complete yet with the stats
+     * read the old way. Until the backfill is known to have finished, its marker is read in the
+     * same getAll.
+     *
+     * @param incompleteOnly whether to leave out the recipes whose document is complete; the
+     *                       backfill jobs use it, and always merge missing documents
+     */
+    private Map<String, RecipeStats> readStats(List<String> recipeIds, boolean incompleteOnly)
+            throws InterruptedException, ExecutionException {
+        boolean readMarker = !incompleteOnly && !backfilled;
+        DocumentReference[] refs = new DocumentReference[recipeIds.size() + (readMarker ? 1 : 0)];
+        for (int i = 0; i < recipeIds.size(); i++) {
+            refs[i] = statsCollection.document(recipeIds.get(i));
+        }
+        if (readMarker) {
+            refs[recipeIds.size()] = backfillMarker;
+        }
+
+        List<DocumentSnapshot> docs = new ArrayList<>();
+        for (DocumentSnapshot doc : db.getAll(refs).get()) {
+            if (doc.getReference().equals(backfillMarker)) {
+                backfilled = Boolean.TRUE.equals(doc.getBoolean(BACKFILLED_FIELD));
+            } else {
+                docs.add(doc);
+            }
+        }
+        boolean missingIsZero = !incompleteOnly && backfilled;
+
+        Map<String, RecipeStats> stats = new HashMap<>();
+        Map<String, RecipeStats> partial = new HashMap<>();
+        for (DocumentSnapshot doc : docs) {
+            RecipeStats recipeStats = doc.exists() ? fromDocument(doc) : new RecipeStats(0, 0, 0, 0);
+            if (needsLegacyStats(doc.exists(), doc.exists() ? doc.getBoolean(COMPLETE_FIELD) : null, missingIsZero)) {
+                partial.put(doc.getId(), recipeStats);
+            } else if (!incompleteOnly) {
+                stats.put(doc.getId(), recipeStats);
+            }
+        }
+        if (!partial.isEmpty()) {
+            readLegacyStats(new ArrayList<>(partial.keySet())).forEach((recipeId, legacy) ->
+                    stats.put(recipeId, merge(partial.get(recipeId), legacy)));
+        }
+        return stats;
+    }
+
+    /**
+     * @param complete the document's complete field
+     * @param missingIsZero whether a missing document stands for zero stats, as it does once the
+     *                      backfill has finished
+     * @return whether a stats document has to be merged with the stats read the old way
+     */
+    static boolean needsLegacyStats(boolean exists, Boolean complete, boolean missingIsZero) {
+        return exists ? !Boolean.TRUE.equals(complete) : !missingIsZero;
+    }
+
+    /**
+     * Merges a partial stats document with the stats read the old way. The old sources are still
+     * written alongside the document, so they hold every change it does except for recipes
+     * without a recipe document, whose saves and ratings only the document has; each figure is
+     * taken from whichever side counted more.
+     */
+    static RecipeStats merge(RecipeStats partial, RecipeStats legacy) {
+        boolean partialRatings = partial.getRatingCount() > legacy.getRatingCount();
+        return new RecipeStats(Math.max(partial.getViews(), legacy.getViews()),
+                Math.max(partial.getSaves(), legacy.getSaves()),
+                partialRatings ? partial.getRatingSum() : legacy.getRatingSum(),
+                partialRatings ? partial.getRatingCount() : legacy.getRatingCount());
+    }
+
+    private static Map<String, Object> toDocument(RecipeStats recipeStats, int saves) {
+        Map<String, Object> data = new HashMap<>();
+        data.put(VIEWS_FIELD, recipeStats.getViews());
+        data.put(SAVES_FIELD, saves);
+        data.put(RATING_SUM_FIELD, recipeStats.getRatingSum());
+        data.put(RATING_COUNT_FIELD, recipeStats.getRatingCount());
+        data.put(COMPLETE_FIELD, true);
+        return data;
+    }
+
+    /**
+     * Reads stats the way they were kept before recipe_stats: views from the sharded counter,
+     * saves and ratings from the recipe document.
+     */
+    private Map<String, RecipeStats> readLegacyStats(List<String> recipeIds)
+            throws InterruptedException, ExecutionException {
+        Map<String, Integer> views = viewCounter.getCounts(recipeIds);
+        List<DocumentReference> refs = new ArrayList<>();
+        for (String recipeId : recipeIds) {
+            refs.add(recipesCollection.document(recipeId));
+        }
+
+        Map<String, RecipeStats> stats = new HashMap<>();
+        for (DocumentSnapshot doc : db.getAll(refs.toArray(new DocumentReference[0]), LEGACY_FIELDS).get()) {
+            Long saves = doc.exists() ? doc.getLong("saves") : null;
+            long[] ratings = sumRatings(doc.exists() ? doc.get("reviews") : null);
+            stats.put(doc.getId(), new RecipeStats(views.getOrDefault(doc.getId(), 0),
+                    saves != null ? saves.intValue() : 0, ratings[0], ratings[1]));
+        }
+        return stats;
+    }
+
+    private static RecipeStats fromDocument(DocumentSnapshot doc) {
+        return new RecipeStats((int) longField(doc, VIEWS_FIELD), (int) longField(doc, SAVES_FIELD),
+                longField(doc, RATING_SUM_FIELD), longField(doc, RATING_COUNT_FIELD));
+    }
+
+    private static long longField(DocumentSnapshot doc, String field) {
+        Long value = doc.getLong(field);
+        return value != null ? value : 0;
+    }
+
+    /**
+     * @param reviews a recipe document's embedded reviews
+     * @return the sum of their ratings and the number of rated reviews
+     */
+    static long[] sumRatings(Object reviews) {
+        long sum = 0;
+        long count = 0;
+        if (reviews instanceof List) {
+            for (Object review : (List<?>) reviews) {
+                if (review instanceof Map && ((Map<?, ?>) review).get("rating") instanceof Number) {
+                    sum += ((Number) ((Map<?, ?>) review).get("rating")).longValue();
+                    count++;
+                }
+            }
+        }
+        return new long[] {sum, count};
+    }
+}
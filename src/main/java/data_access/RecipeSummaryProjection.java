@@ -0,0 +1,85 @@
+package data_access;
+
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldMask;
+import entity.Ingredient;
+import entity.Recipe;
+import entity.RecipeSummary;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The recipe fields the list views need, read with Firestore field projections (Query.select and
+ * the FieldMask forms of get) so list screens skip the description and the embedded reviews,
+ * the bulk of a recipe document.
+ */
+class RecipeSummaryProjection {
+    static final String[] FIELDS = {
+            "recipeId", "authorId", "title", "category", "tags", "imagePath", "status",
+            "ingredients", "saves", "averageRating", "creationDate", "updateDate"
+    };
+
+    static final FieldMask FIELD_MASK = FieldMask.of(FIELDS);
+
+    private RecipeSummaryProjection() {}
+
+    /**
+     * Converts a projected recipe document. The average rating is the one stored on the document,
+     * since the reviews it is computed from are not read. Views live in recipe_views and are not set.
+     */
+    static RecipeSummary parse(DocumentSnapshot doc) {
+        @SuppressWarnings("unchecked")
+        List<String> tags = (List<String>) doc.get("tags");
+        if (tags == null) {
+            tags = new ArrayList<>();
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, String>> ingredientsData = (List<Map<String, String>>) doc.get("ingredients");
+        List<Ingredient> ingredients = new ArrayList<>();
+        if (ingredientsData != null) {
+            for (Map<String, String> ingData : ingredientsData) {
+                ingredients.add(new Ingredient(ingData.get("name"), ingData.get("measure")));
+            }
+        }
+
+        Long creationTime = doc.getLong("creationDate");
+        Long updateTime = doc.getLong("updateDate");
+        Date creationDate = creationTime != null ? new Date(creationTime) : new Date();
+        Date updateDate = updateTime != null ? new Date(updateTime) : new Date();
+
+        Recipe.Status status = null;
+        String statusStr = doc.getString("status");
+        if (statusStr != null) {
+            try {
+                status = Recipe.Status.valueOf(statusStr);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Invalid status value: " + statusStr);
+                status = Recipe.Status.DRAFT;
+            }
+        }
+
+        RecipeSummary summary = new RecipeSummary(
+                doc.getString("recipeId"),
+                doc.getString("authorId"),
+                doc.getString("title"),
+                ingredients,
+                doc.getString("category"),
+                tags,
+                status,
+                creationDate,
+                updateDate,
+                doc.getString("imagePath")
+        );
+
+        Long saves = doc.getLong("saves");
+        Double averageRating = doc.getDouble("averageRating");
+        if (saves != null) summary.setSaves(saves.intValue());
+        if (averageRating != null) summary.setAverageRating(averageRating);
+
+        return summary;
+    }
+}
@@ -0,0 +1,98 @@
+package data_access;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds the normalized title fields stored on each recipe document so that Firestore can find
+ * title matches itself instead of the app downloading every recipe:
+ *
+ * - titleLower: the normalized title, for prefix range queries on the whole title;
+ * - titleTokens: every word of the title and each of its prefixes, for array-contains queries
+ *   that match any word starting with the query (so "chick" finds "Chicken Handi").
+ *
+ * Normalizing lower-cases, strips accents and collapses everything but letters and digits to
+ * single spaces, so "Crème Brûlée" and "creme  brulee" match.
+ */
+public class RecipeTitleIndex {
+    public static final String TITLE_LOWER_FIELD = "titleLower";
+    public static final String TITLE_TOKENS_FIELD = "titleTokens";
+
+    // Longer words only index their first MAX_PREFIX_LENGTH characters as prefixes
+    private static final int MAX_PREFIX_LENGTH = 15;
+    static final int MAX_TOKENS = 200;
+
+    private RecipeTitleIndex() {}
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}+", "")
+                .toLowerCase()
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+    }
+
+    /**
+     * @return the distinct words of the title and their prefixes, shortest first for each word,
+     * at most MAX_TOKENS in all. Room is kept for every whole word, so a long title drops the
+     * prefixes of its last words before any word; only a title with more than MAX_TOKENS
+     * distinct words leaves the words past that out.
+     */
+    public static List<String> titleTokens(String title) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(words(title)));
+        if (words.size() > MAX_TOKENS) {
+            words = words.subList(0, MAX_TOKENS);
+        }
+        int prefixBudget = MAX_TOKENS - words.size();
+
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String word : words) {
+            int maxLength = Math.min(word.length() - 1, MAX_PREFIX_LENGTH);
+            for (int length = 1; length <= maxLength && prefixBudget > 0; length++) {
+                if (tokens.add(word.substring(0, length))) {
+                    prefixBudget--;
+                }
+            }
+            // Always index the whole word, even past the prefix limit
+            tokens.add(word);
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * @return the token to query titleTokens with: the longest word of the query, since every
+     * word must appear in a matching title and the longest is the most selective
+     */
+    public static String queryToken(String query) {
+        String best = "";
+        for (String word : words(query)) {
+            if (word.length() > best.length()) {
+                best = word;
+            }
+        }
+        return best.length() > MAX_PREFIX_LENGTH ? best.substring(0, MAX_PREFIX_LENGTH) : best;
+    }
+
+    /**
+     * The same match as the old in-memory filter, on normalized text: the title contains the query.
+     */
+    public static boolean matches(String title, String query) {
+        return normalize(title).contains(normalize(query));
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : normalize(text).split(" ")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
@@ -2,29 +2,72 @@ package data_access;
 
 import entity.Recipe;
 import entity.Ingredient;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.Reader;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object for fetching recipe recommendations from MealDB API.
  * This class only handles API calls for getting recipes by category
  * For getting user's saved recipes, use CompositeRecommendRecipeDAO which
  * combines this with FirebaseSaveRecipeDataAccessObject.
+ *
+ * The filter endpoint only returns a name, image and ID per meal, so recipes come back as stubs.
+ * Their details are filled in later by hydrateRecipes, for just the recipes the user can see or
+ * has selected, through the detail lookups of the search DAO.
  */
 public class RecommendRecipeDataAccessObject {
 
-    private static final String API_BASE_URL = "https://www.themealdb.com/api/json/v1/1/filter.php";
+    static final String STUB_DESCRIPTION = "Recommended recipe from TheMealDB";
+
+    private final OkHttpClient client = MealDbHttpClient.getInstance();
+    private final MealDbResponseCache responseCache;
+    private final RecipeDataAccessObject detailSource;
+    private final String baseUrl;
+
+    public RecommendRecipeDataAccessObject() {
+        this(MealDbResponseCache.getInstance(), new RecipeDataAccessObject());
+    }
+
+    /**
+     * @param detailSource the search DAO whose lookups (and caches) are used to hydrate stubs
+     */
+    public RecommendRecipeDataAccessObject(RecipeDataAccessObject detailSource) {
+        this(MealDbResponseCache.getInstance(), detailSource);
+    }
+
+    /**
+     * @param responseCache the cache of MealDB response bodies to read through
+     * @param detailSource  the search DAO whose lookups (and caches) are used to hydrate stubs
+     */
+    public RecommendRecipeDataAccessObject(MealDbResponseCache responseCache, RecipeDataAccessObject detailSource) {
+        this(responseCache, detailSource, MealDbHttpClient.getBaseUrl());
+    }
+
+    /**
+     * @param responseCache the cache of MealDB response bodies to read through
+     * @param detailSource  the search DAO whose lookups (and caches) are used to hydrate stubs
+     * @param baseUrl       the MealDB API base URL, ending in a slash
+     */
+    public RecommendRecipeDataAccessObject(MealDbResponseCache responseCache, RecipeDataAccessObject detailSource,
+                                           String baseUrl) {
+        this.responseCache = responseCache;
+        this.detailSource = detailSource;
+        this.baseUrl = baseUrl;
+    }
 
     /**
      * Get recipes by category from MealDB API.
@@ -39,43 +82,65 @@ public class RecommendRecipeDataAccessObject {
             return recipes;
         }
 
-        try {
-            String encodedCategory = URLEncoder.encode(category, StandardCharsets.UTF_8);
-            String urlString = String.format("%s?c=%s", API_BASE_URL, encodedCategory);
+        String encodedCategory = URLEncoder.encode(category, StandardCharsets.UTF_8);
+        String urlString = String.format("%sfilter.php?c=%s", baseUrl, encodedCategory);
 
-            URL url = new URL(urlString);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setConnectTimeout(5000);
-            connection.setReadTimeout(5000);
-
-            int responseCode = connection.getResponseCode();
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                String inputLine;
-                StringBuilder response = new StringBuilder();
-
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                in.close();
+        try (Reader body = responseCache.getReader(urlString, this::fetchFromNetwork)) {
+            // Parse straight from the body stream instead of buffering it into a string first
+            parseResponseToRecipes(new JSONObject(new JSONTokener(body)), recipes, category);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
 
-                parseResponseToRecipes(response.toString(), recipes, category);
+        return recipes;
+    }
 
-            } else {
-                System.out.println("API Request failed. Response Code: " + responseCode);
+    /**
+     * Fills in the details of recommendation stubs in place, looking them up in one parallel batch.
+     * Recipes that are already hydrated are skipped, so this is cheap to call again for the same
+     * recipes. Stubs whose lookup fails are left as they are.
+     *
+     * @param recipes the recommendations the user can see or has selected
+     */
+    public void hydrateRecipes(List<Recipe> recipes) {
+        Map<String, Recipe> stubs = new HashMap<>();
+        for (Recipe recipe : recipes) {
+            if (isStub(recipe)) {
+                stubs.put(recipe.getRecipeId(), recipe);
             }
+        }
+        if (stubs.isEmpty()) {
+            return;
+        }
 
-        } catch (IOException e) {
-            e.printStackTrace();
+        for (Recipe details : detailSource.findAllById(new ArrayList<>(stubs.keySet()))) {
+            Recipe stub = stubs.get(details.getRecipeId());
+            if (stub != null) {
+                stub.setDescription(details.getDescription());
+                stub.setIngredients(details.getIngredients());
+                stub.setTags(details.getTags());
+            }
         }
+    }
 
-        return recipes;
+    /**
+     * @return true if the recipe still only holds what the filter endpoint returned
+     */
+    static boolean isStub(Recipe recipe) {
+        return STUB_DESCRIPTION.equals(recipe.getDescription()) && recipe.getIngredients().isEmpty();
     }
 
-    private void parseResponseToRecipes(String jsonResponse, List<Recipe> recipes, String category) {
-        JSONObject jsonObject = new JSONObject(jsonResponse);
+    private String fetchFromNetwork(String urlString) throws IOException {
+        Request request = new Request.Builder().url(urlString).build();
+        try (Response response = client.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("API Request failed. Response Code: " + response.code());
+            }
+            return response.body().string();
+        }
+    }
 
+    private void parseResponseToRecipes(JSONObject jsonObject, List<Recipe> recipes, String category) {
         if (jsonObject.isNull("meals")) {
             return;
         }
@@ -90,7 +155,6 @@ public class RecommendRecipeDataAccessObject {
             String id = recipeJson.getString("idMeal");
 
             String defaultAuthorId = "TheMealDB";
-            String defaultDescription = "Recommended recipe from TheMealDB";
             List<Ingredient> emptyIngredients = new ArrayList<>();
             List<String> emptyTags = new ArrayList<>();
             Date now = new Date();
@@ -99,7 +163,7 @@ public class RecommendRecipeDataAccessObject {
                     id,
                     defaultAuthorId,
                     title,
-                    defaultDescription,
+                    STUB_DESCRIPTION,
                     emptyIngredients,
                     category,
                     emptyTags,
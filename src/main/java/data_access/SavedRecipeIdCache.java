@@ -0,0 +1,180 @@
+package data_access;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The IDs of the recipes each signed-in user saved, so checking whether a recipe is saved costs
+ * no network call.
+ *
+ * A user's set is loaded from users/{name}.recipes and then kept current two ways: the save DAO
+ * writes its own changes through as soon as they commit, and a snapshot listener on the user
+ * document picks up changes made anywhere else. A snapshot older than the last change applied is
+ * ignored, so a write that committed is never undone by a snapshot read before it.
+ *
+ * Sets are session-scoped: startSession, called at login, loads the new user's set and drops
+ * everyone else's. The shared cache of a Firestore instance is closed by
+ * FirebaseInitializer.shutdown().
+ */
+public class SavedRecipeIdCache {
+    private static final Map<Firestore, SavedRecipeIdCache> instances = new IdentityHashMap<>();
+
+    private final CollectionReference usersCollection;
+    private final Map<String, SavedIds> users = new ConcurrentHashMap<>();
+
+    public SavedRecipeIdCache(Firestore db) {
+        this.usersCollection = db.collection("users");
+    }
+
+    /**
+     * @return the cache shared by every DAO on this Firestore instance
+     */
+    public static SavedRecipeIdCache getInstance(Firestore db) {
+        SavedRecipeIdCache cache;
+        synchronized (SavedRecipeIdCache.class) {
+            cache = instances.get(db);
+            if (cache != null) {
+                return cache;
+            }
+            cache = new SavedRecipeIdCache(db);
+            instances.put(db, cache);
+        }
+
+        // Registered outside the class lock, which the task takes, so the two locks are never nested
+        SavedRecipeIdCache registered = cache;
+        FirebaseInitializer.addShutdownTask(() -> {
+            registered.close();
+            synchronized (SavedRecipeIdCache.class) {
+                instances.remove(db, registered);
+            }
+        });
+        return cache;
+    }
+
+    /**
+     * Starts listening to the user's saved recipes, and stops for every other user.
+     */
+    public void startSession(String username) {
+        for (String other : new ArrayList<>(users.keySet())) {
+            if (!other.equals(username)) {
+                SavedIds removed = users.remove(other);
+                if (removed != null) {
+                    removed.close();
+                }
+            }
+        }
+        entryFor(username);
+    }
+
+    public boolean isSaved(String username, String recipeId) {
+        SavedIds entry = entryFor(username);
+        if (!entry.isLoaded()) {
+            // The listener has not delivered its first snapshot yet
+            try {
+                DocumentSnapshot userDoc = usersCollection.document(username).get().get();
+                entry.applySnapshot(savedIdsOf(userDoc), userDoc.getReadTime());
+            } catch (InterruptedException | ExecutionException e) {
+                throw new RuntimeException("Error loading saved recipes", e);
+            }
+        }
+        return entry.contains(recipeId);
+    }
+
+    /**
+     * Applies a save or unsave of this process once it has committed.
+     *
+     * @param updateTime the time the write committed at
+     */
+    public void recordWrite(String username, String recipeId, boolean saved, Timestamp updateTime) {
+        SavedIds entry = users.get(username);
+        if (entry != null) {
+            entry.applyWrite(recipeId, saved, updateTime);
+        }
+    }
+
+    public void close() {
+        for (SavedIds entry : users.values()) {
+            entry.close();
+        }
+        users.clear();
+    }
+
+    private SavedIds entryFor(String username) {
+        return users.computeIfAbsent(username, name -> {
+            SavedIds entry = new SavedIds();
+            entry.registration = usersCollection.document(name).addSnapshotListener((snapshot, error) -> {
+                if (error != null) {
+                    // Reads go back to a direct load until the listener is started again
+                    System.err.println("Saved recipes listener failed for " + name + ": " + error.getMessage());
+                    users.remove(name, entry);
+                } else if (snapshot != null) {
+                    entry.applySnapshot(savedIdsOf(snapshot), snapshot.getReadTime());
+                }
+            });
+            return entry;
+        });
+    }
+
+    /**
+     * @return the recipe IDs in a user document's saved list, empty if it has none
+     */
+    @SuppressWarnings("unchecked")
+    static List<String> savedIdsOf(DocumentSnapshot userDoc) {
+        List<String> ids = userDoc.exists() ? (List<String>) userDoc.get("recipes") : null;
+        return ids != null ? ids : Collections.emptyList();
+    }
+
+    /**
+     * One user's saved recipe IDs, with the time of the last state applied to them.
+     */
+    static class SavedIds {
+        private final Set<String> ids = new HashSet<>();
+        private Timestamp version;
+        private boolean loaded = false;
+        private ListenerRegistration registration;
+
+        synchronized boolean isLoaded() {
+            return loaded;
+        }
+
+        synchronized boolean contains(String recipeId) {
+            return ids.contains(recipeId);
+        }
+
+        /**
+         * Replaces the set with the user document as read at readTime, unless a later change has
+         * been applied already.
+         */
+        synchronized void applySnapshot(Collection<String> savedIds, Timestamp readTime) {
+            if (version != null && readTime != null && readTime.compareTo(version) < 0) {
+                return;
+            }
+            ids.clear();
+            ids.addAll(savedIds);
+            version = readTime;
+            loaded = true;
+        }
+
+        synchronized void applyWrite(String recipeId, boolean saved, Timestamp updateTime) {
+            if (saved) {
+                ids.add(recipeId);
+            } else {
+                ids.remove(recipeId);
+            }
+            if (version == null || (updateTime != null && updateTime.compareTo(version) > 0)) {
+                version = updateTime;
+            }
+        }
+
+        synchronized void close() {
+            if (registration != null) {
+                registration.remove();
+                registration = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package data_access;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A recipe's view count spread over several shard documents, so popular recipes are not limited
+ * by the write rate of a single document:
+ *
+ * recipe_views/{recipeId}                 num_views (views counted before sharding), num_shards
+ * recipe_views/{recipeId}/shards/{0..n-1} count
+ *
+ * A view increments one shard picked at random with FieldValue.increment, without a transaction
+ * or a read. The count is num_views plus the sum of the shards. A recipe uses
+ * firebase.views.shards shards unless its num_shards is set higher with setShardCount; shard
+ * counts only ever grow, since counts in dropped shards would no longer be read.
+ *
+ * The same batch adds the views to the recipe's recipe_stats document (see RecipeStatsStore),
+ * so each view writes two documents.
+ */
+public class ShardedViewCounter {
+    static final String SHARDS_COLLECTION = "shards";
+    static final String SHARD_COUNT_FIELD = "num_shards";
+    static final String LEGACY_COUNT_FIELD = "num_views";
+    static final String COUNT_FIELD = "count";
+
+    static final int MAX_BATCH_WRITES = 500;
+    // A shard and a stats document per recipe
+    static final int MAX_RECIPES_PER_BATCH = MAX_BATCH_WRITES / 2;
+
+    private static final int DEFAULT_SHARDS = 8;
+
+    private final Firestore db;
+    private final CollectionReference viewsCollection;
+    private final ViewCountCache cache;
+    private final int defaultShards;
+
+    // Shard counts seen on reads, so writes spread over a scaled-up recipe's extra shards. Shared
+    // by every counter in the process, like the count cache.
+    private static final Map<String, Integer> knownShardCounts = new ConcurrentHashMap<>();
+
+    public ShardedViewCounter(Firestore db) {
+        this(db, ViewCountCache.getInstance(), Integer.getInteger("firebase.views.shards", DEFAULT_SHARDS));
+    }
+
+    public ShardedViewCounter(Firestore db, ViewCountCache cache, int defaultShards) {
+        if (defaultShards < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1: " + defaultShards);
+        }
+        this.db = db;
+        this.viewsCollection = db.collection("recipe_views");
+        this.cache = cache;
+        this.defaultShards = defaultShards;
+    }
+
+    public void increment(String recipeId) {
+        WriteBatch batch = db.batch();
+        addViews(batch, recipeId, 1);
+        try {
+            batch.commit().get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error recording view", e);
+        }
+        cache.increment(recipeId);
+    }
+
+    /**
+     * Adds views to many recipes in one WriteBatch, each to one random shard and to its stats
+     * document. A batch holds at most 500 writes, so at most 250 recipes can be passed. The cache is not touched; callers that
+     * buffer views count them in the cache when they are recorded.
+     */
+    public void incrementAll(Map<String, Long> viewsByRecipe) {
+        if (viewsByRecipe.size() > MAX_RECIPES_PER_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_RECIPES_PER_BATCH + " recipes per batch: " + viewsByRecipe.size());
+        }
+        WriteBatch batch = db.batch();
+        viewsByRecipe.forEach((recipeId, views) -> addViews(batch, recipeId, views));
+        try {
+            batch.commit().get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error recording views", e);
+        }
+    }
+
+    private void addViews(WriteBatch batch, String recipeId, long views) {
+        batch.set(randomShard(recipeId), Collections.singletonMap(COUNT_FIELD, FieldValue.increment(views)), SetOptions.merge());
+        batch.set(RecipeStatsStore.statsRef(db, recipeId),
+                Collections.singletonMap(RecipeStatsStore.VIEWS_FIELD, FieldValue.increment(views)), SetOptions.merge());
+    }
+
+    /**
+     * Reads the counts of many recipes in two round trips: their counter documents, then all of
+     * their shards. Cached counts are not read again.
+     *
+     * @return the view count of each recipe ID; recipes whose count could not be read are left out
+     */
+    public Map<String, Integer> getCounts(Collection<String> recipeIds) {
+        Map<String, Integer> counts = new HashMap<>();
+        List<String> toRead = new ArrayList<>();
+        for (String recipeId : new LinkedHashSet<>(recipeIds)) {
+            if (recipeId == null || recipeId.isEmpty()) {
+                continue;
+            }
+            Integer cached = cache.get(recipeId);
+            if (cached != null) {
+                counts.put(recipeId, cached);
+            } else {
+                toRead.add(recipeId);
+            }
+        }
+        if (toRead.isEmpty()) {
+            return counts;
+        }
+
+        try {
+            List<DocumentReference> counterRefs = new ArrayList<>();
+            for (String recipeId : toRead) {
+                counterRefs.add(viewsCollection.document(recipeId));
+            }
+            Map<String, Integer> read = new HashMap<>();
+            List<DocumentReference> shardRefs = new ArrayList<>();
+            for (DocumentSnapshot counter : db.getAll(counterRefs.toArray(new DocumentReference[0])).get()) {
+                read.put(counter.getId(), legacyCount(counter));
+                shardRefs.addAll(shardRefs(counter.getId(), shardCount(counter)));
+            }
+            for (DocumentSnapshot shard : db.getAll(shardRefs.toArray(new DocumentReference[0])).get()) {
+                String recipeId = shard.getReference().getParent().getParent().getId();
+                read.merge(recipeId, shardValue(shard), Integer::sum);
+            }
+
+            read.forEach(cache::put);
+            counts.putAll(read);
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error fetching view counts: " + e.getMessage());
+        }
+        return counts;
+    }
+
+    /**
+     * Reads one recipe's count without blocking the caller: the counter document, then its shards.
+     */
+    public CompletableFuture<Integer> getCount(String recipeId) {
+        Integer cached = cache.get(recipeId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        ApiFuture<DocumentSnapshot> counterFuture = viewsCollection.document(recipeId).get();
+        counterFuture.addListener(() -> {
+            try {
+                DocumentSnapshot counter = counterFuture.get();
+                int legacy = legacyCount(counter);
+                List<DocumentReference> refs = shardRefs(recipeId, shardCount(counter));
+                ApiFuture<List<DocumentSnapshot>> shardsFuture = db.getAll(refs.toArray(new DocumentReference[0]));
+                shardsFuture.addListener(() -> {
+                    try {
+                        int total = legacy;
+                        for (DocumentSnapshot shard : shardsFuture.get()) {
+                            total += shardValue(shard);
+                        }
+                        cache.put(recipeId, total);
+                        future.complete(total);
+                    } catch (InterruptedException | ExecutionException e) {
+                        future.completeExceptionally(e);
+                    }
+                }, Runnable::run);
+            } catch (InterruptedException | ExecutionException e) {
+                future.completeExceptionally(e);
+            }
+        }, Runnable::run);
+        return future;
+    }
+
+    /**
+     * Spreads a recipe's views over more shards, for recipes that outgrow the default.
+     *
+     * @throws IllegalArgumentException if the recipe already uses more shards
+     */
+    public void setShardCount(String recipeId, int shards) {
+        DocumentReference counterRef = viewsCollection.document(recipeId);
+        try {
+            int current = shardCount(counterRef.get().get());
+            if (shards < current) {
+                throw new IllegalArgumentException("Recipe " + recipeId + " already uses " + current
+                        + " view shards; shard counts cannot shrink");
+            }
+            counterRef.set(Collections.singletonMap(SHARD_COUNT_FIELD, shards), SetOptions.merge()).get();
+            knownShardCounts.put(recipeId, shards);
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error setting view shard count: " + e.getMessage());
+            throw new RuntimeException("Error setting view shard count", e);
+        }
+    }
+
+    private int shardCount(DocumentSnapshot counter) {
+        Long stored = counter.exists() ? counter.getLong(SHARD_COUNT_FIELD) : null;
+        // Never read fewer shards than the default, which writes may have used
+        int shards = stored != null ? Math.max(stored.intValue(), defaultShards) : defaultShards;
+        if (shards > defaultShards) {
+            knownShardCounts.put(counter.getId(), shards);
+        }
+        return shards;
+    }
+
+    private static int legacyCount(DocumentSnapshot counter) {
+        Long views = counter.exists() ? counter.getLong(LEGACY_COUNT_FIELD) : null;
+        return views != null ? views.intValue() : 0;
+    }
+
+    private static int shardValue(DocumentSnapshot shard) {
+        Long count = shard.exists() ? shard.getLong(COUNT_FIELD) : null;
+        return count != null ? count.intValue() : 0;
+    }
+
+    private List<DocumentReference> shardRefs(String recipeId, int shards) {
+        List<DocumentReference> refs = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            refs.add(shardRef(recipeId, i));
+        }
+        return refs;
+    }
+
+    private DocumentReference randomShard(String recipeId) {
+        int shards = knownShardCounts.getOrDefault(recipeId, defaultShards);
+        return shardRef(recipeId, ThreadLocalRandom.current().nextInt(shards));
+    }
+
+    private DocumentReference shardRef(String recipeId, int shard) {
+        return viewsCollection.document(recipeId).collection(SHARDS_COLLECTION).document(String.valueOf(shard));
+    }
+}
@@ -0,0 +1,72 @@
+package data_access;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Coalesces concurrent calls for the same key into a single in-flight call.
+ *
+ * The first caller for a key runs the call. Callers that arrive while it is still running wait
+ * for it and get the same result, or the same failure. The key is released as soon as the call
+ * finishes, so a later call runs again (and is usually answered by the response cache).
+ *
+ * @param <T> the type of the shared result
+ */
+public class SingleFlight<T> {
+
+    /**
+     * The work to run once per key.
+     */
+    public interface Call<T> {
+        T run() throws IOException;
+    }
+
+    private final ConcurrentHashMap<String, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+
+    public T execute(String key, Call<T> call) throws IOException {
+        CompletableFuture<T> mine = new CompletableFuture<>();
+        CompletableFuture<T> existing = inFlight.putIfAbsent(key, mine);
+
+        if (existing == null) {
+            try {
+                T result = call.run();
+                mine.complete(result);
+                return result;
+            } catch (Throwable t) {
+                mine.completeExceptionally(t);
+                throw t;
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        }
+
+        try {
+            return existing.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + key);
+        }
+    }
+
+    /**
+     * @return the number of keys that currently have a call in flight
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,233 @@
+package data_access;
+
+import com.google.cloud.Timestamp;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * The part of RecipeReplica that does not touch Firestore: a copy of a collection kept by
+ * applying the snapshots of a listener, with its byte cap and reconnect backoff. Where the
+ * snapshots come from and when reconnects run are passed in, so tests drive it with plain
+ * documents.
+ *
+ * @param <D> the document type
+ */
+class SnapshotReplica<D> {
+    static final long INITIAL_RETRY_MILLIS = 5_000;
+    static final long MAX_RETRY_MILLIS = 300_000;
+
+    enum State { STARTING, LIVE, DISCONNECTED, OVER_CAPACITY, STOPPED }
+
+    /**
+     * Starts a listener that reports its snapshots and errors to the replica.
+     */
+    interface Source<D> {
+        /**
+         * @return the task that stops the listener
+         */
+        Runnable listen(SnapshotReplica<D> replica);
+    }
+
+    /**
+     * Runs a reconnect after a delay.
+     */
+    interface Scheduler {
+        void schedule(Runnable task, long delayMillis);
+    }
+
+    /**
+     * A document added, modified or removed since the previous snapshot.
+     */
+    static final class Change<D> {
+        private final D document;
+        private final boolean removed;
+
+        Change(D document, boolean removed) {
+            this.document = document;
+            this.removed = removed;
+        }
+
+        D getDocument() {
+            return document;
+        }
+
+        boolean isRemoved() {
+            return removed;
+        }
+    }
+
+    private final Source<D> source;
+    private final Scheduler scheduler;
+    private final Function<D, String> idOf;
+    private final Function<D, ?> dataOf;
+    private final long maxBytes;
+
+    private final ConcurrentHashMap<String, D> documents = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> documentBytes = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    private volatile State state = State.STARTING;
+    private volatile long lastSnapshotMillis = 0;
+    private volatile Timestamp lastReadTime;
+    private Runnable stopListener;
+    private boolean awaitingFullSnapshot;
+    private long retryMillis = INITIAL_RETRY_MILLIS;
+
+    /**
+     * @param idOf   the ID of a document
+     * @param dataOf the data of a document, whose size is checked against maxBytes
+     */
+    SnapshotReplica(Source<D> source, Scheduler scheduler, Function<D, String> idOf, Function<D, ?> dataOf,
+                    long maxBytes) {
+        this.source = source;
+        this.scheduler = scheduler;
+        this.idOf = idOf;
+        this.dataOf = dataOf;
+        this.maxBytes = maxBytes;
+    }
+
+    synchronized void start() {
+        if (state == State.OVER_CAPACITY || state == State.STOPPED) {
+            return;
+        }
+        awaitingFullSnapshot = true;
+        stopListener = source.listen(this);
+    }
+
+    synchronized void stop() {
+        state = State.STOPPED;
+        removeListener();
+    }
+
+    /**
+     * Applies one snapshot of the listener.
+     *
+     * @param documents every document the snapshot holds; only read for a listener's first snapshot
+     * @param changes   the documents changed since the previous snapshot
+     * @param readTime  the server time of the snapshot
+     */
+    synchronized void onSnapshot(List<? extends D> documents, List<Change<D>> changes, Timestamp readTime) {
+        if (state == State.OVER_CAPACITY || state == State.STOPPED) {
+            return;
+        }
+        if (awaitingFullSnapshot) {
+            // The first snapshot of a listener holds every document; start over from it, since
+            // documents deleted while disconnected are not reported as removed
+            clear();
+            for (D doc : documents) {
+                put(doc);
+            }
+            awaitingFullSnapshot = false;
+        } else {
+            for (Change<D> change : changes) {
+                if (change.isRemoved()) {
+                    remove(idOf.apply(change.getDocument()));
+                } else {
+                    put(change.getDocument());
+                }
+            }
+        }
+
+        if (totalBytes.get() > maxBytes) {
+            System.err.println("Recipe replica passed its " + maxBytes + " byte cap; reading recipes from Firestore");
+            state = State.OVER_CAPACITY;
+            removeListener();
+            clear();
+            return;
+        }
+
+        lastSnapshotMillis = System.currentTimeMillis();
+        lastReadTime = readTime;
+        retryMillis = INITIAL_RETRY_MILLIS;
+        state = State.LIVE;
+    }
+
+    /**
+     * Keeps the copy but stops serving it, and reconnects after a delay that doubles with each
+     * failure in a row.
+     */
+    synchronized void onListenerError(Exception error) {
+        if (state == State.OVER_CAPACITY || state == State.STOPPED) {
+            return;
+        }
+        System.err.println("Recipe replica listener failed, retrying in " + retryMillis + " ms: " + error.getMessage());
+        state = State.DISCONNECTED;
+        stopListener = null;
+        long delay = retryMillis;
+        retryMillis = Math.min(retryMillis * 2, MAX_RETRY_MILLIS);
+        scheduler.schedule(this::start, delay);
+    }
+
+    private void removeListener() {
+        if (stopListener != null) {
+            stopListener.run();
+            stopListener = null;
+        }
+    }
+
+    private void put(D doc) {
+        String id = idOf.apply(doc);
+        long bytes = RecipeReplica.estimateBytes(dataOf.apply(doc));
+        documents.put(id, doc);
+        Long previous = documentBytes.put(id, bytes);
+        totalBytes.addAndGet(bytes - (previous != null ? previous : 0));
+    }
+
+    private void remove(String id) {
+        documents.remove(id);
+        Long previous = documentBytes.remove(id);
+        if (previous != null) {
+            totalBytes.addAndGet(-previous);
+        }
+    }
+
+    private void clear() {
+        documents.clear();
+        documentBytes.clear();
+        totalBytes.set(0);
+    }
+
+    boolean isLive() {
+        return state == State.LIVE;
+    }
+
+    D get(String id) {
+        return documents.get(id);
+    }
+
+    Collection<D> getAll() {
+        return new ArrayList<>(documents.values());
+    }
+
+    /**
+     * @return 0 while the listener is live, otherwise how long the copy has been frozen since its
+     * last snapshot (-1 if it never had one)
+     */
+    long getStalenessMillis() {
+        if (state == State.LIVE) {
+            return 0;
+        }
+        return lastSnapshotMillis == 0 ? -1 : System.currentTimeMillis() - lastSnapshotMillis;
+    }
+
+    Timestamp getLastReadTime() {
+        return lastReadTime;
+    }
+
+    State getState() {
+        return state;
+    }
+
+    int size() {
+        return documents.size();
+    }
+
+    long getEstimatedBytes() {
+        return totalBytes.get();
+    }
+}
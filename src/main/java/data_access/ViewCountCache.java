@@ -0,0 +1,79 @@
+package data_access;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Recently read view counts, so list screens do not sum a recipe's counter shards on every read.
+ *
+ * A count is served for a fixed time after it was read, then read again. Views recorded by this
+ * process are added to the cached count right away, so users see their own views; views from
+ * other clients show up once the entry expires.
+ */
+public class ViewCountCache {
+    private static final long DEFAULT_TTL_MILLIS = 30_000;
+
+    private static ViewCountCache instance;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    private static final class Entry {
+        final int count;
+        final long readAtNanos;
+
+        Entry(int count, long readAtNanos) {
+            this.count = count;
+            this.readAtNanos = readAtNanos;
+        }
+    }
+
+    public ViewCountCache(long ttlMillis) {
+        this(ttlMillis, System::nanoTime);
+    }
+
+    ViewCountCache(long ttlMillis, LongSupplier clock) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.clock = clock;
+    }
+
+    /**
+     * @return the cache shared by every Firebase DAO; its lifetime is set with
+     * firebase.views.cacheTtlMillis
+     */
+    public static synchronized ViewCountCache getInstance() {
+        if (instance == null) {
+            instance = new ViewCountCache(Long.getLong("firebase.views.cacheTtlMillis", DEFAULT_TTL_MILLIS));
+        }
+        return instance;
+    }
+
+    /**
+     * @return the cached count, or null if there is none or it has expired
+     */
+    public Integer get(String recipeId) {
+        Entry entry = entries.get(recipeId);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.readAtNanos >= ttlNanos) {
+            entries.remove(recipeId, entry);
+            return null;
+        }
+        return entry.count;
+    }
+
+    public void put(String recipeId, int count) {
+        entries.put(recipeId, new Entry(count, clock.getAsLong()));
+    }
+
+    /**
+     * Adds a view recorded by this process to the cached count, if there is one. The entry keeps
+     * its read time, so it still expires on schedule.
+     */
+    public void increment(String recipeId) {
+        entries.computeIfPresent(recipeId, (id, entry) -> new Entry(entry.count + 1, entry.readAtNanos));
+    }
+}
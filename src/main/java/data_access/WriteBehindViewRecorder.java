@@ -0,0 +1,266 @@
+package data_access;
+
+import com.google.cloud.firestore.Firestore;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers recipe views and writes them in batches, so recording a view costs neither a thread
+ * nor a Firestore write.
+ *
+ * Views are merged per recipe while they wait: ten views of one recipe become one increment of
+ * ten. A background thread flushes the buffer every firebase.views.flushIntervalMillis (default
+ * 2 s), in batches of at most 250 recipes. A batch that fails goes back into the buffer and is
+ * retried on the next flush.
+ *
+ * The buffer holds at most firebase.views.maxPendingRecipes (default 10,000) different recipes.
+ * When it is full, views of other recipes are dropped and counted. A full buffer also triggers a
+ * flush straight away.
+ *
+ * close() stops the timer and flushes what is left. The shared recorder of a Firestore instance
+ * is closed by FirebaseInitializer.shutdown().
+ */
+public class WriteBehindViewRecorder implements AutoCloseable {
+
+    /**
+     * Where the merged views go. Called with at most 250 recipes at a time; throwing a
+     * RuntimeException puts the views back in the buffer.
+     */
+    public interface Store {
+        void incrementAll(Map<String, Long> viewsByRecipe);
+    }
+
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 2_000;
+    private static final int DEFAULT_MAX_PENDING_RECIPES = 10_000;
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private static final Map<Firestore, WriteBehindViewRecorder> instances = new IdentityHashMap<>();
+
+    private final Store store;
+    private final ViewCountCache cache;
+    private final int maxPendingRecipes;
+    private final ScheduledExecutorService flusher;
+
+    private final ConcurrentHashMap<String, Long> pending = new ConcurrentHashMap<>();
+    private volatile boolean closed = false;
+
+    // ==================== Metrics ====================
+    private final AtomicLong queuedViews = new AtomicLong();
+    private final AtomicLong recordedViews = new AtomicLong();
+    private final AtomicLong writtenViews = new AtomicLong();
+    private final AtomicLong droppedViews = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private volatile long lastFlushMillis = 0;
+    private volatile long maxFlushMillis = 0;
+
+    public WriteBehindViewRecorder(Store store, ViewCountCache cache, int maxPendingRecipes, long flushIntervalMillis) {
+        this.store = store;
+        this.cache = cache;
+        this.maxPendingRecipes = maxPendingRecipes;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "view-recorder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the recorder shared by every DAO on this Firestore instance, which writes to its
+     * sharded view counters and is flushed when Firebase shuts down
+     */
+    public static WriteBehindViewRecorder getInstance(Firestore db) {
+        WriteBehindViewRecorder recorder;
+        synchronized (WriteBehindViewRecorder.class) {
+            recorder = instances.get(db);
+            if (recorder != null) {
+                return recorder;
+            }
+            recorder = new WriteBehindViewRecorder(
+                    new ShardedViewCounter(db)::incrementAll,
+                    ViewCountCache.getInstance(),
+                    Integer.getInteger("firebase.views.maxPendingRecipes", DEFAULT_MAX_PENDING_RECIPES),
+                    Long.getLong("firebase.views.flushIntervalMillis", DEFAULT_FLUSH_INTERVAL_MILLIS));
+            instances.put(db, recorder);
+        }
+
+        // Registered outside the class lock, which the task takes, so the two locks are never nested
+        WriteBehindViewRecorder registered = recorder;
+        FirebaseInitializer.addShutdownTask(() -> {
+            registered.close();
+            synchronized (WriteBehindViewRecorder.class) {
+                instances.remove(db, registered);
+            }
+        });
+        return recorder;
+    }
+
+    /**
+     * Queues one view. Never blocks on Firestore.
+     *
+     * @return false if the view was dropped because the buffer is full or the recorder is closed
+     */
+    public boolean record(String recipeId) {
+        if (closed) {
+            droppedViews.incrementAndGet();
+            return false;
+        }
+        if (pending.size() >= maxPendingRecipes && !pending.containsKey(recipeId)) {
+            droppedViews.incrementAndGet();
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // Closing; the final flush empties the buffer
+            }
+            return false;
+        }
+
+        pending.merge(recipeId, 1L, Long::sum);
+        queuedViews.incrementAndGet();
+        recordedViews.incrementAndGet();
+        // Shown right away, though written later
+        cache.increment(recipeId);
+        return true;
+    }
+
+    /**
+     * Writes everything buffered so far. Runs on the flush thread, or on the caller after close().
+     */
+    void flush() {
+        List<String> recipeIds = new ArrayList<>(pending.keySet());
+        if (recipeIds.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = false;
+        for (int from = 0; from < recipeIds.size(); from += ShardedViewCounter.MAX_RECIPES_PER_BATCH) {
+            Map<String, Long> batch = new LinkedHashMap<>();
+            for (String recipeId : recipeIds.subList(from, Math.min(from + ShardedViewCounter.MAX_RECIPES_PER_BATCH, recipeIds.size()))) {
+                // remove and merge are atomic per key, so a view recorded meanwhile is not lost
+                Long views = pending.remove(recipeId);
+                if (views != null) {
+                    batch.put(recipeId, views);
+                }
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+
+            long views = batch.values().stream().mapToLong(Long::longValue).sum();
+            if (failed) {
+                requeue(batch);
+                continue;
+            }
+            try {
+                store.incrementAll(batch);
+                queuedViews.addAndGet(-views);
+                writtenViews.addAndGet(views);
+            } catch (RuntimeException e) {
+                System.err.println("Error flushing recipe views, retrying later: " + e.getMessage());
+                failed = true;
+                requeue(batch);
+            }
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lastFlushMillis = elapsedMillis;
+        maxFlushMillis = Math.max(maxFlushMillis, elapsedMillis);
+        flushes.incrementAndGet();
+        if (failed) {
+            failedFlushes.incrementAndGet();
+        }
+    }
+
+    private void requeue(Map<String, Long> batch) {
+        // Failed views go back even past the size limit; they were already accepted
+        batch.forEach((recipeId, views) -> pending.merge(recipeId, views, Long::sum));
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.err.println("Error flushing recipe views: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the timer and writes what is left. Views recorded afterwards are dropped.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                flusher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            flusher.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (queuedViews.get() > 0) {
+            System.err.println("Recipe views not written at shutdown: " + queuedViews.get());
+        }
+    }
+
+    // ==================== Metrics ====================
+
+    /**
+     * @return the views waiting to be written
+     */
+    public long getQueueDepth() {
+        return queuedViews.get();
+    }
+
+    /**
+     * @return the recipes with views waiting to be written
+     */
+    public int getPendingRecipes() {
+        return pending.size();
+    }
+
+    public long getRecordedViews() {
+        return recordedViews.get();
+    }
+
+    public long getWrittenViews() {
+        return writtenViews.get();
+    }
+
+    public long getDroppedViews() {
+        return droppedViews.get();
+    }
+
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    public long getFailedFlushCount() {
+        return failedFlushes.get();
+    }
+
+    public long getLastFlushLatencyMillis() {
+        return lastFlushMillis;
+    }
+
+    public long getMaxFlushLatencyMillis() {
+        return maxFlushMillis;
+    }
+}
@@ -8,6 +8,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Objects; // Import Objects for equals and hashCode
+import java.util.concurrent.CompletableFuture;
 
 public class Recipe {
 
@@ -23,7 +24,8 @@ public class Recipe {
     private String description;
     private List<Ingredient> ingredients;
     private String imagePath;
-    private BufferedImage image;
+    private volatile BufferedImage image;
+    private volatile CompletableFuture<BufferedImage> imageDownload;
 
     private String category;
     private List<String> tags;
@@ -120,6 +122,14 @@ public class Recipe {
      * from the imagePath, caches it, and then returns it.
      */
     public BufferedImage getImage() {
+        CompletableFuture<BufferedImage> download = this.imageDownload;
+        if (this.image == null && download != null) {
+            // Wait for the download already running rather than starting a second one
+            BufferedImage downloaded = download.exceptionally(e -> null).join();
+            if (downloaded != null) {
+                this.image = downloaded;
+            }
+        }
         if (this.image == null && this.imagePath != null && !this.imagePath.isEmpty()) {
             try {
                 this.image = ImageIO.read(new URL(this.imagePath));
@@ -132,8 +142,24 @@ public class Recipe {
         return this.image;
     }
 
+    /**
+     * @return true if the image is already in memory, i.e. getImage() will not block on a download
+     */
+    public boolean isImageLoaded() { return image != null; }
+
     public void setImage(BufferedImage image) { this.image = image; touchUpdateDate(); }
 
+    /**
+     * @return the background download of the image, or null if none was started
+     */
+    public CompletableFuture<BufferedImage> getImageDownload() { return imageDownload; }
+
+    /**
+     * Records a download of the image running in the background, so that readers wait for it
+     * instead of downloading the image again. It completes with null if the download fails.
+     */
+    public void setImageDownload(CompletableFuture<BufferedImage> imageDownload) { this.imageDownload = imageDownload; }
+
     public String getCategory() { return category; }
     public void setCategory(String category) { this.category = category; touchUpdateDate(); }
 
@@ -192,7 +218,8 @@ public class Recipe {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        // A RecipeSummary is the same recipe as the full one it summarizes
+        if (!(o instanceof Recipe)) return false;
         Recipe recipe = (Recipe) o;
         return Objects.equals(recipeId, recipe.recipeId);
     }
@@ -0,0 +1,25 @@
+package entity;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A recipe as the list views show it: title, tags, image, ingredients and popularity, without
+ * the description and reviews. The description is null and the reviews are empty; the full
+ * recipe has to be loaded before it is opened.
+ */
+public class RecipeSummary extends Recipe {
+
+    public RecipeSummary(String recipeId,
+                         String authorId,
+                         String title,
+                         List<Ingredient> ingredients,
+                         String category,
+                         List<String> tags,
+                         Status status,
+                         Date creationDate,
+                         Date updateDate,
+                         String imagePath) {
+        super(recipeId, authorId, title, null, ingredients, category, tags, status, creationDate, updateDate, imagePath);
+    }
+}
@@ -14,4 +14,8 @@ public class RecipeSearchController {
         RecipeSearchInputData recipeSearchInputData = new RecipeSearchInputData(name, category);
         recipeSearchInteractor.execute(recipeSearchInputData);
     }
+
+    public void executeNextPage() {
+        recipeSearchInteractor.executeNextPage();
+    }
 }
@@ -1,9 +1,13 @@
 package interface_adapter.recipe_search;
 
+import entity.Recipe;
 import interface_adapter.ViewManagerModel;
 import use_case.recipe_search.RecipeSearchOutputBoundary;
 import use_case.recipe_search.RecipeSearchOutputData;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * The Presenter for the Recipe Search Use Case.
  */
@@ -21,6 +25,7 @@ public class RecipeSearchPresenter implements RecipeSearchOutputBoundary {
     public void prepareSuccessView(RecipeSearchOutputData response) {
         RecipeSearchState recipeSearchState = recipeSearchViewModel.getState();
         recipeSearchState.setRecipeList(response.getRecipes());
+        recipeSearchState.setHasMoreResults(response.hasMoreResults());
         recipeSearchState.setCurrentImageCount(0); // Reset progress
         recipeSearchState.setTotalImageCount(0); // Reset progress
         recipeSearchViewModel.firePropertyChange();
@@ -42,4 +47,14 @@ public class RecipeSearchPresenter implements RecipeSearchOutputBoundary {
         recipeSearchState.setTotalImageCount(progressData.getTotalImageCount());
         recipeSearchViewModel.firePropertyChange("progress"); // Fire a specific property change for progress
     }
+
+    @Override
+    public void prepareNextPageView(RecipeSearchOutputData response) {
+        RecipeSearchState recipeSearchState = recipeSearchViewModel.getState();
+        List<Recipe> recipes = new ArrayList<>(recipeSearchState.getRecipeList());
+        recipes.addAll(response.getRecipes());
+        recipeSearchState.setRecipeList(recipes);
+        recipeSearchState.setHasMoreResults(response.hasMoreResults());
+        recipeSearchViewModel.firePropertyChange();
+    }
 }
@@ -8,6 +8,7 @@ import java.util.List;
 public class RecipeSearchState {
     private String searchError = "";
     private List<Recipe> recipeList = new ArrayList<>();
+    private boolean hasMoreResults = false; // True if the search has another page to load
     private List<String> categories = new ArrayList<>();
     private String sortBy = "Views"; // Default sort by Views
     private boolean ascending = true; // Default ascending
@@ -39,6 +40,14 @@ public class RecipeSearchState {
         this.recipeList = recipeList;
     }
 
+    public boolean hasMoreResults() {
+        return hasMoreResults;
+    }
+
+    public void setHasMoreResults(boolean hasMoreResults) {
+        this.hasMoreResults = hasMoreResults;
+    }
+
     public List<String> getCategories() {
         return categories;
     }
@@ -1,8 +1,11 @@
 package interface_adapter.recommend_recipe;
 
+import entity.Recipe;
 import use_case.recommend_recipe.RecommendRecipeInputBoundary;
 import use_case.recommend_recipe.RecommendRecipeInputData;
 
+import java.util.List;
+
 public class RecommendRecipeController {
 
     final RecommendRecipeInputBoundary recommendRecipeUseCaseInteractor;
@@ -24,4 +27,14 @@ public class RecommendRecipeController {
         // 2. Delegate the execution to the Interactor
         recommendRecipeUseCaseInteractor.execute(inputData);
     }
+
+    /**
+     * Loads the full details of the given recommendations.
+     * Called by the view for the recommendations that are on screen or were clicked.
+     *
+     * @param recipes The recommendations to hydrate.
+     */
+    public void hydrate(List<Recipe> recipes) {
+        recommendRecipeUseCaseInteractor.hydrate(recipes);
+    }
 }
\ No newline at end of file
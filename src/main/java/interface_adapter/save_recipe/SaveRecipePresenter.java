@@ -16,6 +16,7 @@ public class SaveRecipePresenter implements SaveRecipeOutputBoundary {
     @Override
     public void prepareSuccess(SaveRecipeOutputData outputData) {
         SaveRecipeState state = new SaveRecipeState();
+        state.setRecipeId(outputData.getRecipeId());
         state.setSaved(outputData.isSaved());
 
         if (outputData.isSaved()) {
@@ -31,6 +32,7 @@ public class SaveRecipePresenter implements SaveRecipeOutputBoundary {
     @Override
     public void prepareUnsave(SaveRecipeOutputData outputData) {
         SaveRecipeState state = new SaveRecipeState();
+        state.setRecipeId(outputData.getRecipeId());
         state.setSaved(false);
         state.setMessage("Unsaved: " + outputData.getRecipeName());
 
@@ -38,6 +40,20 @@ public class SaveRecipePresenter implements SaveRecipeOutputBoundary {
         viewModel.firePropertyChange();
     }
 
+    @Override
+    public void prepareRollback(SaveRecipeOutputData outputData, String message) {
+        SaveRecipeState state = new SaveRecipeState();
+        state.setRecipeId(outputData.getRecipeId());
+        state.setSaved(outputData.isSaved());
+        state.setMessage(message);
+
+        // Called from the background write thread
+        SwingUtilities.invokeLater(() -> {
+            viewModel.setState(state);
+            viewModel.firePropertyChange();
+        });
+    }
+
     @Override
     public void prepareFailure(String message) {
         SaveRecipeState state = new SaveRecipeState();
@@ -1,9 +1,21 @@
 package interface_adapter.save_recipe;
 
 public class SaveRecipeState {
+    private String recipeId;
     private boolean isSaved;
     private String message;
 
+    /**
+     * @return the recipe this state belongs to, or null if it belongs to the recipe shown
+     */
+    public String getRecipeId() {
+        return recipeId;
+    }
+
+    public void setRecipeId(String recipeId) {
+        this.recipeId = recipeId;
+    }
+
     public boolean isSaved() {
         return isSaved;
     }
@@ -17,6 +17,7 @@ public class SavedRecipesPresenter implements ShowSavedRecipesOutputBoundary {
     public void prepareSuccess(ShowSavedRecipesOutputData data) {
         RecipeSearchState state = recipeSearchViewModel.getState();
         state.setRecipeList(data.getSaved_recipes());
+        state.setHasMoreResults(false); // Saved recipes are not a paged search
         state.setSearchError(null);
 
         recipeSearchViewModel.setState(state);
@@ -4,6 +4,8 @@ import interface_adapter.save_recipe.SaveRecipeState;
 import interface_adapter.save_recipe.SaveRecipeViewModel;
 import use_case.unsave_recipe.UnsaveRecipeOutputBoundary;
 
+import javax.swing.*;
+
 public class UnsaveRecipePresenter implements UnsaveRecipeOutputBoundary {
 
     private final SaveRecipeViewModel viewModel;
@@ -29,4 +31,18 @@ public class UnsaveRecipePresenter implements UnsaveRecipeOutputBoundary {
         viewModel.setState(state);
         viewModel.firePropertyChange();
     }
+
+    @Override
+    public void prepareRollback(String recipeId, String error) {
+        SaveRecipeState state = new SaveRecipeState();
+        state.setRecipeId(recipeId);
+        state.setSaved(true);
+        state.setMessage(error);
+
+        // Called from the background write thread
+        SwingUtilities.invokeLater(() -> {
+            viewModel.setState(state);
+            viewModel.firePropertyChange();
+        });
+    }
 }
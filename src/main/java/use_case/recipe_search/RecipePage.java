@@ -0,0 +1,56 @@
+package use_case.recipe_search;
+
+import entity.Recipe;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of recipe results and the token that continues after it.
+ *
+ * The token is opaque to callers: pass it back unchanged to get the next page. It is null on the
+ * last page.
+ */
+public class RecipePage {
+    private final List<Recipe> recipes;
+    private final String nextPageToken;
+
+    public RecipePage(List<Recipe> recipes, String nextPageToken) {
+        this.recipes = recipes;
+        this.nextPageToken = nextPageToken;
+    }
+
+    /**
+     * Cuts one page out of a result set that is already in memory. The token is the offset of the
+     * page's first recipe.
+     */
+    public static RecipePage slice(List<Recipe> recipes, String pageToken, int pageSize) {
+        if (recipes == null) {
+            return new RecipePage(new ArrayList<>(), null);
+        }
+        int from = 0;
+        if (pageToken != null) {
+            try {
+                from = Math.max(0, Integer.parseInt(pageToken));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid page token: " + pageToken, e);
+            }
+        }
+        from = Math.min(from, recipes.size());
+        int to = Math.min(from + pageSize, recipes.size());
+        String next = to < recipes.size() ? String.valueOf(to) : null;
+        return new RecipePage(new ArrayList<>(recipes.subList(from, to)), next);
+    }
+
+    public List<Recipe> getRecipes() {
+        return recipes;
+    }
+
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public boolean hasNextPage() {
+        return nextPageToken != null;
+    }
+}
@@ -2,4 +2,10 @@ package use_case.recipe_search;
 
 public interface RecipeSearchInputBoundary {
     void execute(RecipeSearchInputData recipeSearchInputData);
+
+    /**
+     * Loads the page after the last one shown for the current search. Does nothing when there is
+     * no current search, it has no more pages, or a page is still loading.
+     */
+    void executeNextPage();
 }
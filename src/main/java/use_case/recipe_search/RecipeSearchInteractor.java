@@ -7,11 +7,17 @@ import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 public class RecipeSearchInteractor implements RecipeSearchInputBoundary {
+    static final int PAGE_SIZE = 20;
+
     private final RecipeSearchRecipeDataAccessInterface dataAccess;
     private final RecipeSearchOutputBoundary presenter;
-    private SwingWorker<List<Recipe>, Recipe> activeWorker;
+    private SwingWorker<RecipePage, Recipe> activeWorker;
     private boolean isTestMode = false;
 
+    // The search being paged through and where its next page starts (null when there is none)
+    private RecipeSearchInputData currentSearch;
+    private String nextPageToken;
+
     public RecipeSearchInteractor(RecipeSearchRecipeDataAccessInterface dataAccess,
                                     RecipeSearchOutputBoundary presenter) {
         this.dataAccess = dataAccess;
@@ -24,12 +30,29 @@ public class RecipeSearchInteractor implements RecipeSearchInputBoundary {
 
     @Override
     public void execute(RecipeSearchInputData inputData) {
+        currentSearch = inputData;
+        nextPageToken = null;
+        loadPage(inputData, null);
+    }
+
+    @Override
+    public void executeNextPage() {
+        if (currentSearch == null || nextPageToken == null) {
+            return;
+        }
+        if (activeWorker != null && !activeWorker.isDone()) {
+            return; // A page is already loading
+        }
+        loadPage(currentSearch, nextPageToken);
+    }
+
+    private void loadPage(RecipeSearchInputData inputData, String pageToken) {
+        boolean firstPage = pageToken == null;
         if (isTestMode) {
             // Synchronous execution for testing
             try {
-                List<Recipe> recipes = dataAccess.search(inputData.getName(), inputData.getCategory());
-                RecipeSearchOutputData outputData = new RecipeSearchOutputData(recipes);
-                presenter.prepareSuccessView(outputData);
+                RecipePage page = dataAccess.searchPage(inputData.getName(), inputData.getCategory(), pageToken, PAGE_SIZE);
+                showPage(page, firstPage);
             } catch (Exception e) {
                 presenter.prepareFailView("Error searching for recipes: " + e.getMessage());
             }
@@ -39,19 +62,20 @@ public class RecipeSearchInteractor implements RecipeSearchInputBoundary {
                 activeWorker.cancel(true);
             }
 
-            activeWorker = new SwingWorker<List<Recipe>, Recipe>() {
+            activeWorker = new SwingWorker<RecipePage, Recipe>() {
                 @Override
-                protected List<Recipe> doInBackground() throws Exception {
-                    List<Recipe> recipes = dataAccess.search(inputData.getName(), inputData.getCategory());
-                    for (Recipe recipe : recipes) {
-                        publish(recipe); // Publish each recipe for progress updates
+                protected RecipePage doInBackground() throws Exception {
+                    RecipePage page = dataAccess.searchPage(inputData.getName(), inputData.getCategory(), pageToken, PAGE_SIZE);
+                    if (firstPage) {
+                        for (Recipe recipe : page.getRecipes()) {
+                            publish(recipe); // Publish each recipe for progress updates
+                        }
                     }
-                    return recipes;
+                    return page;
                 }
 
                 @Override
                 protected void process(List<Recipe> chunks) {
-                    // This method is now reachable
                     RecipeSearchOutputData progressData = new RecipeSearchOutputData(chunks);
                     presenter.prepareProgressView(progressData);
                 }
@@ -62,12 +86,10 @@ public class RecipeSearchInteractor implements RecipeSearchInputBoundary {
                         return;
                     }
                     try {
-                        List<Recipe> recipes = get();
-                        RecipeSearchOutputData outputData = new RecipeSearchOutputData(recipes);
-                        presenter.prepareSuccessView(outputData);
+                        showPage(get(), firstPage);
                     } catch (Exception e) {
                         Throwable cause = (e instanceof ExecutionException) ? e.getCause() : e;
-                        
+
                         // Check for interruption anywhere in the cause chain
                         boolean interrupted = false;
                         Throwable current = cause;
@@ -90,4 +112,14 @@ public class RecipeSearchInteractor implements RecipeSearchInputBoundary {
             activeWorker.execute();
         }
     }
+
+    private void showPage(RecipePage page, boolean firstPage) {
+        nextPageToken = page.getNextPageToken();
+        RecipeSearchOutputData outputData = new RecipeSearchOutputData(page.getRecipes(), page.hasNextPage());
+        if (firstPage) {
+            presenter.prepareSuccessView(outputData);
+        } else {
+            presenter.prepareNextPageView(outputData);
+        }
+    }
 }
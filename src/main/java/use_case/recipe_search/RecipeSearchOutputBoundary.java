@@ -6,4 +6,7 @@ public interface RecipeSearchOutputBoundary {
     void prepareFailView(String error);
 
     void prepareProgressView(RecipeSearchOutputData progressData);
+
+    // Shows a further page of the current search after the recipes already shown
+    void prepareNextPageView(RecipeSearchOutputData recipeSearchOutputData);
 }
@@ -9,17 +9,29 @@ public class RecipeSearchOutputData {
     private final int currentImageCount;
     private final int totalImageCount;
     private final boolean isFinalResult; // True if this is the final list of recipes, false if it's a progress update
+    private final boolean hasMoreResults; // True if the search has another page to load
 
     public RecipeSearchOutputData(List<Recipe> recipes, int currentImageCount, int totalImageCount, boolean isFinalResult) {
+        this(recipes, currentImageCount, totalImageCount, isFinalResult, false);
+    }
+
+    private RecipeSearchOutputData(List<Recipe> recipes, int currentImageCount, int totalImageCount,
+                                   boolean isFinalResult, boolean hasMoreResults) {
         this.recipes = recipes;
         this.currentImageCount = currentImageCount;
         this.totalImageCount = totalImageCount;
         this.isFinalResult = isFinalResult;
+        this.hasMoreResults = hasMoreResults;
     }
 
     // Constructor for final results
     public RecipeSearchOutputData(List<Recipe> recipes) {
-        this(recipes, 0, 0, true);
+        this(recipes, false);
+    }
+
+    // Constructor for a page of final results
+    public RecipeSearchOutputData(List<Recipe> recipes, boolean hasMoreResults) {
+        this(recipes, 0, 0, true, hasMoreResults);
     }
 
     // Constructor for progress updates
@@ -42,4 +54,8 @@ public class RecipeSearchOutputData {
     public boolean isFinalResult() {
         return isFinalResult;
     }
+
+    public boolean hasMoreResults() {
+        return hasMoreResults;
+    }
 }
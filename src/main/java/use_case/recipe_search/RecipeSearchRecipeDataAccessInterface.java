@@ -6,4 +6,16 @@ import java.util.List;
 public interface RecipeSearchRecipeDataAccessInterface {
     List<Recipe> search(String name, String category);
     List<String> getAllCategories();
+
+    /**
+     * Returns one page of the search results.
+     *
+     * @param pageToken null for the first page, otherwise the token of the previous page
+     * @param pageSize  the maximum number of recipes on the page
+     */
+    default RecipePage searchPage(String name, String category, String pageToken, int pageSize) {
+        // Sources that cannot page natively run the whole search for every page and slice it;
+        // those with costly searches should override this to keep the results between pages
+        return RecipePage.slice(search(name, category), pageToken, pageSize);
+    }
 }
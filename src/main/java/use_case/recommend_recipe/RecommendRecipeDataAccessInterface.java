@@ -27,4 +27,13 @@ public interface RecommendRecipeDataAccessInterface {
      */
     List<Recipe> getRecipesByCategory(String category);
 
+    /**
+     * Fill in the full details (description, ingredients, tags) of recommended recipes in place.
+     * Recommendations are returned as lightweight stubs, so this is only called for the ones the
+     * user can actually see or has selected. Recipes that already have their details are skipped.
+     *
+     * @param recipes the recommendations to hydrate
+     */
+    void hydrateRecipes(List<Recipe> recipes);
+
 }
\ No newline at end of file
@@ -1,5 +1,9 @@
 package use_case.recommend_recipe;
 
+import entity.Recipe;
+
+import java.util.List;
+
 public interface RecommendRecipeInputBoundary {
 
     /**
@@ -9,4 +13,11 @@ public interface RecommendRecipeInputBoundary {
      */
     void execute(RecommendRecipeInputData inputData);
 
+    /**
+     * Loads the full details of recommendations the user can see or has selected.
+     * This blocks while the details are fetched, so it should not be called on the UI thread.
+     * @param recipes the recommendations to hydrate
+     */
+    void hydrate(List<Recipe> recipes);
+
 }
@@ -59,6 +59,19 @@ public class RecommendRecipeInteractor implements RecommendRecipeInputBoundary {
         presenter.prepareSuccessView(outputData);
     }
 
+    @Override
+    public void hydrate(List<Recipe> recipes) {
+        if (recipes == null || recipes.isEmpty()) {
+            return;
+        }
+        try {
+            dataAccessObject.hydrateRecipes(recipes);
+        } catch (RuntimeException e) {
+            // The stubs are still usable, they just keep their placeholder details
+            System.err.println("Error loading recommendation details: " + e.getMessage());
+        }
+    }
+
     private List<String> getFavouriteCategoriesRanked(List<Recipe> favorites) {
 
         Map<String, Integer> categoryCounts = new HashMap<>();
@@ -6,10 +6,21 @@ public class SaveRecipeInteractor implements SaveRecipeInputBoundary {
 
     private final SaveRecipeDataAccessInterface recipeDao;
     private final SaveRecipeOutputBoundary presenter;
+    private final SaveRecipeWriteQueue writeQueue;
 
     public SaveRecipeInteractor(SaveRecipeDataAccessInterface recipeDao, SaveRecipeOutputBoundary presenter) {
+        this(recipeDao, presenter, null);
+    }
+
+    /**
+     * @param writeQueue if not null, the new state is shown straight away and written in the
+     *                   background, and rolled back only if the write fails for good
+     */
+    public SaveRecipeInteractor(SaveRecipeDataAccessInterface recipeDao, SaveRecipeOutputBoundary presenter,
+                                SaveRecipeWriteQueue writeQueue) {
         this.recipeDao = recipeDao;
         this.presenter = presenter;
+        this.writeQueue = writeQueue;
     }
 
     @Override
@@ -17,6 +28,11 @@ public class SaveRecipeInteractor implements SaveRecipeInputBoundary {
         String username = inputData.getUsername();
         Recipe recipe = inputData.getRecipe();
 
+        if (writeQueue != null) {
+            executeOptimistic(username, recipe);
+            return;
+        }
+
         try {
 
             boolean alreadySaved = recipeDao.isRecipeSaved(username, recipe.getRecipeId());
@@ -24,12 +40,12 @@ public class SaveRecipeInteractor implements SaveRecipeInputBoundary {
             if (alreadySaved) {
                 recipeDao.unsaveRecipe(username, recipe.getRecipeId());
 
-                SaveRecipeOutputData output = new SaveRecipeOutputData(recipe.getTitle(), recipeDao.isRecipeSaved(username, recipe.getRecipeId()));
+                SaveRecipeOutputData output = new SaveRecipeOutputData(recipe.getRecipeId(), recipe.getTitle(), recipeDao.isRecipeSaved(username, recipe.getRecipeId()));
                 presenter.prepareUnsave(output);
             } else {
                 recipeDao.saveRecipe(username, recipe.getRecipeId());
 
-                SaveRecipeOutputData output = new SaveRecipeOutputData(recipe.getTitle(), recipeDao.isRecipeSaved(username, recipe.getRecipeId()));
+                SaveRecipeOutputData output = new SaveRecipeOutputData(recipe.getRecipeId(), recipe.getTitle(), recipeDao.isRecipeSaved(username, recipe.getRecipeId()));
                 presenter.prepareSuccess(output);
             }
 
@@ -39,4 +55,27 @@ public class SaveRecipeInteractor implements SaveRecipeInputBoundary {
 
     }
 
+    private void executeOptimistic(String username, Recipe recipe) {
+        try {
+            // A toggle that is still being written counts as done
+            Boolean pendingState = writeQueue.getPendingState(username, recipe.getRecipeId());
+            boolean saved = pendingState != null ? pendingState : recipeDao.isRecipeSaved(username, recipe.getRecipeId());
+
+            SaveRecipeOutputData output = new SaveRecipeOutputData(recipe.getRecipeId(), recipe.getTitle(), !saved);
+            if (saved) {
+                presenter.prepareUnsave(output);
+            } else {
+                presenter.prepareSuccess(output);
+            }
+
+            writeQueue.submit(username, recipe.getRecipeId(), !saved, (storedSaved, error) ->
+                    presenter.prepareRollback(
+                            new SaveRecipeOutputData(recipe.getRecipeId(), recipe.getTitle(), storedSaved),
+                            "Failed to save recipe: " + error.getMessage()));
+
+        } catch (Exception e) {
+            presenter.prepareFailure("Failed to save recipe: " + e.getMessage());
+        }
+    }
+
 }
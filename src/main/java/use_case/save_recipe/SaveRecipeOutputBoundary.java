@@ -4,4 +4,15 @@ public interface SaveRecipeOutputBoundary {
     void prepareSuccess(SaveRecipeOutputData saveRecipeOutputData);
     void prepareUnsave(SaveRecipeOutputData saveRecipeOutputData);
     void prepareFailure(String errorMessage);
+
+    /**
+     * Undoes a state shown optimistically whose write failed for good. Not called while a newer
+     * request for the recipe is waiting to be written. By then another recipe may be shown, so
+     * only the recipe the output data names is rolled back.
+     *
+     * @param saveRecipeOutputData the state actually stored
+     */
+    default void prepareRollback(SaveRecipeOutputData saveRecipeOutputData, String errorMessage) {
+        prepareFailure(errorMessage);
+    }
 }
@@ -1,14 +1,24 @@
 package use_case.save_recipe;
 
 public class SaveRecipeOutputData {
+    private final String recipeId;
     private final String recipeName;
     private final boolean saved;
 
     public SaveRecipeOutputData(String recipeName, boolean saved) {
+        this(null, recipeName, saved);
+    }
+
+    public SaveRecipeOutputData(String recipeId, String recipeName, boolean saved) {
+        this.recipeId = recipeId;
         this.recipeName = recipeName;
         this.saved = saved;
     }
 
+    public String getRecipeId() {
+        return recipeId;
+    }
+
     public String getRecipeName() {
         return recipeName;
     }
@@ -0,0 +1,212 @@
+package use_case.save_recipe;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes save and unsave requests in the background, for interactors that show the new state
+ * before it is written.
+ *
+ * Only the latest requested state of a recipe is kept: toggling a recipe several times before
+ * its write starts ends in one write of the final state, or none if that is already the stored
+ * state. A failed write is retried; once the attempts run out the request is dropped and its
+ * failure handler is told the state that is actually stored, so the UI can be rolled back. A
+ * request made while the failing one was being written gets attempts of its own instead, and no
+ * rollback is reported while a newer request for the recipe is waiting, as it would undo the state
+ * that request shows.
+ */
+public class SaveRecipeWriteQueue implements AutoCloseable {
+
+    /**
+     * Called on the write thread when a request finally fails, while the queue is locked: it must
+     * not block or submit.
+     */
+    public interface FailureHandler {
+        /**
+         * @param storedSaved whether the recipe is saved as far as the data access object knows
+         * @param error the error of the last attempt
+         */
+        void onFailure(boolean storedSaved, RuntimeException error);
+    }
+
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+    private static final long DEFAULT_RETRY_DELAY_MILLIS = 500;
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private final SaveRecipeDataAccessInterface recipeDao;
+    private final Executor executor;
+    private final int maxAttempts;
+    private final long retryDelayMillis;
+
+    // Guarded by this
+    private final Map<String, PendingWrite> pending = new HashMap<>();
+
+    public SaveRecipeWriteQueue(SaveRecipeDataAccessInterface recipeDao) {
+        this(recipeDao, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "save-recipe-writes");
+            thread.setDaemon(true);
+            return thread;
+        }), DEFAULT_MAX_ATTEMPTS, DEFAULT_RETRY_DELAY_MILLIS);
+    }
+
+    /**
+     * @param executor runs the writes; with a single thread, writes happen in request order
+     * @param retryDelayMillis the wait before the second attempt, growing with each further one
+     */
+    public SaveRecipeWriteQueue(SaveRecipeDataAccessInterface recipeDao, Executor executor,
+                                int maxAttempts, long retryDelayMillis) {
+        this.recipeDao = recipeDao;
+        this.executor = executor;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMillis = retryDelayMillis;
+    }
+
+    /**
+     * @return the state waiting to be written for the recipe, or null if none is
+     */
+    public synchronized Boolean getPendingState(String username, String recipeId) {
+        PendingWrite write = pending.get(key(username, recipeId));
+        return write != null ? write.saved : null;
+    }
+
+    /**
+     * Requests that the recipe end up saved or unsaved. Replaces any request for the same recipe
+     * that has not been written yet.
+     */
+    public void submit(String username, String recipeId, boolean saved, FailureHandler onFailure) {
+        String key = key(username, recipeId);
+        boolean schedule;
+        synchronized (this) {
+            PendingWrite write = pending.get(key);
+            schedule = write == null;
+            if (schedule) {
+                write = new PendingWrite(username, recipeId);
+                pending.put(key, write);
+            }
+            write.saved = saved;
+            write.onFailure = onFailure;
+            write.version++;
+        }
+        if (schedule) {
+            executor.execute(() -> process(key));
+        }
+    }
+
+    private void process(String key) {
+        PendingWrite write;
+        synchronized (this) {
+            write = pending.get(key);
+        }
+
+        RuntimeException lastError = null;
+        int attempt = 0;
+        int attemptedVersion;
+        while (true) {
+            boolean target;
+            synchronized (this) {
+                target = write.saved;
+                attemptedVersion = write.version;
+            }
+            try {
+                if (recipeDao.isRecipeSaved(write.username, write.recipeId) != target) {
+                    if (target) {
+                        recipeDao.saveRecipe(write.username, write.recipeId);
+                    } else {
+                        recipeDao.unsaveRecipe(write.username, write.recipeId);
+                    }
+                }
+                synchronized (this) {
+                    if (write.saved == target) {
+                        pending.remove(key);
+                        return;
+                    }
+                }
+                // Toggled again while writing; write the new state with fresh attempts
+                attempt = 0;
+                lastError = null;
+            } catch (RuntimeException e) {
+                lastError = e;
+                attempt++;
+                if (attempt < maxAttempts && pause(retryDelayMillis * attempt)) {
+                    continue;
+                }
+                synchronized (this) {
+                    if (write.version == attemptedVersion || Thread.currentThread().isInterrupted()) {
+                        pending.remove(key);
+                        break;
+                    }
+                }
+                // Requested again since this attempt started; that request gets its own attempts
+                attempt = 0;
+            }
+        }
+
+        boolean storedSaved;
+        try {
+            storedSaved = recipeDao.isRecipeSaved(write.username, write.recipeId);
+        } catch (RuntimeException e) {
+            // Assume the write did not happen
+            storedSaved = !write.saved;
+        }
+        synchronized (this) {
+            // A request made after this one was dropped shows a newer state; leave it shown
+            if (write.onFailure != null && !pending.containsKey(key)) {
+                write.onFailure.onFailure(storedSaved, lastError != null ? lastError : new RuntimeException("Interrupted"));
+            }
+        }
+    }
+
+    private static boolean pause(long millis) {
+        if (millis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Waits for the queued writes to finish, if the queue owns its write thread.
+     */
+    @Override
+    public void close() {
+        if (executor instanceof ExecutorService) {
+            ExecutorService service = (ExecutorService) executor;
+            service.shutdown();
+            try {
+                if (!service.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    service.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                service.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String key(String username, String recipeId) {
+        return username + '\u0000' + recipeId;
+    }
+
+    private static class PendingWrite {
+        final String username;
+        final String recipeId;
+        boolean saved;
+        FailureHandler onFailure;
+        // Counts the requests merged into this one
+        int version;
+
+        PendingWrite(String username, String recipeId) {
+            this.username = username;
+            this.recipeId = recipeId;
+        }
+    }
+}
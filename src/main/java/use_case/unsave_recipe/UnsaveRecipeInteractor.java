@@ -1,17 +1,39 @@
 package use_case.unsave_recipe;
 
+import use_case.save_recipe.SaveRecipeWriteQueue;
+
 public class UnsaveRecipeInteractor implements UnsaveRecipeInputBoundary {
 
     private final UnsaveRecipeDataAccessInterface recipeDao;
     private final UnsaveRecipeOutputBoundary presenter;
+    private final SaveRecipeWriteQueue writeQueue;
 
     public UnsaveRecipeInteractor(UnsaveRecipeDataAccessInterface recipeDao, UnsaveRecipeOutputBoundary presenter) {
+        this(recipeDao, presenter, null);
+    }
+
+    /**
+     * @param writeQueue if not null, the recipe is shown as unsaved straight away and unsaved in
+     *                   the background, and shown as saved again only if that fails for good
+     */
+    public UnsaveRecipeInteractor(UnsaveRecipeDataAccessInterface recipeDao, UnsaveRecipeOutputBoundary presenter,
+                                  SaveRecipeWriteQueue writeQueue) {
         this.recipeDao = recipeDao;
         this.presenter = presenter;
+        this.writeQueue = writeQueue;
     }
 
     @Override
     public void execute(String username, String recipeId) {
+        if (writeQueue != null) {
+            presenter.prepareSuccessView("Recipe unsaved successfully.");
+            writeQueue.submit(username, recipeId, false, (storedSaved, error) -> {
+                if (storedSaved) {
+                    presenter.prepareRollback(recipeId, "Failed to unsave recipe: " + error.getMessage());
+                }
+            });
+            return;
+        }
         try {
             recipeDao.unsave(username, recipeId);
             presenter.prepareSuccessView("Recipe unsaved successfully.");
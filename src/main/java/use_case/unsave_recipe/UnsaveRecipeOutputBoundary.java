@@ -3,4 +3,12 @@ package use_case.unsave_recipe;
 public interface UnsaveRecipeOutputBoundary {
     void prepareSuccessView(String message);
     void prepareFailView(String error);
+
+    /**
+     * Shows a recipe whose optimistic unsave failed for good as saved again. By then another
+     * recipe may be shown, so only the given recipe is rolled back.
+     */
+    default void prepareRollback(String recipeId, String error) {
+        prepareFailView(error);
+    }
 }
@@ -6,5 +6,9 @@ public interface ViewRecipeDataAccessInterface {
 
     Recipe findById(String recipeId);
 
+    /**
+     * Counts one view of the recipe. Called while the recipe is being opened, so implementations
+     * must not wait on the network; buffer the view and write it later instead.
+     */
     void recordView(String recipeId);
 }
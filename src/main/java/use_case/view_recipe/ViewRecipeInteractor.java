@@ -2,15 +2,21 @@ package use_case.view_recipe;
 
 import data_access.FirebaseSaveRecipeDataAccessObject;
 import entity.Recipe;
+import entity.RecipeSummary;
 import use_case.edit_review.EditReviewDataAccessInterface;
 import use_case.save_recipe.SaveRecipeDataAccessInterface;
 
+import javax.swing.*;
+import java.util.concurrent.ExecutionException;
+
 public class ViewRecipeInteractor implements ViewRecipeInputBoundary {
 
     private final ViewRecipeDataAccessInterface repo;
     private final ViewRecipeOutputBoundary presenter;
     private final SaveRecipeDataAccessInterface saveRecipeDAO;
     private final EditReviewDataAccessInterface editReviewDAO;
+    private SwingWorker<LoadResult, Void> activeWorker;
+    private boolean isTestMode = false;
 
     public ViewRecipeInteractor(ViewRecipeDataAccessInterface repo,
                                 ViewRecipeOutputBoundary presenter,
@@ -21,23 +27,65 @@ public class ViewRecipeInteractor implements ViewRecipeInputBoundary {
         this.editReviewDAO = editReviewDAO;
     }
 
+    public void setTestMode(boolean testMode) {
+        this.isTestMode = testMode;
+    }
+
     @Override
     public void execute(ViewRecipeInputData input) {
+        if (isTestMode) {
+            // Synchronous execution for testing
+            present(load(input));
+            return;
+        }
+
+        // Loading the recipe and its reviews goes to the network, so it runs off the Event
+        // Dispatch Thread; the recipe is presented once it has loaded
+        if (activeWorker != null && !activeWorker.isDone()) {
+            activeWorker.cancel(true);
+        }
+        activeWorker = new SwingWorker<LoadResult, Void>() {
+            @Override
+            protected LoadResult doInBackground() {
+                return load(input);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    present(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = (e instanceof ExecutionException) ? e.getCause() : e;
+                    presenter.prepareFailView("Error loading recipe: " + cause.getMessage());
+                }
+            }
+        };
+        activeWorker.execute();
+    }
+
+    private LoadResult load(ViewRecipeInputData input) {
         String username = input.getUsername();
         Recipe recipe;
 
-        if (input.getRecipe() != null) {
+        if (input.getRecipe() instanceof RecipeSummary) {
+            // List views only hold summaries; opening a recipe needs all of it
+            recipe = repo.findById(input.getRecipe().getRecipeId());
+            if (recipe == null) {
+                return LoadResult.failure("Recipe not found with ID: " + input.getRecipe().getRecipeId());
+            }
+        } else if (input.getRecipe() != null) {
             recipe = input.getRecipe();
         } else if (input.getRecipeId() != null && !input.getRecipeId().isEmpty()) {
             recipe = repo.findById(input.getRecipeId());
         } else {
-            presenter.prepareFailView("Recipe not found: No recipe object or ID provided.");
-            return;
+            return LoadResult.failure("Recipe not found: No recipe object or ID provided.");
         }
 
         if (recipe == null) {
-            presenter.prepareFailView("Recipe not found with ID: " + input.getRecipeId());
-            return;
+            return LoadResult.failure("Recipe not found with ID: " + input.getRecipeId());
         }
 
         recipe.setReviews(editReviewDAO.findByRecipe(recipe.getRecipeId()));
@@ -46,23 +94,48 @@ public class ViewRecipeInteractor implements ViewRecipeInputBoundary {
         // Increment the local view count immediately for UI display
         recipe.incrementViews();
 
-        // Run the database write operation on a separate thread to avoid blocking the UI
-        new Thread(() -> {
-            try {
-                repo.recordView(recipe.getRecipeId());
-            } catch (Exception e) {
-                // In a real application, you'd want to log this error.
-                // For now, we catch it to prevent the background thread from crashing.
-            }
-        }).start();
+        // The data access buffers the view and writes it in the background
+        try {
+            repo.recordView(recipe.getRecipeId());
+        } catch (RuntimeException e) {
+            // A lost view must not stop the recipe from opening
+            System.err.println("Error recording view: " + e.getMessage());
+        }
 
         boolean saved = false;
         if (username != null && !username.isEmpty()) {
             saved = saveRecipeDAO.isRecipeSaved(username, recipe.getRecipeId());
         }
 
-        // Prepare the success view immediately, without waiting for the database
-        ViewRecipeOutputData outputData = new ViewRecipeOutputData(recipe, username, saved);
-        presenter.prepareSuccessView(outputData);
+        return LoadResult.success(new ViewRecipeOutputData(recipe, username, saved));
+    }
+
+    private void present(LoadResult result) {
+        if (result.outputData != null) {
+            presenter.prepareSuccessView(result.outputData);
+        } else {
+            presenter.prepareFailView(result.errorMessage);
+        }
+    }
+
+    /**
+     * The recipe to show, or why it could not be loaded.
+     */
+    private static final class LoadResult {
+        final ViewRecipeOutputData outputData;
+        final String errorMessage;
+
+        private LoadResult(ViewRecipeOutputData outputData, String errorMessage) {
+            this.outputData = outputData;
+            this.errorMessage = errorMessage;
+        }
+
+        static LoadResult success(ViewRecipeOutputData outputData) {
+            return new LoadResult(outputData, null);
+        }
+
+        static LoadResult failure(String errorMessage) {
+            return new LoadResult(null, errorMessage);
+        }
     }
 }
@@ -62,6 +62,7 @@ public class RecipeSearchView extends JPanel implements ActionListener, Property
     private JPanel resultsPanel;
     private JProgressBar progressBar;
     private JLabel loadingLabel;
+    private JButton loadMoreButton;
 
     public RecipeSearchView(RecipeSearchViewModel recipeSearchViewModel,
                             RecipeSearchController recipeSearchController,
@@ -117,6 +118,12 @@ public class RecipeSearchView extends JPanel implements ActionListener, Property
             for (Recipe recipe : recipes) {
                 resultsPanel.add(createRecipeItem(recipe));
             }
+            if (recipeSearchViewModel.getState().hasMoreResults()) {
+                loadMoreButton = new JButton("Load more");
+                loadMoreButton.setAlignmentX(Component.LEFT_ALIGNMENT);
+                loadMoreButton.addActionListener(this);
+                resultsPanel.add(loadMoreButton);
+            }
         }
         resultsPanel.revalidate();
         resultsPanel.repaint();
@@ -287,11 +294,7 @@ public class RecipeSearchView extends JPanel implements ActionListener, Property
         imageLabel.setPreferredSize(new Dimension(80, 80));
         imageLabel.setBorder(BorderFactory.createLineBorder(Color.BLACK));
         imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
-        if (recipe.getImage() != null) {
-            imageLabel.setIcon(new ImageIcon(recipe.getImage().getScaledInstance(80, 80, Image.SCALE_SMOOTH)));
-        } else {
-            imageLabel.setText("[IMG]");
-        }
+        RecipeThumbnails.show(imageLabel, recipe, "[IMG]");
 
         String hotPrefix = PopularityCalculator.isPopular(recipe)
                 ? "<font color='red'><b>[Hot]</b></font> "
@@ -395,6 +398,11 @@ public class RecipeSearchView extends JPanel implements ActionListener, Property
             }
             recipeSearchController.execute(name, category);
 
+        } else if (evt.getSource() == loadMoreButton) {
+            loadMoreButton.setEnabled(false);
+            loadMoreButton.setText("Loading...");
+            recipeSearchController.executeNextPage();
+
         } else if (evt.getSource() == sortByComboBox || evt.getSource() == ascendingCheckBox) {
             List<Recipe> currentRecipes = new ArrayList<>(recipeSearchViewModel.getState().getRecipeList());
             sortRecipes(currentRecipes);
@@ -0,0 +1,71 @@
+package view;
+
+import entity.Recipe;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Shows recipe thumbnails in list items without downloading on the Event Dispatch Thread.
+ * If the image is not in memory yet, the placeholder text is shown and the icon is swapped in
+ * once the download finishes in the background: the one the DAO started for deferred images,
+ * or otherwise one started here.
+ */
+class RecipeThumbnails {
+    private static final int SIZE = 80;
+
+    private RecipeThumbnails() {}
+
+    static void show(JLabel imageLabel, Recipe recipe, String placeholder) {
+        if (recipe.isImageLoaded()) {
+            imageLabel.setIcon(scaled(recipe.getImage()));
+            return;
+        }
+
+        imageLabel.setText(placeholder);
+        if (recipe.getImagePath() == null || recipe.getImagePath().isEmpty()) {
+            return;
+        }
+
+        CompletableFuture<BufferedImage> download = recipe.getImageDownload();
+        if (download != null) {
+            // Already being downloaded in the background; show it when that download finishes
+            download.thenAccept(image -> {
+                if (image != null) {
+                    SwingUtilities.invokeLater(() -> {
+                        imageLabel.setText(null);
+                        imageLabel.setIcon(scaled(image));
+                    });
+                }
+            });
+            return;
+        }
+
+        new SwingWorker<BufferedImage, Void>() {
+            @Override
+            protected BufferedImage doInBackground() {
+                return recipe.getImage();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    BufferedImage image = get();
+                    if (image != null) {
+                        imageLabel.setText(null);
+                        imageLabel.setIcon(scaled(image));
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    // Keep the placeholder if the download fails
+                }
+            }
+        }.execute();
+    }
+
+    private static ImageIcon scaled(BufferedImage image) {
+        return new ImageIcon(image.getScaledInstance(SIZE, SIZE, Image.SCALE_SMOOTH));
+    }
+}
@@ -342,16 +342,23 @@ public class RecipeView extends JPanel implements ActionListener, PropertyChange
 
         if (evt.getSource() == saveRecipeViewModel && "state".equals(evt.getPropertyName())) {
             SaveRecipeState saveState = (SaveRecipeState) evt.getNewValue();
-            viewRecipeViewModel.getState().setIsSaved(saveState.isSaved());
-
-            if (saveState.isSaved()) {
-                saveButton.setText("Unsave Recipe");
-                savedStarLabel.setVisible(true);
-            } else {
-                saveButton.setText("Save Recipe");
-                savedStarLabel.setVisible(false);
+            Recipe shown = viewRecipeViewModel.getState().getRecipe();
+            // A rollback can arrive after another recipe has been opened; it only shows its message
+            boolean forShownRecipe = saveState.getRecipeId() == null
+                    || (shown != null && saveState.getRecipeId().equals(shown.getRecipeId()));
+
+            if (forShownRecipe) {
+                viewRecipeViewModel.getState().setIsSaved(saveState.isSaved());
+
+                if (saveState.isSaved()) {
+                    saveButton.setText("Unsave Recipe");
+                    savedStarLabel.setVisible(true);
+                } else {
+                    saveButton.setText("Save Recipe");
+                    savedStarLabel.setVisible(false);
+                }
+                saveButton.setEnabled(true);
             }
-            saveButton.setEnabled(true);
 
             if (saveState.getMessage() != null) {
                 JOptionPane.showMessageDialog(this, saveState.getMessage());
@@ -2,6 +2,7 @@ package view;
 
 import entity.Recipe;
 import interface_adapter.ViewManagerModel;
+import interface_adapter.recommend_recipe.RecommendRecipeController;
 import interface_adapter.recommend_recipe.RecommendRecipeState;
 import interface_adapter.recommend_recipe.RecommendRecipeViewModel;
 import interface_adapter.view_recipe.ViewRecipeController;
@@ -15,27 +16,42 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /*
 NN.
  */
 public class RecommendRecipeView extends JPanel implements ActionListener, PropertyChangeListener {
     public final String viewName = "recommend recipe";
+    // Hydrated when the view has not been laid out yet, so nothing counts as visible
+    private static final int INITIAL_HYDRATION_BATCH = 6;
 
     private final RecommendRecipeViewModel recommendRecipeViewModel;
     private final ViewManagerModel viewManagerModel;
     private final ViewRecipeController viewRecipeController;
+    private final RecommendRecipeController recommendRecipeController;
 
     private final JPanel recipesPanel;
+    private final JScrollPane scrollPane;
     private final JButton backButton;
 
+    // Recipe rows currently shown, and the IDs whose details were already requested
+    private final Map<JPanel, Recipe> recipeItems = new LinkedHashMap<>();
+    private final Set<String> hydrationRequested = new HashSet<>();
+
     public RecommendRecipeView(RecommendRecipeViewModel recommendRecipeViewModel,
                                ViewManagerModel viewManagerModel,
-                               ViewRecipeController viewRecipeController) {
+                               ViewRecipeController viewRecipeController,
+                               RecommendRecipeController recommendRecipeController) {
         this.recommendRecipeViewModel = recommendRecipeViewModel;
         this.viewManagerModel = viewManagerModel;
         this.viewRecipeController = viewRecipeController;
+        this.recommendRecipeController = recommendRecipeController;
 
         this.recommendRecipeViewModel.addPropertyChangeListener(this);
 
@@ -61,8 +77,14 @@ public class RecommendRecipeView extends JPanel implements ActionListener, Prope
         recipesPanel.setLayout(new BoxLayout(recipesPanel, BoxLayout.Y_AXIS));
         recipesPanel.setBackground(Color.WHITE);
 
-        JScrollPane scrollPane = new JScrollPane(recipesPanel);
+        scrollPane = new JScrollPane(recipesPanel);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
+        // Load details for the rows that scroll into view
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                hydrateVisibleRecipes();
+            }
+        });
         add(scrollPane, BorderLayout.CENTER);
     }
 
@@ -88,6 +110,8 @@ public class RecommendRecipeView extends JPanel implements ActionListener, Prope
 
     private void updateRecipeList(List<Recipe> recipes) {
         recipesPanel.removeAll();
+        recipeItems.clear();
+        hydrationRequested.clear();
 
         if (recipes.isEmpty()) {
             JLabel noDataLabel = new JLabel("No recommendations found.");
@@ -96,13 +120,56 @@ public class RecommendRecipeView extends JPanel implements ActionListener, Prope
             recipesPanel.add(noDataLabel);
         } else {
             for (Recipe recipe : recipes) {
-                recipesPanel.add(createRecipeItem(recipe));
+                JPanel item = createRecipeItem(recipe);
+                recipeItems.put(item, recipe);
+                recipesPanel.add(item);
                 recipesPanel.add(Box.createVerticalStrut(10));
             }
         }
 
         recipesPanel.revalidate();
         recipesPanel.repaint();
+        // Runs after the pending layout, so the row bounds are known
+        SwingUtilities.invokeLater(this::hydrateVisibleRecipes);
+    }
+
+    /**
+     * Requests the details of the recommendations that are on screen and were not requested yet.
+     */
+    private void hydrateVisibleRecipes() {
+        Rectangle visible = scrollPane.getViewport().getViewRect();
+        List<Recipe> batch = new ArrayList<>();
+        for (Map.Entry<JPanel, Recipe> item : recipeItems.entrySet()) {
+            boolean onScreen = visible.isEmpty()
+                    ? batch.size() < INITIAL_HYDRATION_BATCH
+                    : item.getKey().getBounds().intersects(visible);
+            if (onScreen && hydrationRequested.add(item.getValue().getRecipeId())) {
+                batch.add(item.getValue());
+            }
+        }
+        if (!batch.isEmpty()) {
+            hydrate(batch, null);
+        }
+    }
+
+    /**
+     * Loads the details of the given recipes off the EDT, then runs the follow-up (if any) on the EDT.
+     */
+    private void hydrate(List<Recipe> recipes, Runnable then) {
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                recommendRecipeController.hydrate(recipes);
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                if (then != null) {
+                    then.run();
+                }
+            }
+        }.execute();
     }
 
     /**
@@ -125,7 +192,9 @@ public class RecommendRecipeView extends JPanel implements ActionListener, Prope
             @Override
             public void mouseClicked(MouseEvent e) {
                 if (e.getClickCount() == 1) {
-                    viewRecipeController.execute(recipe, recipe.getRecipeId());
+                    // Already hydrated recipes open straight away
+                    String username = recommendRecipeViewModel.getState().getUsername();
+                    hydrate(List.of(recipe), () -> viewRecipeController.execute(recipe, username));
                 }
             }
             @Override
@@ -144,11 +213,7 @@ public class RecommendRecipeView extends JPanel implements ActionListener, Prope
         imageLabel.setPreferredSize(new Dimension(80, 80));
         imageLabel.setBorder(BorderFactory.createLineBorder(Color.BLACK));
         imageLabel.setHorizontalAlignment(SwingConstants.CENTER);
-        if (recipe.getImage() != null) {
-            imageLabel.setIcon(new ImageIcon(recipe.getImage().getScaledInstance(80, 80, Image.SCALE_SMOOTH)));
-        } else {
-            imageLabel.setText("No IMG");
-        }
+        RecipeThumbnails.show(imageLabel, recipe, "No IMG");
 
         String htmlText = String.format("<html><b style='font-size:14px;'>%s</b><br/><span style='color:gray;'>%s</span></html>",
                 recipe.getTitle(), recipe.getCategory());
@@ -0,0 +1,82 @@
+package data_access;
+
+import entity.Recipe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import use_case.recipe_search.RecipePage;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompositeRecipeSearchDAOTest {
+
+    @TempDir
+    Path cacheDir;
+
+    private CountingRecipeDAO apiDAO;
+    private CompositeRecipeSearchDAO searchDAO;
+
+    @BeforeEach
+    void setUp() {
+        apiDAO = new CountingRecipeDAO(new MealDbResponseCache(cacheDir, 1024 * 1024));
+        for (int i = 1; i <= 5; i++) {
+            apiDAO.results.add(recipe(String.valueOf(i)));
+        }
+        searchDAO = new CompositeRecipeSearchDAO(apiDAO, null);
+    }
+
+    @Test
+    @DisplayName("Search paging: Later pages are cut from the results of the first")
+    void testLaterPagesReuseResults() {
+        // Act
+        RecipePage first = searchDAO.searchPage("beef", "", null, 2);
+        RecipePage second = searchDAO.searchPage("beef", "", first.getNextPageToken(), 2);
+        RecipePage third = searchDAO.searchPage("beef", "", second.getNextPageToken(), 2);
+
+        // Assert
+        assertEquals(1, apiDAO.searches);
+        assertEquals("3", second.getRecipes().get(0).getRecipeId());
+        assertEquals(1, third.getRecipes().size());
+        assertFalse(third.hasNextPage());
+    }
+
+    @Test
+    @DisplayName("Search paging: A new search runs the query again")
+    void testNewSearchRunsAgain() {
+        // Arrange
+        RecipePage first = searchDAO.searchPage("beef", "", null, 2);
+
+        // Act
+        searchDAO.searchPage("chicken", "", null, 2);
+        searchDAO.searchPage("beef", "", first.getNextPageToken(), 2);
+
+        // Assert
+        assertEquals(3, apiDAO.searches);
+    }
+
+    private static Recipe recipe(String id) {
+        return new Recipe(id, "N/A", "Recipe " + id, "", new ArrayList<>(), "Beef", new ArrayList<>(),
+                Recipe.Status.PUBLISHED, new Date(), new Date(), null);
+    }
+
+    private static class CountingRecipeDAO extends RecipeDataAccessObject {
+        final List<Recipe> results = new ArrayList<>();
+        int searches = 0;
+
+        CountingRecipeDAO(MealDbResponseCache cache) {
+            super(1, true, cache, "http://localhost:1/");
+        }
+
+        @Override
+        public List<Recipe> search(String name, String category) {
+            searches++;
+            return results;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package data_access;
+
+import entity.Recipe;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FirebaseRecipeDataAccessObjectTest {
+
+    @Test
+    @DisplayName("Bulk save: Each batch has one category registry write")
+    void testChunkSharedCategory() {
+        // Arrange
+        List<Recipe> recipes = createRecipes(600, i -> "Chicken");
+
+        // Act
+        List<List<Recipe>> chunks = FirebaseRecipeDataAccessObject.chunkForBatches(recipes, 500);
+
+        // Assert
+        assertEquals(2, chunks.size());
+        assertEquals(499, chunks.get(0).size());
+        assertEquals(101, chunks.get(1).size());
+    }
+
+    @Test
+    @DisplayName("Bulk save: Distinct categories still share the registry write")
+    void testChunkDistinctCategories() {
+        // Arrange
+        List<Recipe> recipes = createRecipes(12, i -> "Category " + i);
+
+        // Act
+        List<List<Recipe>> chunks = FirebaseRecipeDataAccessObject.chunkForBatches(recipes, 10);
+
+        // Assert
+        assertEquals(List.of(9, 3), sizes(chunks));
+    }
+
+    @Test
+    @DisplayName("Bulk save: Recipes without a category only write themselves")
+    void testChunkNoCategory() {
+        // Arrange
+        List<Recipe> recipes = createRecipes(1001, i -> i % 2 == 0 ? null : "");
+
+        // Act
+        List<List<Recipe>> chunks = FirebaseRecipeDataAccessObject.chunkForBatches(recipes, 500);
+
+        // Assert
+        assertEquals(List.of(500, 500, 1), sizes(chunks));
+        assertTrue(FirebaseRecipeDataAccessObject.chunkForBatches(new ArrayList<>(), 500).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Categories: A registry created by publishing still lists the old categories")
+    void testCategoriesBeforeBackfill() {
+        // Arrange
+        List<String> registryNames = List.of("Vegan", "Chicken");
+        List<String> legacyNames = List.of("Beef", "Chicken", "Dessert");
+
+        // Act
+        List<String> categories = FirebaseRecipeDataAccessObject.categoryNames(registryNames, legacyNames);
+
+        // Assert
+        assertEquals(List.of("Beef", "Chicken", "Dessert", "Vegan"), categories);
+    }
+
+    @Test
+    @DisplayName("Categories: A backfilled registry is read on its own")
+    void testCategoriesAfterBackfill() {
+        // Arrange
+        List<String> registryNames = List.of("Vegan", "Beef");
+
+        // Act
+        List<String> categories = FirebaseRecipeDataAccessObject.categoryNames(registryNames, null);
+
+        // Assert
+        assertEquals(List.of("Beef", "Vegan"), categories);
+        assertEquals(List.of("Beef"), FirebaseRecipeDataAccessObject.categoryNames(null, List.of("Beef")));
+    }
+
+    private static List<Recipe> createRecipes(int count, IntFunction<String> categoryOf) {
+        List<Recipe> recipes = new ArrayList<>();
+        Date now = new Date();
+        for (int i = 0; i < count; i++) {
+            recipes.add(new Recipe("id" + i, "user", "Dish " + i, "", new ArrayList<>(), categoryOf.apply(i),
+                    new ArrayList<>(), Recipe.Status.PUBLISHED, now, now, ""));
+        }
+        return recipes;
+    }
+
+    private static List<Integer> sizes(List<List<Recipe>> chunks) {
+        List<Integer> sizes = new ArrayList<>();
+        for (List<Recipe> chunk : chunks) {
+            sizes.add(chunk.size());
+        }
+        return sizes;
+    }
+}
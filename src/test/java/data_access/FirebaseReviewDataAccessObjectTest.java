@@ -0,0 +1,89 @@
+package data_access;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FirebaseReviewDataAccessObjectTest {
+
+    @Test
+    @DisplayName("Review stats: Editing a review of a recipe with no document only changes the rating total")
+    void testRatingChangeWithoutRecipeDocument() {
+        // Arrange: the reviews document holds the stored rating; there is no embedded list to read
+        Map<String, Object> storedReview = new HashMap<>();
+        storedReview.put("recipe_id", "52772");
+        storedReview.put("rating", 2L);
+
+        // Act
+        long[] firstEdit = FirebaseReviewDataAccessObject.ratingChange(storedReview.get("rating"), 5);
+        long[] secondEdit = FirebaseReviewDataAccessObject.ratingChange(5L, 4);
+
+        // Assert
+        assertArrayEquals(new long[] {3, 0}, firstEdit);
+        assertArrayEquals(new long[] {-1, 0}, secondEdit);
+    }
+
+    @Test
+    @DisplayName("Review stats: A review with no stored rating adds a rating")
+    void testRatingChangeNewRating() {
+        // Act
+        long[] change = FirebaseReviewDataAccessObject.ratingChange(null, 4);
+
+        // Assert
+        assertArrayEquals(new long[] {4, 1}, change);
+    }
+
+    @Test
+    @DisplayName("Review migration: Missing indexed fields are taken from the camelCase ones")
+    void testIndexFieldFixes() {
+        // Arrange
+        Map<String, Object> data = new HashMap<>();
+        data.put("review_id", "r1");
+        data.put("recipeId", "52772");
+        data.put("authorId", "alice");
+        data.put("rating", 4L);
+
+        // Act
+        Map<String, Object> fixes = FirebaseReviewDataAccessObject.indexFieldFixes(data);
+
+        // Assert
+        assertEquals(Map.of("recipe_id", "52772", "author_id", "alice"), fixes);
+    }
+
+    @Test
+    @DisplayName("Review migration: An up-to-date review needs no changes")
+    void testIndexFieldFixesNone() {
+        // Arrange
+        Map<String, Object> data = new HashMap<>();
+        data.put("review_id", "r1");
+        data.put("recipe_id", "52772");
+        data.put("author_id", "alice");
+
+        // Act & Assert
+        assertTrue(FirebaseReviewDataAccessObject.indexFieldFixes(data).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Review migration: An embedded review is copied with the indexed field names")
+    void testEmbeddedToDocument() {
+        // Arrange
+        Map<String, Object> embedded = new HashMap<>();
+        embedded.put("reviewId", "r2");
+        embedded.put("authorId", "bob");
+        embedded.put("title", "Tasty");
+        embedded.put("rating", 5L);
+
+        // Act
+        Map<String, Object> document = FirebaseReviewDataAccessObject.embeddedToDocument(embedded, "52795");
+
+        // Assert
+        assertEquals("r2", document.get("review_id"));
+        assertEquals("52795", document.get("recipe_id"));
+        assertEquals("bob", document.get("author_id"));
+        assertEquals(5L, document.get("rating"));
+    }
+}
@@ -0,0 +1,39 @@
+package data_access;
+
+import com.google.cloud.firestore.FirestoreException;
+import io.grpc.Status;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FirebaseSaveRecipeDataAccessObjectTest {
+
+    @Test
+    @DisplayName("Save retry: A failed precondition is retried")
+    void testPreconditionFailureIsRetried() {
+        // Arrange
+        ExecutionException error = new ExecutionException(
+                FirestoreException.forServerRejection(Status.FAILED_PRECONDITION, "User document changed"));
+
+        // Act & Assert
+        assertTrue(FirebaseSaveRecipeDataAccessObject.isPreconditionFailure(error));
+    }
+
+    @Test
+    @DisplayName("Save retry: Permission and network errors are not retried")
+    void testOtherFailuresAreNotRetried() {
+        // Arrange
+        ExecutionException denied = new ExecutionException(
+                FirestoreException.forServerRejection(Status.PERMISSION_DENIED, "Missing permission"));
+        ExecutionException unavailable = new ExecutionException(
+                FirestoreException.forServerRejection(Status.UNAVAILABLE, "Network down"));
+
+        // Act & Assert
+        assertFalse(FirebaseSaveRecipeDataAccessObject.isPreconditionFailure(denied));
+        assertFalse(FirebaseSaveRecipeDataAccessObject.isPreconditionFailure(unavailable));
+        assertFalse(FirebaseSaveRecipeDataAccessObject.isPreconditionFailure(new ExecutionException(new RuntimeException())));
+    }
+}
@@ -0,0 +1,172 @@
+package data_access;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MealDbCatalogTest {
+
+    private static final String BASE = "https://www.themealdb.com/api/json/v1/1/";
+
+    @TempDir
+    Path dir;
+
+    private Map<String, String> responses;
+    private List<String> requested;
+
+    @BeforeEach
+    void setUp() {
+        responses = new HashMap<>();
+        requested = new ArrayList<>();
+        responses.put(BASE + "categories.php", "{\"categories\":[{\"strCategory\":\"Beef\"}]}");
+        responses.put(BASE + "list.php?a=list", meals(new JSONObject().put("strArea", "British")));
+        responses.put(BASE + "search.php?f=b", meals(meal("1", "Beef Wellington", "Beef")));
+        responses.put(BASE + "filter.php?c=Beef", meals(stub("1"), stub("2")));
+        responses.put(BASE + "filter.php?a=British", meals(stub("1")));
+        responses.put(BASE + "lookup.php?i=2", meals(meal("2", "Beef Stew", "Beef")));
+    }
+
+    private String fetch(String url) throws IOException {
+        requested.add(url);
+        return responses.getOrDefault(url, "{\"meals\":null}");
+    }
+
+    @Test
+    @DisplayName("Catalog: Full sync hydrates meals missed by the letter index")
+    void testFullSync() throws IOException {
+        // Arrange
+        MealDbCatalog catalog = new MealDbCatalog(dir.resolve("catalog.json.gz"), this::fetch);
+
+        // Act
+        catalog.fullSync();
+
+        // Assert
+        assertEquals(2, catalog.size());
+        assertEquals("Beef Stew", catalog.findById("2").getString("strMeal"));
+        assertFalse(requested.contains(BASE + "lookup.php?i=1"));
+        assertEquals(1, catalog.search("stew", "beef").size());
+        assertEquals(2, catalog.search("", "Beef").size());
+        assertTrue(catalog.search("wellington", "Dessert").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Catalog: A sync that throws unexpectedly does not stop later syncs")
+    void testScheduleSurvivesRuntimeException() throws InterruptedException {
+        // Arrange
+        int[] calls = {0};
+        MealDbCatalog catalog = new MealDbCatalog(dir.resolve("catalog.json.gz"), url -> {
+            if (calls[0]++ == 0) {
+                throw new IllegalStateException("Unexpected payload");
+            }
+            return fetch(url);
+        });
+
+        // Act
+        catalog.start(Duration.ofMillis(20));
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!catalog.isReady() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            catalog.stop();
+        }
+
+        // Assert
+        assertTrue(catalog.isReady(), "The run after the failed one should have synced the catalog");
+        assertEquals(2, catalog.size());
+    }
+
+    @Test
+    @DisplayName("Catalog: Delta refresh adds new meals and drops removed ones")
+    void testRefresh() throws IOException {
+        // Arrange
+        MealDbCatalog catalog = new MealDbCatalog(dir.resolve("catalog.json.gz"), this::fetch);
+        catalog.fullSync();
+        responses.put(BASE + "filter.php?c=Beef", meals(stub("1"), stub("3")));
+        responses.put(BASE + "lookup.php?i=3", meals(meal("3", "Beef Pie", "Beef")));
+        requested.clear();
+
+        // Act
+        catalog.refresh();
+
+        // Assert
+        assertNotNull(catalog.findById("3"));
+        assertNull(catalog.findById("2"));
+        assertTrue(requested.contains(BASE + "lookup.php?i=3"));
+        assertFalse(requested.contains(BASE + "lookup.php?i=1"));
+    }
+
+    @Test
+    @DisplayName("Catalog: A due full sync picks up edits to meals the mirror already holds")
+    void testScheduledFullSyncRehydrates() throws IOException {
+        // Arrange
+        MealDbCatalog catalog = new MealDbCatalog(dir.resolve("catalog.json.gz"), this::fetch);
+        catalog.fullSync();
+        responses.put(BASE + "search.php?f=b", meals(meal("1", "Beef Wellington Deluxe", "Beef")));
+
+        // Act
+        catalog.sync(Long.MAX_VALUE);
+        String afterRefresh = catalog.findById("1").getString("strMeal");
+        catalog.sync(0);
+
+        // Assert
+        assertEquals("Beef Wellington", afterRefresh);
+        assertEquals("Beef Wellington Deluxe", catalog.findById("1").getString("strMeal"));
+    }
+
+    @Test
+    @DisplayName("Catalog: Mirror is reloaded from disk without network calls")
+    void testLoadFromDisk() throws IOException {
+        // Arrange
+        new MealDbCatalog(dir.resolve("catalog.json.gz"), this::fetch).fullSync();
+        MealDbCatalog reopened = new MealDbCatalog(dir.resolve("catalog.json.gz"), url -> {
+            throw new IOException("offline");
+        });
+
+        // Act
+        reopened.start(java.time.Duration.ofHours(1));
+        reopened.stop();
+
+        // Assert
+        assertTrue(reopened.isReady());
+        assertEquals("Beef Wellington", reopened.findById("1").getString("strMeal"));
+        assertEquals("Onion", reopened.findById("1").getString("strIngredient1"));
+        assertFalse(reopened.findById("1").has("strIngredient2"));
+    }
+
+    private static JSONObject meal(String id, String name, String category) {
+        JSONObject meal = stub(id);
+        meal.put("strMeal", name);
+        meal.put("strCategory", category);
+        meal.put("strInstructions", "Cook it.");
+        meal.put("strMealThumb", "https://www.themealdb.com/images/media/meals/" + id + ".jpg");
+        meal.put("strIngredient1", "Onion");
+        meal.put("strMeasure1", "1");
+        meal.put("strIngredient2", "");
+        meal.put("strMeasure2", " ");
+        meal.put("strYoutube", "https://www.youtube.com/watch?v=" + id);
+        return meal;
+    }
+
+    private static JSONObject stub(String id) {
+        return new JSONObject().put("idMeal", id);
+    }
+
+    private static String meals(JSONObject... meals) {
+        return new JSONObject().put("meals", new JSONArray(meals)).toString();
+    }
+}
@@ -0,0 +1,80 @@
+package data_access;
+
+import entity.Recipe;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the streaming MealDbJsonDecoder with the org.json path (JSONObject tree + parseRecipe)
+ * on the MealDB fixtures under src/test/resources/mealdb. Reports throughput and bytes allocated
+ * per decoded response. This is not a unit test; run it on the test classpath after mvn test-compile:
+ *
+ * mvn dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) data_access.MealDbJsonDecoderBenchmark
+ */
+public class MealDbJsonDecoderBenchmark {
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 10_000;
+
+    private interface Decode {
+        List<Recipe> run(String body) throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        RecipeDataAccessObject dao = new RecipeDataAccessObject(1, true,
+                new MealDbResponseCache(Files.createTempDirectory("mealdb-bench"), 1024));
+        MealDbJsonDecoder decoder = new MealDbJsonDecoder();
+
+        Decode orgJson = body -> {
+            JSONObject json = new JSONObject(new JSONTokener(new StringReader(body)));
+            List<Recipe> recipes = new ArrayList<>();
+            if (!json.isNull("meals")) {
+                JSONArray meals = json.getJSONArray("meals");
+                for (int i = 0; i < meals.length(); i++) {
+                    recipes.add(dao.parseRecipe(meals.getJSONObject(i)));
+                }
+            }
+            return recipes;
+        };
+        Decode streaming = body -> decoder.decodeMeals(new StringReader(body));
+
+        for (String fixture : new String[]{"search_s_chicken.json", "lookup_i_52772.json"}) {
+            String body = MealDbJsonDecoderTest.fixture(fixture);
+            System.out.printf("%s (%d bytes)%n", fixture, body.length());
+            measure("  org.json ", orgJson, body);
+            measure("  streaming", streaming, body);
+        }
+    }
+
+    private static void measure(String label, Decode decode, String body) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int sink = 0;
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += decode.run(body).size();
+        }
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += decode.run(body).size();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%s: %,10.0f responses/s  %,8d bytes allocated/response  (%d)%n",
+                label,
+                MEASURED_ITERATIONS / (elapsed / 1e9),
+                allocated / MEASURED_ITERATIONS,
+                sink % 10);
+    }
+}
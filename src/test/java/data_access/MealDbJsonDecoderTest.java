@@ -0,0 +1,98 @@
+package data_access;
+
+import entity.Recipe;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MealDbJsonDecoderTest {
+
+    @TempDir
+    Path cacheDir;
+
+    static String fixture(String name) throws IOException {
+        try (InputStream in = MealDbJsonDecoderTest.class.getResourceAsStream("/mealdb/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    @DisplayName("Decoder: Builds the same recipes as the org.json path")
+    void testMatchesOrgJsonPath() throws IOException {
+        // Arrange
+        String body = fixture("search_s_chicken.json");
+        RecipeDataAccessObject dao = new RecipeDataAccessObject(1, true, new MealDbResponseCache(cacheDir, 1024));
+        JSONArray meals = new JSONObject(body).getJSONArray("meals");
+
+        // Act
+        List<Recipe> decoded = new MealDbJsonDecoder().decodeMeals(new StringReader(body));
+
+        // Assert
+        assertEquals(meals.length(), decoded.size());
+        for (int i = 0; i < meals.length(); i++) {
+            Recipe expected = dao.parseRecipe(meals.getJSONObject(i));
+            Recipe actual = decoded.get(i);
+            assertEquals(expected.getRecipeId(), actual.getRecipeId());
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getCategory(), actual.getCategory());
+            assertEquals(expected.getImagePath(), actual.getImagePath());
+            assertEquals(expected.getTags(), actual.getTags());
+            assertEquals(expected.getIngredients().size(), actual.getIngredients().size());
+            for (int j = 0; j < expected.getIngredients().size(); j++) {
+                assertEquals(expected.getIngredients().get(j).getName(), actual.getIngredients().get(j).getName());
+                assertEquals(expected.getIngredients().get(j).getMeasure(), actual.getIngredients().get(j).getMeasure());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Decoder: Null meals gives an empty list")
+    void testNullMeals() throws IOException {
+        assertTrue(new MealDbJsonDecoder().decodeMeals(new StringReader(fixture("search_s_xyzzy.json"))).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Decoder: Unescapes strings and skips unknown nested values")
+    void testEscapesAndUnknownValues() throws IOException {
+        // Arrange
+        String body = "{\"extra\":{\"a\":[1,2,{\"b\":\"}\"}]},\"meals\":[{\"idMeal\":\"1\",\"strMeal\":\"Caf\\u00e9 \\\"Pie\\\"\","
+                + "\"strCategory\":\"Beef\",\"strInstructions\":\"Line 1\\r\\nLine 2\",\"strMealThumb\":\"https:\\/\\/x\\/1.jpg\","
+                + "\"strTags\":\" Pie, ,Meat \",\"strIngredient1\":\" Beef \",\"strMeasure1\":null,\"strIngredient2\":\"\","
+                + "\"strMeasure2\":\"1\",\"rating\":4.5,\"fresh\":true}]}";
+
+        // Act
+        List<Recipe> decoded = new MealDbJsonDecoder().decodeMeals(new StringReader(body));
+
+        // Assert
+        assertEquals(1, decoded.size());
+        Recipe recipe = decoded.get(0);
+        assertEquals("Café \"Pie\"", recipe.getTitle());
+        assertEquals("Line 1\r\nLine 2", recipe.getDescription());
+        assertEquals("https://x/1.jpg", recipe.getImagePath());
+        assertEquals(List.of("Pie", "Meat"), recipe.getTags());
+        assertEquals(1, recipe.getIngredients().size());
+        assertEquals("Beef", recipe.getIngredients().get(0).getName());
+        assertEquals("", recipe.getIngredients().get(0).getMeasure());
+    }
+
+    @Test
+    @DisplayName("Decoder: Missing required field or malformed body throws JSONException")
+    void testErrors() {
+        MealDbJsonDecoder decoder = new MealDbJsonDecoder();
+        assertThrows(JSONException.class, () -> decoder.decodeMeals(new StringReader("{\"meals\":[{\"idMeal\":\"1\"}]}")));
+        assertThrows(JSONException.class, () -> decoder.decodeMeals(new StringReader("{\"meals\":[{\"idMeal\":\"1\"")));
+    }
+}
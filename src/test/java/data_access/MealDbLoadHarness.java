@@ -0,0 +1,111 @@
+package data_access;
+
+import entity.Recipe;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * An offline load harness for the whole MealDB data path against MealDbStandInServer.
+ *
+ * Each session starts with an empty response cache, like a fresh app start, and goes through
+ * what a user does first: load the categories, search by name, search within a category (which
+ * hydrates every match through lookup.php) and open recommendations (which hydrates the visible
+ * ones). Sessions run concurrently through the shared client, so its traffic control applies.
+ * This is not a unit test; run it on the test classpath after mvn test-compile:
+ *
+ * java -cp target/test-classes:target/classes:<deps> data_access.MealDbLoadHarness [sessions] [concurrency]
+ *
+ * The stand-in is tuned with mealdb.standin.latencyMillis (median), mealdb.standin.latencySigma,
+ * mealdb.standin.errorRate and mealdb.standin.paddingBytes; the client with the usual mealdb.* properties.
+ */
+public class MealDbLoadHarness {
+
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        try (MealDbStandInServer standIn = MealDbStandInServer.start()) {
+            standIn.setLatency(MealDbStandInServer.LatencyDistribution.logNormal(
+                    Long.getLong("mealdb.standin.latencyMillis", 80L),
+                    Double.parseDouble(System.getProperty("mealdb.standin.latencySigma", "0.5"))));
+            standIn.setErrors(Double.parseDouble(System.getProperty("mealdb.standin.errorRate", "0.01")), 503);
+            standIn.setPaddingBytes(Integer.getInteger("mealdb.standin.paddingBytes", 0));
+
+            ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+            List<Long> latencies = new ArrayList<>();
+            AtomicInteger failedSessions = new AtomicInteger();
+            long start = System.nanoTime();
+            try {
+                List<Future<Long>> results = new ArrayList<>();
+                for (int i = 0; i < sessions; i++) {
+                    results.add(executor.submit(() -> runSession(standIn.getBaseUrl(), failedSessions)));
+                }
+                for (Future<Long> result : results) {
+                    latencies.add(result.get());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            latencies.sort(Comparator.naturalOrder());
+            System.out.printf("%d sessions, %d concurrent, %d ms total, %d failed%n",
+                    sessions, concurrency, elapsedMillis, failedSessions.get());
+            System.out.printf("session latency p50=%d ms p95=%d ms p99=%d ms max=%d ms%n",
+                    percentile(latencies, 50), percentile(latencies, 95), percentile(latencies, 99),
+                    Collections.max(latencies));
+            System.out.printf("%d stand-in requests (%d lookups), %.1f requests/s%n",
+                    standIn.getRequestCount(), standIn.getRequestCount("lookup.php"),
+                    standIn.getRequestCount() * 1000.0 / Math.max(1, elapsedMillis));
+        }
+    }
+
+    private static long runSession(String baseUrl, AtomicInteger failedSessions) throws IOException {
+        Path cacheDir = Files.createTempDirectory("mealdb-load");
+        MealDbResponseCache cache = new MealDbResponseCache(cacheDir, 10L * 1024 * 1024);
+        RecipeDataAccessObject recipeDAO = new RecipeDataAccessObject(4, true, cache, baseUrl);
+        RecommendRecipeDataAccessObject recommendDAO = new RecommendRecipeDataAccessObject(cache, recipeDAO, baseUrl);
+
+        try {
+            long start = System.nanoTime();
+            try {
+                recipeDAO.getAllCategories();
+                recipeDAO.search("chicken", null);
+                recipeDAO.search("chicken", "Chicken");
+                List<Recipe> recommendations = recommendDAO.getRecipesByCategory("Chicken");
+                recommendDAO.hydrateRecipes(recommendations.subList(0, Math.min(6, recommendations.size())));
+            } catch (RuntimeException e) {
+                failedSessions.incrementAndGet();
+            }
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        } finally {
+            // Every session starts from an empty cache, so none of them is kept
+            deleteRecursively(cacheDir);
+        }
+    }
+
+    private static void deleteRecursively(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            System.err.println("Failed to delete " + dir + ": " + e.getMessage());
+        }
+    }
+
+    private static long percentile(List<Long> sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+}
@@ -0,0 +1,82 @@
+package data_access;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MealDbResponseCacheTest {
+
+    private static final String LOOKUP_URL = "https://www.themealdb.com/api/json/v1/1/lookup.php?i=52772";
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    @DisplayName("Cache: Repeat request is served without calling the loader")
+    void testRepeatRequestHitsCache() throws IOException {
+        // Arrange
+        MealDbResponseCache cache = new MealDbResponseCache(cacheDir, 1024 * 1024);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        String first = cache.get(LOOKUP_URL, url -> "body-" + loads.incrementAndGet());
+        String second = cache.get(LOOKUP_URL, url -> "body-" + loads.incrementAndGet());
+
+        // Assert
+        assertEquals("body-1", first);
+        assertEquals("body-1", second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Cache: Entries survive a restart")
+    void testEntriesSurviveRestart() throws IOException {
+        // Arrange
+        new MealDbResponseCache(cacheDir, 1024 * 1024).get(LOOKUP_URL, url -> "{\"meals\":null}");
+
+        // Act
+        MealDbResponseCache reopened = new MealDbResponseCache(cacheDir, 1024 * 1024);
+        String body = reopened.get(LOOKUP_URL, url -> {
+            throw new IOException("should not hit the network");
+        });
+
+        // Assert
+        assertEquals("{\"meals\":null}", body);
+    }
+
+    @Test
+    @DisplayName("Cache: Least recently used entry is evicted when over the size bound")
+    void testLeastRecentlyUsedIsEvicted() throws IOException {
+        // Arrange
+        MealDbResponseCache cache = new MealDbResponseCache(cacheDir, 25);
+        cache.get("https://www.themealdb.com/api/json/v1/1/lookup.php?i=1", url -> "0123456789");
+        cache.get("https://www.themealdb.com/api/json/v1/1/lookup.php?i=2", url -> "0123456789");
+        // Touch the first entry so the second one becomes the eldest
+        cache.get("https://www.themealdb.com/api/json/v1/1/lookup.php?i=1", url -> "reloaded");
+
+        // Act
+        cache.get("https://www.themealdb.com/api/json/v1/1/lookup.php?i=3", url -> "0123456789");
+
+        // Assert
+        assertEquals("0123456789", cache.get("https://www.themealdb.com/api/json/v1/1/lookup.php?i=1", url -> "reloaded"));
+        assertEquals("0123456789", cache.get("https://www.themealdb.com/api/json/v1/1/lookup.php?i=3", url -> "reloaded"));
+        assertEquals("reloaded", cache.get("https://www.themealdb.com/api/json/v1/1/lookup.php?i=2", url -> "reloaded"));
+    }
+
+    @Test
+    @DisplayName("Cache: Equivalent URLs normalize to the same key")
+    void testNormalize() {
+        assertEquals(
+                MealDbResponseCache.normalize("https://www.themealdb.com/api/json/v1/1/filter.php?c=Beef&a=British"),
+                MealDbResponseCache.normalize("HTTPS://WWW.THEMEALDB.COM/api/json/v1/1/filter.php?a=British&c=Beef"));
+        assertEquals(
+                MealDbResponseCache.normalize("https://www.themealdb.com/api/json/v1/1/search.php?s=chicken curry"),
+                MealDbResponseCache.normalize("https://www.themealdb.com/api/json/v1/1/search.php?s=chicken%20curry"));
+    }
+}
@@ -0,0 +1,364 @@
+package data_access;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URISyntaxException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A local stand-in for TheMealDB, for repeatable offline tests and load tests of the MealDB data path.
+ *
+ * It serves recorded fixtures named after the request, e.g. search.php?s=Chicken is served from
+ * search_s_chicken.json and categories.php from categories.json. Requests without a fixture are
+ * answered from the meals found in the search and lookup fixtures, the same way the real API
+ * would: lookup.php by ID, search.php by name or first letter, filter.php by category or area, and
+ * list.php for the areas and categories. Anything else gets {"meals":null}.
+ *
+ * Latency, errors and payload size can be injected to see how the data path behaves when the API
+ * is slow, failing or sending large responses. Point the app at it with
+ * -Dmealdb.baseUrl=<getBaseUrl()>, or run main to start it on its own:
+ *
+ * java -cp target/test-classes:target/classes:<deps> data_access.MealDbStandInServer [port] [fixtureDir]
+ */
+public class MealDbStandInServer implements AutoCloseable {
+    private static final String API_PATH = "/api/json/v1/1/";
+    private static final String NO_MEALS = "{\"meals\":null}";
+
+    /**
+     * A distribution of added response latency, in milliseconds.
+     */
+    public interface LatencyDistribution {
+        long nextMillis(Random random);
+
+        static LatencyDistribution none() {
+            return random -> 0;
+        }
+
+        static LatencyDistribution fixed(long millis) {
+            return random -> millis;
+        }
+
+        static LatencyDistribution uniform(long minMillis, long maxMillis) {
+            return random -> minMillis + (long) (random.nextDouble() * (maxMillis - minMillis));
+        }
+
+        /**
+         * A long-tailed distribution like real API latency: most responses near the median, a few much slower.
+         *
+         * @param sigma the spread; 0.5 gives a p99 of roughly 3x the median
+         */
+        static LatencyDistribution logNormal(long medianMillis, double sigma) {
+            return random -> Math.round(medianMillis * Math.exp(sigma * random.nextGaussian()));
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, String> fixtures = new HashMap<>();
+    private final Map<String, JSONObject> mealsById = new LinkedHashMap<>();
+    private final Random random;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final Map<String, AtomicInteger> requestsByEndpoint = new ConcurrentHashMap<>();
+
+    private volatile LatencyDistribution latency = LatencyDistribution.none();
+    private volatile double errorRate = 0;
+    private volatile int errorStatus = 503;
+    private volatile int paddingBytes = 0;
+
+    /**
+     * Starts a stand-in on a free local port serving the fixtures in src/test/resources/mealdb.
+     */
+    public static MealDbStandInServer start() throws IOException {
+        return start(0, defaultFixtureDirectory());
+    }
+
+    /**
+     * @param port             the port to listen on, or 0 for any free port
+     * @param fixtureDirectory the directory of recorded responses
+     */
+    public static MealDbStandInServer start(int port, Path fixtureDirectory) throws IOException {
+        MealDbStandInServer standIn = new MealDbStandInServer(port, fixtureDirectory, 42);
+        standIn.server.start();
+        return standIn;
+    }
+
+    private MealDbStandInServer(int port, Path fixtureDirectory, long seed) throws IOException {
+        this.random = new Random(seed);
+        loadFixtures(fixtureDirectory);
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "mealdb-stand-in");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(API_PATH, this::handle);
+    }
+
+    static Path defaultFixtureDirectory() {
+        try {
+            return Paths.get(MealDbStandInServer.class.getResource("/mealdb").toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the base URL to use in place of TheMealDB's, ending in a slash
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + API_PATH;
+    }
+
+    // =================================================================================
+    // Fault injection
+    // =================================================================================
+
+    public void setLatency(LatencyDistribution latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * @param errorRate   the fraction of requests, from 0 to 1, answered with the error status
+     * @param errorStatus the status to answer with, e.g. 503 or 429
+     */
+    public void setErrors(double errorRate, int errorStatus) {
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+    }
+
+    /**
+     * Pads every successful response with an extra top-level field of the given size, which
+     * clients must read past, to test how the data path handles larger payloads.
+     */
+    public void setPaddingBytes(int paddingBytes) {
+        this.paddingBytes = paddingBytes;
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @param endpoint e.g. "lookup.php"
+     */
+    public int getRequestCount(String endpoint) {
+        AtomicInteger count = requestsByEndpoint.get(endpoint);
+        return count == null ? 0 : count.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // =================================================================================
+    // Requests
+    // =================================================================================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requestCount.incrementAndGet();
+            String endpoint = exchange.getRequestURI().getPath().substring(API_PATH.length());
+            requestsByEndpoint.computeIfAbsent(endpoint, key -> new AtomicInteger()).incrementAndGet();
+
+            long delay;
+            boolean fail;
+            synchronized (random) {
+                delay = latency.nextMillis(random);
+                fail = random.nextDouble() < errorRate;
+            }
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+
+            if (fail) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, errorStatus, "{\"error\":\"injected\"}");
+                return;
+            }
+
+            String body = respond(endpoint, parseQuery(exchange.getRequestURI().getRawQuery()));
+            if (body == null) {
+                send(exchange, 404, "");
+            } else {
+                send(exchange, 200, pad(body));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String respond(String endpoint, Map<String, String> query) {
+        String fixture = fixtures.get(fixtureName(endpoint, query));
+        if (fixture != null) {
+            return fixture;
+        }
+
+        switch (endpoint) {
+            case "lookup.php":
+                JSONObject meal = mealsById.get(query.getOrDefault("i", ""));
+                return meal == null ? NO_MEALS : meals(List.of(meal));
+            case "search.php":
+                if (query.containsKey("f")) {
+                    String letter = query.get("f").toLowerCase();
+                    return meals(matching(found -> found.optString("strMeal").toLowerCase().startsWith(letter)));
+                }
+                String name = query.getOrDefault("s", "").toLowerCase();
+                return meals(matching(found -> found.optString("strMeal").toLowerCase().contains(name)));
+            case "filter.php":
+                return query.containsKey("a")
+                        ? filter("strArea", query.get("a"))
+                        : filter("strCategory", query.getOrDefault("c", ""));
+            case "list.php":
+                return list(query.containsKey("a") ? "strArea" : "strCategory");
+            case "categories.php":
+                return "{\"categories\":[]}";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Answers like filter.php, which only returns the name, image and ID of each meal.
+     */
+    private String filter(String field, String value) {
+        List<JSONObject> stubs = new ArrayList<>();
+        for (JSONObject meal : matching(found -> found.optString(field).equalsIgnoreCase(value))) {
+            stubs.add(new JSONObject()
+                    .put("strMeal", meal.optString("strMeal"))
+                    .put("strMealThumb", meal.optString("strMealThumb"))
+                    .put("idMeal", meal.optString("idMeal")));
+        }
+        return meals(stubs);
+    }
+
+    private String list(String field) {
+        Set<String> values = new TreeSet<>();
+        for (JSONObject meal : mealsById.values()) {
+            values.add(meal.optString(field));
+        }
+        List<JSONObject> listed = new ArrayList<>();
+        for (String value : values) {
+            listed.add(new JSONObject().put(field, value));
+        }
+        return meals(listed);
+    }
+
+    private List<JSONObject> matching(Predicate<JSONObject> filter) {
+        List<JSONObject> matches = new ArrayList<>();
+        for (JSONObject meal : mealsById.values()) {
+            if (filter.test(meal)) {
+                matches.add(meal);
+            }
+        }
+        return matches;
+    }
+
+    private static String meals(List<JSONObject> meals) {
+        return meals.isEmpty() ? NO_MEALS : new JSONObject().put("meals", new JSONArray(meals)).toString();
+    }
+
+    private String pad(String body) {
+        int padding = paddingBytes;
+        if (padding <= 0 || !body.startsWith("{")) {
+            return body;
+        }
+        return "{\"padding\":\"" + "x".repeat(padding) + "\"," + body.substring(1);
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    // =================================================================================
+    // Fixtures
+    // =================================================================================
+
+    /**
+     * The fixture file name for a request: the endpoint, then each query parameter and its
+     * lower-cased value, e.g. filter.php?c=Chicken is filter_c_chicken.json.
+     */
+    static String fixtureName(String endpoint, Map<String, String> query) {
+        StringBuilder name = new StringBuilder(endpoint.replace(".php", ""));
+        for (Map.Entry<String, String> parameter : new TreeMap<>(query).entrySet()) {
+            name.append('_').append(parameter.getKey())
+                    .append('_').append(parameter.getValue().trim().toLowerCase().replaceAll("[^a-z0-9]+", "_"));
+        }
+        return name.append(".json").toString();
+    }
+
+    private void loadFixtures(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(".json")) {
+                    continue;
+                }
+                String body = Files.readString(file);
+                fixtures.put(name, body);
+
+                // Full meals from searches and lookups also answer requests that have no fixture
+                if (name.startsWith("search_") || name.startsWith("lookup_")) {
+                    JSONObject json = new JSONObject(body);
+                    JSONArray meals = json.optJSONArray("meals");
+                    for (int i = 0; meals != null && i < meals.length(); i++) {
+                        JSONObject meal = meals.getJSONObject(i);
+                        mealsById.putIfAbsent(meal.getString("idMeal"), meal);
+                    }
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        Path fixtureDirectory = args.length > 1 ? Paths.get(args[1]) : defaultFixtureDirectory();
+        MealDbStandInServer standIn = start(port, fixtureDirectory);
+        standIn.setLatency(LatencyDistribution.logNormal(80, 0.5));
+        System.out.println("MealDB stand-in serving " + standIn.mealsById.size() + " meals at " + standIn.getBaseUrl());
+        System.out.println("Start the app with -Dmealdb.baseUrl=" + standIn.getBaseUrl());
+    }
+}
@@ -0,0 +1,114 @@
+package data_access;
+
+import entity.Recipe;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MealDbStandInServerTest {
+
+    @TempDir
+    Path cacheDir;
+
+    private MealDbStandInServer standIn;
+    private MealDbResponseCache cache;
+    private RecipeDataAccessObject recipeDAO;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        standIn = MealDbStandInServer.start();
+        cache = new MealDbResponseCache(cacheDir, 1024 * 1024);
+        recipeDAO = new RecipeDataAccessObject(4, true, cache, standIn.getBaseUrl());
+    }
+
+    @AfterEach
+    void tearDown() {
+        standIn.close();
+    }
+
+    @Test
+    @DisplayName("Stand-in: Search DAO reads categories, searches and lookups from it")
+    void testSearchPath() {
+        // Act
+        List<String> categories = recipeDAO.getAllCategories();
+        List<Recipe> byName = recipeDAO.search("Chicken", null);
+        List<Recipe> byCategory = recipeDAO.search("curry", "Chicken");
+        Recipe recipe = recipeDAO.findById("52775");
+
+        // Assert
+        assertEquals(14, categories.size());
+        assertEquals(25, byName.size());
+        assertEquals(2, byCategory.size());
+        assertEquals("Chicken Handi", recipe.getTitle());
+        assertEquals(3, standIn.getRequestCount("lookup.php"));
+    }
+
+    @Test
+    @DisplayName("Stand-in: Recommendations are listed and hydrated from it")
+    void testRecommendPath() {
+        // Arrange
+        RecommendRecipeDataAccessObject recommendDAO =
+                new RecommendRecipeDataAccessObject(cache, recipeDAO, standIn.getBaseUrl());
+
+        // Act
+        List<Recipe> stubs = recommendDAO.getRecipesByCategory("Chicken");
+        recommendDAO.hydrateRecipes(stubs.subList(0, 5));
+
+        // Assert
+        assertEquals(25, stubs.size());
+        assertFalse(RecommendRecipeDataAccessObject.isStub(stubs.get(4)));
+        assertTrue(RecommendRecipeDataAccessObject.isStub(stubs.get(5)));
+        assertEquals(5, standIn.getRequestCount("lookup.php"));
+    }
+
+    @Test
+    @DisplayName("Stand-in: Padded payloads still decode")
+    void testPadding() {
+        // Arrange
+        standIn.setPaddingBytes(64 * 1024);
+
+        // Act & Assert
+        assertEquals(25, recipeDAO.search("chicken", null).size());
+    }
+
+    @Test
+    @DisplayName("Stand-in: Injected errors and latency are applied")
+    void testFaultInjection() throws IOException {
+        // Arrange
+        OkHttpClient client = MealDbHttpClient.create(2, 30, 1000, 5000);
+        standIn.setErrors(1.0, 429);
+        standIn.setLatency(MealDbStandInServer.LatencyDistribution.fixed(50));
+        Request request = new Request.Builder().url(standIn.getBaseUrl() + "lookup.php?i=52772").build();
+
+        // Act
+        long start = System.nanoTime();
+        int code;
+        try (Response response = client.newCall(request).execute()) {
+            code = response.code();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertEquals(429, code);
+        assertTrue(elapsedMillis >= 50);
+    }
+
+    @Test
+    @DisplayName("Stand-in: Fixture names are derived from the request")
+    void testFixtureName() {
+        assertEquals("filter_c_chicken.json", MealDbStandInServer.fixtureName("filter.php", Map.of("c", "Chicken")));
+        assertEquals("categories.json", MealDbStandInServer.fixtureName("categories.php", Map.of()));
+    }
+}
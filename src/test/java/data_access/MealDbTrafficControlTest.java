@@ -0,0 +1,138 @@
+package data_access;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MealDbTrafficControlTest {
+
+    private static final String LOOKUP_URL = "https://www.themealdb.com/api/json/v1/1/lookup.php?i=52772";
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicLong now = new AtomicLong();
+
+    /**
+     * Builds a client whose "network" answers with the given status codes in turn, then 200.
+     */
+    private OkHttpClient client(MealDbTrafficControl trafficControl, Integer... codes) {
+        Deque<Integer> scripted = new ArrayDeque<>(List.of(codes));
+        return new OkHttpClient.Builder()
+                .addInterceptor(trafficControl)
+                .addInterceptor(chain -> {
+                    calls.incrementAndGet();
+                    Integer code = scripted.isEmpty() ? 200 : scripted.poll();
+                    if (code < 0) {
+                        throw new IOException("Connection reset");
+                    }
+                    return new Response.Builder()
+                            .request(chain.request())
+                            .protocol(Protocol.HTTP_1_1)
+                            .code(code)
+                            .message("")
+                            .body(ResponseBody.create("{\"meals\":null}", null))
+                            .build();
+                })
+                .build();
+    }
+
+    private MealDbTrafficControl trafficControl(int maxAttempts, int failureThreshold) {
+        return new MealDbTrafficControl(
+                new MealDbTrafficControl.TokenBucket(1000, 100, System::nanoTime),
+                new MealDbTrafficControl.ConcurrencyLimit(4, 8, 2000, 1000),
+                new MealDbTrafficControl.CircuitBreaker(failureThreshold, 30000, now::get),
+                maxAttempts, 1, 5);
+    }
+
+    private int get(OkHttpClient client) throws IOException {
+        try (Response response = client.newCall(new Request.Builder().url(LOOKUP_URL).build()).execute()) {
+            return response.code();
+        }
+    }
+
+    @Test
+    @DisplayName("Traffic control: Throttled and failed attempts are retried")
+    void testRetries() throws IOException {
+        // Arrange
+        OkHttpClient client = client(trafficControl(3, 5), 429, -1);
+
+        // Act
+        int code = get(client);
+
+        // Assert
+        assertEquals(200, code);
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    @DisplayName("Traffic control: Client errors are returned without retrying")
+    void testClientErrorNotRetried() throws IOException {
+        assertEquals(404, get(client(trafficControl(3, 5), 404)));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Traffic control: Open breaker fails fast, then lets one probe through")
+    void testCircuitBreaker() throws IOException {
+        // Arrange
+        OkHttpClient client = client(trafficControl(1, 2), 503, 503);
+        get(client);
+        get(client);
+
+        // Act
+        assertThrows(MealDbUnavailableException.class, () -> get(client));
+        int callsWhileOpen = calls.get();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        int probe = get(client);
+
+        // Assert
+        assertEquals(2, callsWhileOpen);
+        assertEquals(200, probe);
+        assertEquals(200, get(client));
+    }
+
+    @Test
+    @DisplayName("Traffic control: Concurrency limit halves on overload and grows back on success")
+    void testAdaptiveConcurrency() throws IOException {
+        // Arrange
+        MealDbTrafficControl.ConcurrencyLimit limit = new MealDbTrafficControl.ConcurrencyLimit(8, 16, 2000, 1000);
+
+        // Act & Assert
+        assertTrue(limit.acquire());
+        limit.release(TimeUnit.MILLISECONDS.toNanos(10), true);
+        assertEquals(4, limit.getLimit());
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limit.acquire());
+            limit.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+        }
+        assertEquals(5, limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("Traffic control: Token bucket allows the burst, then paces requests")
+    void testTokenBucket() {
+        // Arrange
+        MealDbTrafficControl.TokenBucket bucket = new MealDbTrafficControl.TokenBucket(10, 2, now::get);
+
+        // Act & Assert
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.reserve(), TimeUnit.MICROSECONDS.toNanos(1));
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(0, bucket.reserve());
+    }
+}
@@ -0,0 +1,202 @@
+package data_access;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.google.cloud.Timestamp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeReplicaTest {
+
+    private int listens;
+    private int stops;
+    private List<Long> retryDelays;
+    private List<Runnable> retries;
+
+    @BeforeEach
+    void setUp() {
+        listens = 0;
+        stops = 0;
+        retryDelays = new ArrayList<>();
+        retries = new ArrayList<>();
+    }
+
+    @Test
+    @DisplayName("Recipe replica: Size estimate grows with the text a document holds")
+    void testEstimateGrowsWithText() {
+        // Arrange
+        Map<String, Object> shortRecipe = recipe("Soup", "Boil it.");
+        Map<String, Object> longRecipe = recipe("Soup", "Boil it. ".repeat(100));
+
+        // Act
+        long shortBytes = RecipeReplica.estimateBytes(shortRecipe);
+        long longBytes = RecipeReplica.estimateBytes(longRecipe);
+
+        // Assert
+        assertEquals(2L * ("Boil it. ".repeat(100).length() - "Boil it.".length()), longBytes - shortBytes);
+    }
+
+    @Test
+    @DisplayName("Recipe replica: Size estimate counts nested ingredients and tags")
+    void testEstimateNested() {
+        // Arrange
+        Map<String, Object> plain = recipe("Soup", "");
+        Map<String, Object> withIngredients = recipe("Soup", "");
+        withIngredients.put("ingredients", List.of(Map.of("name", "Salt", "quantity", "1 tsp")));
+
+        // Act & Assert
+        assertTrue(RecipeReplica.estimateBytes(withIngredients) > RecipeReplica.estimateBytes(plain));
+        assertTrue(RecipeReplica.estimateBytes(null) > 0);
+    }
+
+    @Test
+    @DisplayName("Recipe replica: The first snapshot replaces the whole copy")
+    void testFullSnapshotRebuild() {
+        // Arrange
+        SnapshotReplica<Map<String, Object>> replica = createReplica(Long.MAX_VALUE);
+        replica.start();
+        replica.onSnapshot(List.of(doc("a", "Soup"), doc("b", "Stew")), List.of(), Timestamp.now());
+        // The listener reconnects; "a" was deleted while it was down
+        replica.onListenerError(new RuntimeException("Connection reset"));
+        retries.get(0).run();
+
+        // Act
+        replica.onSnapshot(List.of(doc("b", "Stew"), doc("c", "Pie")), List.of(change(doc("c", "Pie"), false)),
+                Timestamp.now());
+
+        // Assert
+        assertTrue(replica.isLive());
+        assertEquals(2, replica.size());
+        assertNull(replica.get("a"), "A document deleted while disconnected must be dropped");
+        assertEquals("Pie", replica.get("c").get("title"));
+        assertEquals(2, listens);
+    }
+
+    @Test
+    @DisplayName("Recipe replica: Later snapshots add, modify and remove documents")
+    void testIncrementalChanges() {
+        // Arrange
+        SnapshotReplica<Map<String, Object>> replica = createReplica(Long.MAX_VALUE);
+        replica.start();
+        replica.onSnapshot(List.of(doc("a", "Soup"), doc("b", "Stew")), List.of(), Timestamp.now());
+        long before = replica.getEstimatedBytes();
+
+        // Act
+        replica.onSnapshot(List.of(), List.of(
+                change(doc("a", "Tomato Soup"), false),
+                change(doc("b", "Stew"), true),
+                change(doc("c", "Pie"), false)), Timestamp.now());
+
+        // Assert
+        assertEquals(2, replica.size());
+        assertEquals("Tomato Soup", replica.get("a").get("title"));
+        assertNull(replica.get("b"));
+        assertNotNull(replica.get("c"));
+        assertEquals(before + 2L * ("Tomato Soup".length() - "Soup".length())
+                + RecipeReplica.estimateBytes(doc("c", "Pie")) - RecipeReplica.estimateBytes(doc("b", "Stew")),
+                replica.getEstimatedBytes());
+    }
+
+    @Test
+    @DisplayName("Recipe replica: Passing the byte cap stops the listener and falls back to Firestore")
+    void testOverCapacity() {
+        // Arrange
+        Map<String, Object> soup = doc("a", "Soup");
+        SnapshotReplica<Map<String, Object>> replica = createReplica(RecipeReplica.estimateBytes(soup) + 10);
+        replica.start();
+        replica.onSnapshot(List.of(soup), List.of(), Timestamp.now());
+
+        // Act
+        replica.onSnapshot(List.of(), List.of(change(doc("b", "Stew"), false)), Timestamp.now());
+        replica.start();
+        replica.onListenerError(new RuntimeException("Connection reset"));
+
+        // Assert
+        assertFalse(replica.isLive());
+        assertEquals(SnapshotReplica.State.OVER_CAPACITY, replica.getState());
+        assertEquals(0, replica.size());
+        assertEquals(0, replica.getEstimatedBytes());
+        assertEquals(1, stops);
+        assertEquals(1, listens, "An over-capacity replica must not listen again");
+        assertTrue(retries.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Recipe replica: Reconnects back off until a snapshot arrives")
+    void testReconnectBackoff() {
+        // Arrange
+        SnapshotReplica<Map<String, Object>> replica = createReplica(Long.MAX_VALUE);
+        replica.start();
+
+        // Act
+        for (int i = 0; i < 8; i++) {
+            replica.onListenerError(new RuntimeException("Unavailable"));
+        }
+        replica.onSnapshot(List.of(doc("a", "Soup")), List.of(), Timestamp.now());
+        replica.onListenerError(new RuntimeException("Unavailable"));
+
+        // Assert
+        assertEquals(List.of(5_000L, 10_000L, 20_000L, 40_000L, 80_000L, 160_000L, 300_000L, 300_000L, 5_000L),
+                retryDelays);
+        assertEquals(SnapshotReplica.State.DISCONNECTED, replica.getState());
+        assertEquals(1, replica.size(), "The copy is kept while disconnected");
+    }
+
+    @Test
+    @DisplayName("Recipe replica: Staleness is zero while live and grows while disconnected")
+    void testStaleness() throws InterruptedException {
+        // Arrange
+        SnapshotReplica<Map<String, Object>> replica = createReplica(Long.MAX_VALUE);
+        replica.start();
+        long neverSynced = replica.getStalenessMillis();
+        Timestamp readTime = Timestamp.now();
+        replica.onSnapshot(List.of(doc("a", "Soup")), List.of(), readTime);
+        long live = replica.getStalenessMillis();
+
+        // Act
+        replica.onListenerError(new RuntimeException("Unavailable"));
+        Thread.sleep(20);
+
+        // Assert
+        assertEquals(-1, neverSynced);
+        assertEquals(0, live);
+        assertTrue(replica.getStalenessMillis() >= 20);
+        assertEquals(readTime, replica.getLastReadTime());
+    }
+
+    private SnapshotReplica<Map<String, Object>> createReplica(long maxBytes) {
+        return new SnapshotReplica<>(replica -> {
+            listens++;
+            return () -> stops++;
+        }, (task, delayMillis) -> {
+            retryDelays.add(delayMillis);
+            retries.add(task);
+        }, document -> (String) document.get("id"), document -> document, maxBytes);
+    }
+
+    private static Map<String, Object> doc(String id, String title) {
+        Map<String, Object> data = recipe(title, "");
+        data.put("id", id);
+        return data;
+    }
+
+    private static SnapshotReplica.Change<Map<String, Object>> change(Map<String, Object> document, boolean removed) {
+        return new SnapshotReplica.Change<>(document, removed);
+    }
+
+    private static Map<String, Object> recipe(String title, String description) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("title", title);
+        data.put("description", description);
+        data.put("status", "PUBLISHED");
+        data.put("views", 3L);
+        return data;
+    }
+}
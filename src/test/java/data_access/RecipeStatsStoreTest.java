@@ -0,0 +1,108 @@
+package data_access;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeStatsStoreTest {
+
+    @Test
+    @DisplayName("Recipe stats: Ratings of embedded reviews are summed and counted")
+    void testSumRatings() {
+        // Arrange
+        List<Object> reviews = new ArrayList<>();
+        reviews.add(review(5L));
+        reviews.add(review(2L));
+        reviews.add(review(null));
+
+        // Act
+        long[] ratings = RecipeStatsStore.sumRatings(reviews);
+
+        // Assert
+        assertArrayEquals(new long[] {7, 2}, ratings);
+        assertEquals(3.5, new RecipeStats(0, 0, ratings[0], ratings[1]).getAverageRating());
+    }
+
+    @Test
+    @DisplayName("Recipe stats: A recipe without reviews has no ratings")
+    void testSumRatingsNone() {
+        // Act
+        long[] ratings = RecipeStatsStore.sumRatings(null);
+
+        // Assert
+        assertArrayEquals(new long[] {0, 0}, ratings);
+        assertEquals(0.0, new RecipeStats(3, 1, 0, 0).getAverageRating());
+    }
+
+    @Test
+    @DisplayName("Recipe stats: Saves are counted once per user")
+    void testCountSaves() {
+        // Arrange
+        List<Object> savedLists = new ArrayList<>();
+        savedLists.add(List.of("52772", "52795", "52772"));
+        savedLists.add(List.of("52772", ""));
+        savedLists.add(null);
+
+        // Act
+        Map<String, Integer> counts = RecipeStatsStore.countSaves(savedLists);
+
+        // Assert
+        assertEquals(Map.of("52772", 2, "52795", 1), counts);
+    }
+
+    @Test
+    @DisplayName("Recipe stats: A partial document is merged with the legacy stats")
+    void testMergePartialWithLegacy() {
+        // Arrange
+        RecipeStats partial = new RecipeStats(3, 1, 0, 0);
+        RecipeStats legacy = new RecipeStats(120, 9, 14, 4);
+
+        // Act
+        RecipeStats merged = RecipeStatsStore.merge(partial, legacy);
+
+        // Assert
+        assertEquals(120, merged.getViews());
+        assertEquals(9, merged.getSaves());
+        assertEquals(14, merged.getRatingSum());
+        assertEquals(4, merged.getRatingCount());
+    }
+
+    @Test
+    @DisplayName("Recipe stats: Saves and ratings of a recipe without a document come from its partial stats")
+    void testMergePartialWithoutRecipeDocument() {
+        // Arrange
+        RecipeStats partial = new RecipeStats(2, 3, 9, 2);
+        RecipeStats legacy = new RecipeStats(40, 0, 0, 0);
+
+        // Act
+        RecipeStats merged = RecipeStatsStore.merge(partial, legacy);
+
+        // Assert
+        assertEquals(40, merged.getViews());
+        assertEquals(3, merged.getSaves());
+        assertEquals(4.5, merged.getAverageRating());
+    }
+
+    @Test
+    @DisplayName("Recipe stats: A missing document only needs the legacy stats before the backfill")
+    void testMissingDocumentAfterBackfill() {
+        // Act & Assert
+        assertTrue(RecipeStatsStore.needsLegacyStats(false, null, false));
+        assertFalse(RecipeStatsStore.needsLegacyStats(false, null, true));
+        assertTrue(RecipeStatsStore.needsLegacyStats(true, null, true));
+        assertFalse(RecipeStatsStore.needsLegacyStats(true, true, false));
+    }
+
+    private static Map<String, Object> review(Long rating) {
+        Map<String, Object> review = new HashMap<>();
+        review.put("reviewId", "r" + rating);
+        review.put("rating", rating);
+        return review;
+    }
+}
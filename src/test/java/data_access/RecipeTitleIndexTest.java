@@ -0,0 +1,89 @@
+package data_access;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeTitleIndexTest {
+
+    @Test
+    @DisplayName("Title index: Normalizes case, accents and punctuation")
+    void testNormalize() {
+        assertEquals("creme brulee", RecipeTitleIndex.normalize("  Crème  Brûlée! "));
+        assertEquals("chicken mushroom hotpot", RecipeTitleIndex.normalize("Chicken & mushroom Hotpot"));
+        assertEquals("", RecipeTitleIndex.normalize(null));
+    }
+
+    @Test
+    @DisplayName("Title index: Tokens hold every word and its prefixes")
+    void testTitleTokens() {
+        // Act
+        List<String> tokens = RecipeTitleIndex.titleTokens("Pad Thai");
+
+        // Assert
+        assertEquals(List.of("p", "pa", "pad", "t", "th", "tha", "thai"), tokens);
+    }
+
+    @Test
+    @DisplayName("Title index: Query uses its longest word, which the title tokens contain")
+    void testQueryTokenIsIndexed() {
+        // Arrange
+        String title = "Honey Balsamic Chicken with Crispy Broccoli";
+
+        // Act
+        String token = RecipeTitleIndex.queryToken("balsamic chick");
+
+        // Assert
+        assertEquals("balsamic", token);
+        assertTrue(RecipeTitleIndex.titleTokens(title).contains(token));
+        assertTrue(RecipeTitleIndex.titleTokens(title).contains(RecipeTitleIndex.queryToken("Chick")));
+        assertEquals("", RecipeTitleIndex.queryToken(" - "));
+    }
+
+    @Test
+    @DisplayName("Title index: Long words are indexed whole and by their capped prefix")
+    void testLongWords() {
+        // Arrange
+        String title = "Supercalifragilisticexpialidocious Pie";
+
+        // Act
+        List<String> tokens = RecipeTitleIndex.titleTokens(title);
+
+        // Assert
+        assertTrue(tokens.contains("supercalifragilisticexpialidocious"));
+        assertTrue(tokens.contains(RecipeTitleIndex.queryToken("supercalifragilistic")));
+    }
+
+    @Test
+    @DisplayName("Title index: A long title stays under the token cap and keeps every whole word")
+    void testTokenCap() {
+        // Arrange
+        StringBuilder title = new StringBuilder();
+        // 30 twelve-letter words with distinct two-letter starts, over 300 tokens uncapped
+        for (int i = 0; i < 30; i++) {
+            title.append((char) ('a' + i % 26)).append((char) ('a' + i / 26)).append("cornbreads").append(' ');
+        }
+
+        // Act
+        List<String> tokens = RecipeTitleIndex.titleTokens(title.toString());
+
+        // Assert
+        assertTrue(tokens.size() <= RecipeTitleIndex.MAX_TOKENS);
+        assertTrue(tokens.contains("dbcornbreads"), "The last word must still be indexed");
+        assertTrue(tokens.contains("aacornbreads"));
+        assertTrue(tokens.contains("aacornbr"));
+        assertEquals(tokens.size(), Set.copyOf(tokens).size());
+    }
+
+    @Test
+    @DisplayName("Title index: Match keeps the title-contains behaviour")
+    void testMatches() {
+        assertTrue(RecipeTitleIndex.matches("Katsu Chicken curry", "chicken CURRY"));
+        assertTrue(RecipeTitleIndex.matches("Crème Brûlée", "creme"));
+        assertFalse(RecipeTitleIndex.matches("Chicken Handi", "curry"));
+    }
+}
@@ -0,0 +1,66 @@
+package data_access;
+
+import entity.Recipe;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecommendRecipeDataAccessObjectTest {
+
+    private static final String BASE = "https://www.themealdb.com/api/json/v1/1/";
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    @DisplayName("Recommend DAO: Only the requested stubs are hydrated, through the shared cache")
+    void testHydrateOnlyRequestedStubs() throws IOException {
+        // Arrange
+        MealDbResponseCache cache = new MealDbResponseCache(cacheDir, 1024 * 1024);
+        cache.get(BASE + "filter.php?c=Chicken", url -> "{\"meals\":["
+                + "{\"strMeal\":\"Teriyaki Chicken Casserole\",\"strMealThumb\":\"https:\\/\\/x\\/1.jpg\",\"idMeal\":\"52772\"},"
+                + "{\"strMeal\":\"Chicken Handi\",\"strMealThumb\":\"https:\\/\\/x\\/2.jpg\",\"idMeal\":\"52795\"}]}");
+        String lookup = MealDbJsonDecoderTest.fixture("lookup_i_52772.json");
+        cache.get(BASE + "lookup.php?i=52772", url -> lookup);
+
+        RecipeDataAccessObject detailSource = new RecipeDataAccessObject(2, true, cache);
+        RecommendRecipeDataAccessObject dao = new RecommendRecipeDataAccessObject(cache, detailSource);
+        List<Recipe> recommendations = dao.getRecipesByCategory("Chicken");
+
+        // Act
+        dao.hydrateRecipes(List.of(recommendations.get(0)));
+
+        // Assert
+        Recipe hydrated = recommendations.get(0);
+        assertFalse(RecommendRecipeDataAccessObject.isStub(hydrated));
+        assertFalse(hydrated.getIngredients().isEmpty());
+        assertEquals(detailSource.findById("52772").getDescription(), hydrated.getDescription());
+        assertTrue(RecommendRecipeDataAccessObject.isStub(recommendations.get(1)));
+    }
+
+    @Test
+    @DisplayName("Recommend DAO: Already hydrated recipes are not looked up again")
+    void testHydratedRecipesAreSkipped() {
+        // Arrange
+        MealDbResponseCache cache = new MealDbResponseCache(cacheDir, 1024 * 1024);
+        RecipeDataAccessObject detailSource = new RecipeDataAccessObject(1, true, cache) {
+            @Override
+            public List<Recipe> findAllById(List<String> recipeIds) {
+                throw new AssertionError("Unexpected lookup of " + recipeIds);
+            }
+        };
+        RecommendRecipeDataAccessObject dao = new RecommendRecipeDataAccessObject(cache, detailSource);
+        Recipe recipe = detailSource.parseRecipe(new org.json.JSONObject()
+                .put("idMeal", "1").put("strMeal", "Pie").put("strCategory", "Beef")
+                .put("strInstructions", "Bake it.").put("strIngredient1", "Beef").put("strMeasure1", "1kg"));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> dao.hydrateRecipes(List.of(recipe)));
+    }
+}
@@ -0,0 +1,63 @@
+package data_access;
+
+import com.google.cloud.Timestamp;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SavedRecipeIdCacheTest {
+
+    @Test
+    @DisplayName("Saved recipe IDs: A snapshot replaces the set")
+    void testSnapshotLoads() {
+        // Arrange
+        SavedRecipeIdCache.SavedIds savedIds = new SavedRecipeIdCache.SavedIds();
+
+        // Act
+        savedIds.applySnapshot(List.of("52772", "52795"), at(10));
+        savedIds.applySnapshot(List.of("52795"), at(20));
+
+        // Assert
+        assertTrue(savedIds.isLoaded());
+        assertFalse(savedIds.contains("52772"));
+        assertTrue(savedIds.contains("52795"));
+    }
+
+    @Test
+    @DisplayName("Saved recipe IDs: A snapshot read before a committed write does not undo it")
+    void testStaleSnapshotIgnored() {
+        // Arrange
+        SavedRecipeIdCache.SavedIds savedIds = new SavedRecipeIdCache.SavedIds();
+        savedIds.applySnapshot(List.of(), at(10));
+
+        // Act
+        savedIds.applyWrite("52772", true, at(30));
+        savedIds.applySnapshot(List.of(), at(20));
+
+        // Assert
+        assertTrue(savedIds.contains("52772"));
+    }
+
+    @Test
+    @DisplayName("Saved recipe IDs: A later snapshot shows changes made elsewhere")
+    void testLaterSnapshotApplied() {
+        // Arrange
+        SavedRecipeIdCache.SavedIds savedIds = new SavedRecipeIdCache.SavedIds();
+        savedIds.applySnapshot(List.of(), at(10));
+        savedIds.applyWrite("52772", true, at(30));
+
+        // Act
+        savedIds.applySnapshot(List.of("52795"), at(40));
+
+        // Assert
+        assertFalse(savedIds.contains("52772"));
+        assertTrue(savedIds.contains("52795"));
+    }
+
+    private static Timestamp at(long seconds) {
+        return Timestamp.ofTimeSecondsAndNanos(seconds, 0);
+    }
+}
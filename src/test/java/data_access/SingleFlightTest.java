@@ -0,0 +1,95 @@
+package data_access;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    @DisplayName("SingleFlight: Concurrent callers for the same key share one call")
+    void testConcurrentCallsShareOneCall() throws Exception {
+        // Arrange
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> firstResult = new AtomicReference<>();
+        AtomicReference<String> secondResult = new AtomicReference<>();
+
+        Thread first = new Thread(() -> firstResult.set(call(singleFlight, () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            release.await();
+            return "meal";
+        })));
+        first.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Thread second = new Thread(() -> secondResult.set(call(singleFlight, () -> {
+            calls.incrementAndGet();
+            return "second call";
+        })));
+        second.start();
+        waitUntilBlocked(second);
+
+        // Act
+        release.countDown();
+        first.join(5000);
+        second.join(5000);
+
+        // Assert
+        assertEquals(1, calls.get());
+        assertEquals("meal", firstResult.get());
+        assertEquals("meal", secondResult.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    @DisplayName("SingleFlight: Failure is released so the next call runs again")
+    void testFailureIsNotRemembered() throws IOException {
+        // Arrange
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+
+        // Act
+        assertThrows(IOException.class, () -> singleFlight.execute("key", () -> {
+            throw new IOException("API request failed");
+        }));
+        String result = singleFlight.execute("key", () -> "recovered");
+
+        // Assert
+        assertEquals("recovered", result);
+    }
+
+    interface BlockingCall {
+        String run() throws Exception;
+    }
+
+    private static String call(SingleFlight<String> singleFlight, BlockingCall call) {
+        try {
+            return singleFlight.execute("lookup.php?i=52772", () -> {
+                try {
+                    return call.run();
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+            });
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void waitUntilBlocked(Thread thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
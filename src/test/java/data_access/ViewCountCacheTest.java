@@ -0,0 +1,62 @@
+package data_access;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ViewCountCacheTest {
+
+    private AtomicLong now;
+    private ViewCountCache cache;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong();
+        cache = new ViewCountCache(1000, now::get);
+    }
+
+    @Test
+    @DisplayName("View count cache: Serves a count until it expires")
+    void testExpiry() {
+        // Arrange
+        cache.put("52772", 40);
+
+        // Act & Assert
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertEquals(40, cache.get("52772"));
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertNull(cache.get("52772"));
+    }
+
+    @Test
+    @DisplayName("View count cache: Views recorded here are added without extending the entry")
+    void testIncrement() {
+        // Arrange
+        cache.put("52772", 40);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+
+        // Act
+        cache.increment("52772");
+        cache.increment("52772");
+
+        // Assert
+        assertEquals(42, cache.get("52772"));
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertNull(cache.get("52772"));
+    }
+
+    @Test
+    @DisplayName("View count cache: A view of an uncached recipe is left to the next read")
+    void testIncrementUncached() {
+        // Act
+        cache.increment("52772");
+
+        // Assert
+        assertNull(cache.get("52772"));
+    }
+}
@@ -0,0 +1,146 @@
+package data_access;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindViewRecorderTest {
+
+    // Long enough that only the test flushes
+    private static final long FLUSH_INTERVAL_MILLIS = 60_000;
+
+    private final RecordingStore store = new RecordingStore();
+    private final ViewCountCache cache = new ViewCountCache(60_000);
+    private WriteBehindViewRecorder recorder;
+
+    @AfterEach
+    void tearDown() {
+        if (recorder != null) {
+            recorder.close();
+        }
+    }
+
+    @Test
+    @DisplayName("View recorder: Views are only queued, then merged per recipe and written in one batch")
+    void testMergesViews() {
+        // Arrange
+        recorder = new WriteBehindViewRecorder(store, cache, 100, FLUSH_INTERVAL_MILLIS);
+        cache.put("52772", 10);
+
+        // Act
+        recorder.record("52772");
+        recorder.record("52772");
+        recorder.record("52772");
+        recorder.record("52795");
+        long depthBeforeFlush = recorder.getQueueDepth();
+        int batchesBeforeFlush = store.batches.size();
+        recorder.flush();
+
+        // Assert
+        assertEquals(4, depthBeforeFlush);
+        assertEquals(0, batchesBeforeFlush, "Recording a view must not write it");
+        assertEquals(1, store.batches.size());
+        assertEquals(Map.of("52772", 3L, "52795", 1L), store.batches.get(0));
+        assertEquals(0, recorder.getQueueDepth());
+        assertEquals(4, recorder.getWrittenViews());
+        assertEquals(13, cache.get("52772"));
+    }
+
+    @Test
+    @DisplayName("View recorder: A failed batch is kept and retried with newer views")
+    void testRetriesFailedBatch() {
+        // Arrange
+        recorder = new WriteBehindViewRecorder(store, cache, 100, FLUSH_INTERVAL_MILLIS);
+        recorder.record("52772");
+        store.failuresLeft = 1;
+
+        // Act
+        recorder.flush();
+        recorder.record("52772");
+        recorder.flush();
+
+        // Assert
+        assertEquals(1, recorder.getFailedFlushCount());
+        assertEquals(List.of(Map.of("52772", 2L)), store.batches);
+        assertEquals(0, recorder.getQueueDepth());
+    }
+
+    @Test
+    @DisplayName("View recorder: Batches hold at most 250 recipes")
+    void testSplitsBatches() {
+        // Arrange
+        recorder = new WriteBehindViewRecorder(store, cache, 2000, FLUSH_INTERVAL_MILLIS);
+        for (int i = 0; i < 1200; i++) {
+            recorder.record("recipe" + i);
+        }
+
+        // Act
+        recorder.flush();
+
+        // Assert
+        assertEquals(5, store.batches.size());
+        assertEquals(250, store.batches.get(0).size());
+        assertEquals(200, store.batches.get(4).size());
+        assertEquals(1200, recorder.getWrittenViews());
+    }
+
+    @Test
+    @DisplayName("View recorder: Views of new recipes are dropped when the buffer is full")
+    void testBounded() {
+        // Arrange
+        recorder = new WriteBehindViewRecorder(store, cache, 2, FLUSH_INTERVAL_MILLIS);
+        store.blocked = true; // Keep the triggered flush from emptying the buffer
+
+        // Act
+        boolean first = recorder.record("a");
+        boolean second = recorder.record("b");
+        boolean third = recorder.record("c");
+        boolean repeat = recorder.record("a");
+
+        // Assert
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertTrue(repeat);
+        assertEquals(1, recorder.getDroppedViews());
+    }
+
+    @Test
+    @DisplayName("View recorder: Closing writes what is left and drops later views")
+    void testCloseDrains() {
+        // Arrange
+        recorder = new WriteBehindViewRecorder(store, cache, 100, FLUSH_INTERVAL_MILLIS);
+        recorder.record("52772");
+
+        // Act
+        recorder.close();
+        boolean afterClose = recorder.record("52772");
+
+        // Assert
+        assertEquals(List.of(Map.of("52772", 1L)), store.batches);
+        assertFalse(afterClose);
+        assertEquals(1, recorder.getDroppedViews());
+    }
+
+    private static class RecordingStore implements WriteBehindViewRecorder.Store {
+        final List<Map<String, Long>> batches = new ArrayList<>();
+        int failuresLeft = 0;
+        volatile boolean blocked = false;
+
+        @Override
+        public synchronized void incrementAll(Map<String, Long> viewsByRecipe) {
+            if (blocked || failuresLeft > 0) {
+                failuresLeft--;
+                throw new RuntimeException("Firestore unavailable");
+            }
+            batches.add(new HashMap<>(viewsByRecipe));
+        }
+    }
+}
@@ -226,6 +226,102 @@ class RecipeSearchInteractorTest {
         assertEquals("Error searching for recipes: null", presenter.errorMessage);
     }
 
+    @Test
+    @DisplayName("Search: Pages - First page shows a page of results and more can be loaded")
+    void testSearchPaged() {
+        // Arrange
+        interactor.setTestMode(true);
+        dataAccess.setRecipesToReturn(createNumberedRecipes(25));
+
+        // Act
+        interactor.execute(new RecipeSearchInputData("dish", ""));
+
+        // Assert
+        assertTrue(presenter.successViewCalled);
+        assertEquals(20, presenter.outputData.getRecipes().size());
+        assertTrue(presenter.outputData.hasMoreResults());
+        assertFalse(presenter.nextPageViewCalled);
+    }
+
+    @Test
+    @DisplayName("Search: Pages - Next page continues where the first stopped")
+    void testSearchNextPage() {
+        // Arrange
+        interactor.setTestMode(true);
+        dataAccess.setRecipesToReturn(createNumberedRecipes(25));
+        interactor.execute(new RecipeSearchInputData("dish", ""));
+
+        // Act
+        interactor.executeNextPage();
+
+        // Assert
+        assertTrue(presenter.nextPageViewCalled);
+        assertEquals(5, presenter.nextPageData.getRecipes().size());
+        assertEquals("Dish 20", presenter.nextPageData.getRecipes().get(0).getTitle());
+        assertFalse(presenter.nextPageData.hasMoreResults());
+    }
+
+    @Test
+    @DisplayName("Search: Pages - Next page does nothing after the last page")
+    void testSearchNextPageAfterLastPage() {
+        // Arrange
+        interactor.setTestMode(true);
+        dataAccess.setRecipesToReturn(createMockRecipes());
+        interactor.execute(new RecipeSearchInputData("chicken", ""));
+
+        // Act
+        interactor.executeNextPage();
+
+        // Assert
+        assertFalse(presenter.outputData.hasMoreResults());
+        assertFalse(presenter.nextPageViewCalled);
+        assertEquals(1, dataAccess.searchCount);
+    }
+
+    @Test
+    @DisplayName("Search: Pages - Next page does nothing before any search")
+    void testSearchNextPageWithoutSearch() {
+        // Arrange
+        interactor.setTestMode(true);
+
+        // Act
+        interactor.executeNextPage();
+
+        // Assert
+        assertFalse(presenter.nextPageViewCalled);
+        assertFalse(presenter.failViewCalled);
+        assertEquals(0, dataAccess.searchCount);
+    }
+
+    @Test
+    @DisplayName("Search: Pages - Next page loads asynchronously")
+    void testSearchNextPageAsync() throws InterruptedException {
+        // Arrange
+        interactor.setTestMode(false);
+        dataAccess.setRecipesToReturn(createNumberedRecipes(25));
+        interactor.execute(new RecipeSearchInputData("dish", ""));
+        presenter.await(1000);
+        presenter.reset();
+
+        // Act
+        interactor.executeNextPage();
+        presenter.await(1000);
+
+        // Assert
+        assertTrue(presenter.nextPageViewCalled);
+        assertFalse(presenter.progressViewCalled);
+        assertEquals(5, presenter.nextPageData.getRecipes().size());
+    }
+
+    private List<Recipe> createNumberedRecipes(int count) {
+        List<Recipe> recipes = new ArrayList<>();
+        Date now = new Date();
+        for (int i = 0; i < count; i++) {
+            recipes.add(new Recipe("id" + i, "user", "Dish " + i, "", new ArrayList<>(), "Cuisine", new ArrayList<>(), Recipe.Status.PUBLISHED, now, now, ""));
+        }
+        return recipes;
+    }
+
     // Helper for creating mock recipes
     private List<Recipe> createMockRecipes() {
         List<Recipe> mockRecipes = new ArrayList<>();
@@ -246,6 +342,7 @@ class RecipeSearchInteractorTest {
         private boolean shouldThrowInterruptedException = false;
         private String exceptionMessage;
         private long delay = 0;
+        int searchCount = 0;
 
         public void setRecipesToReturn(List<Recipe> recipesToReturn) {
             this.recipesToReturn = recipesToReturn;
@@ -269,6 +366,7 @@ class RecipeSearchInteractorTest {
 
         @Override
         public List<Recipe> search(String name, String category) {
+            searchCount++;
             try {
                 if (delay > 0) {
                     Thread.sleep(delay);
@@ -299,7 +397,9 @@ class RecipeSearchInteractorTest {
         boolean successViewCalled = false;
         boolean failViewCalled = false;
         boolean progressViewCalled = false;
+        boolean nextPageViewCalled = false;
         RecipeSearchOutputData outputData = null;
+        RecipeSearchOutputData nextPageData = null;
         String errorMessage = null;
         private CountDownLatch latch = new CountDownLatch(1);
 
@@ -326,6 +426,13 @@ class RecipeSearchInteractorTest {
             }
         }
 
+        @Override
+        public void prepareNextPageView(RecipeSearchOutputData outputData) {
+            nextPageViewCalled = true;
+            this.nextPageData = outputData;
+            latch.countDown();
+        }
+
         public void await(long timeoutMillis) throws InterruptedException {
             latch.await(timeoutMillis, TimeUnit.MILLISECONDS);
         }
@@ -334,7 +441,9 @@ class RecipeSearchInteractorTest {
             successViewCalled = false;
             failViewCalled = false;
             progressViewCalled = false;
+            nextPageViewCalled = false;
             outputData = null;
+            nextPageData = null;
             errorMessage = null;
             latch = new CountDownLatch(1);
         }
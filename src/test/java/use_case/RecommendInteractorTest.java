@@ -202,6 +202,29 @@ class RecommendRecipeInteractorTest {
         assertEquals(20, presenter.getOutputData().getRecipes().size());
     }
 
+    @Test
+    void hydrate_PassesRecipesToDataAccess() {
+        // Arrange
+        List<Recipe> visible = List.of(createRecipe("rec1", "Steak", "Western"));
+
+        // Act
+        interactor.hydrate(visible);
+        interactor.hydrate(new ArrayList<>());
+
+        // Assert
+        assertEquals(visible, dataAccessObject.hydrated);
+    }
+
+    @Test
+    void hydrate_DataAccessFails_ShouldKeepStubs() {
+        // Arrange
+        dataAccessObject.failHydration = true;
+        Recipe stub = createRecipe("rec1", "Steak", "Western");
+
+        // Act & Assert
+        assertDoesNotThrow(() -> interactor.hydrate(List.of(stub)));
+        assertEquals("Description", stub.getDescription());
+    }
 
     // ==============================================================================
     // TestDataAccess (Updated to support forcing NULL returns)
@@ -220,6 +243,8 @@ class RecommendRecipeInteractorTest {
         // Added: Control Flag, used for testing null branches
         private boolean returnNullForSavedRecipes = false;
         private final Set<String> categoriesReturningNull = new HashSet<>();
+        private final List<Recipe> hydrated = new ArrayList<>();
+        private boolean failHydration = false;
 
         public void setReturnNullForSavedRecipes(boolean value) {
             this.returnNullForSavedRecipes = value;
@@ -266,6 +291,14 @@ class RecommendRecipeInteractorTest {
             }
             return allRecipesByCategory.getOrDefault(category, new ArrayList<>());
         }
+
+        @Override
+        public void hydrateRecipes(List<Recipe> recipes) {
+            if (failHydration) {
+                throw new RuntimeException("API unavailable");
+            }
+            hydrated.addAll(recipes);
+        }
     }
 
     // ==============================================================================
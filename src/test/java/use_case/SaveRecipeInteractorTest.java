@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -53,6 +54,7 @@ class SaveRecipeInteractorTest {
         String lastSavedRecipeId;
         String lastUnsavedUsername;
         String lastUnsavedRecipeId;
+        int writeCount = 0;
 
         public void setRecipeSaved(boolean saved) {
             this.recipeSaved = saved;
@@ -79,6 +81,7 @@ class SaveRecipeInteractorTest {
             lastSavedUsername = username;
             lastSavedRecipeId = recipeID;
             recipeSaved = true;
+            writeCount++;
         }
 
         @Override
@@ -89,6 +92,7 @@ class SaveRecipeInteractorTest {
             lastUnsavedUsername = username;
             lastUnsavedRecipeId = recipeID;
             recipeSaved = false;
+            writeCount++;
         }
     }
 
@@ -100,6 +104,7 @@ class SaveRecipeInteractorTest {
         SaveRecipeOutputData successData;
         SaveRecipeOutputData unsaveData;
         String failureMessage;
+        SaveRecipeOutputData rollbackData;
         
         boolean prepareSuccessCalled = false;
         boolean prepareUnsaveCalled = false;
@@ -122,6 +127,12 @@ class SaveRecipeInteractorTest {
             this.failureMessage = errorMessage;
             this.prepareFailureCalled = true;
         }
+
+        @Override
+        public void prepareRollback(SaveRecipeOutputData saveRecipeOutputData, String errorMessage) {
+            this.rollbackData = saveRecipeOutputData;
+            this.failureMessage = errorMessage;
+        }
     }
 
     // ==============================================================================
@@ -400,5 +411,183 @@ class SaveRecipeInteractorTest {
         assertTrue(presenter.prepareUnsaveCalled, "Second call should unsave");
         assertFalse(presenter.unsaveData.isSaved());
     }
-}
 
+    // ==============================================================================
+    // Optimistic Mode
+    // ==============================================================================
+
+    /**
+     * The new state is shown before the write runs.
+     */
+    @Test
+    void testOptimistic_ShowsStateBeforeWrite() {
+        // Arrange
+        DataAccessStub dao = new DataAccessStub();
+        TestPresenter presenter = new TestPresenter();
+        List<Runnable> writes = new ArrayList<>();
+        SaveRecipeWriteQueue queue = new SaveRecipeWriteQueue(dao, writes::add, 3, 0);
+        SaveRecipeInteractor interactor = new SaveRecipeInteractor(dao, presenter, queue);
+        SaveRecipeInputData inputData = new SaveRecipeInputData("testUser", createTestRecipe("recipe123", "Delicious Pasta"));
+
+        // Act
+        interactor.execute(inputData);
+
+        // Assert
+        assertTrue(presenter.prepareSuccessCalled);
+        assertTrue(presenter.successData.isSaved());
+        assertEquals(0, dao.writeCount, "Nothing should be written yet");
+
+        writes.forEach(Runnable::run);
+        assertTrue(dao.isRecipeSaved("testUser", "recipe123"));
+        assertNull(queue.getPendingState("testUser", "recipe123"));
+    }
+
+    /**
+     * Rapid toggles end in one write of the final state, and an even number of them in none.
+     */
+    @Test
+    void testOptimistic_TogglesCollapse() {
+        // Arrange
+        DataAccessStub dao = new DataAccessStub();
+        TestPresenter presenter = new TestPresenter();
+        List<Runnable> writes = new ArrayList<>();
+        SaveRecipeWriteQueue queue = new SaveRecipeWriteQueue(dao, writes::add, 3, 0);
+        SaveRecipeInteractor interactor = new SaveRecipeInteractor(dao, presenter, queue);
+        SaveRecipeInputData inputData = new SaveRecipeInputData("toggleUser", createTestRecipe("toggleRecipe", "Toggle Test Recipe"));
+
+        // Act
+        interactor.execute(inputData);
+        interactor.execute(inputData);
+        interactor.execute(inputData);
+
+        // Assert
+        assertEquals(1, writes.size(), "One write should be queued per recipe");
+        assertTrue(presenter.successData.isSaved());
+        writes.forEach(Runnable::run);
+        assertEquals(1, dao.writeCount);
+        assertTrue(dao.isRecipeSaved("toggleUser", "toggleRecipe"));
+
+        writes.clear();
+        interactor.execute(inputData);
+        interactor.execute(inputData);
+        writes.forEach(Runnable::run);
+        assertEquals(1, dao.writeCount, "Toggling back and forth should not write");
+    }
+
+    /**
+     * A write that keeps failing is retried, then the UI is rolled back to the stored state.
+     */
+    @Test
+    void testOptimistic_RollbackAfterRetries() {
+        // Arrange
+        int[] attempts = {0};
+        DataAccessStub dao = new DataAccessStub() {
+            @Override
+            public void saveRecipe(String username, String recipeID) {
+                attempts[0]++;
+                throw new RuntimeException("Save operation failed");
+            }
+        };
+        TestPresenter presenter = new TestPresenter();
+        SaveRecipeWriteQueue queue = new SaveRecipeWriteQueue(dao, Runnable::run, 3, 0);
+        SaveRecipeInteractor interactor = new SaveRecipeInteractor(dao, presenter, queue);
+
+        // Act
+        interactor.execute(new SaveRecipeInputData("saveErrorUser", createTestRecipe("recipe101", "Fish Tacos")));
+
+        // Assert
+        assertTrue(presenter.successData.isSaved(), "The save should have been shown first");
+        assertEquals(3, attempts[0]);
+        assertNotNull(presenter.rollbackData);
+        assertEquals("recipe101", presenter.rollbackData.getRecipeId());
+        assertFalse(presenter.rollbackData.isSaved());
+        assertEquals("Failed to save recipe: Save operation failed", presenter.failureMessage);
+        assertNull(queue.getPendingState("saveErrorUser", "recipe101"));
+    }
+
+    /**
+     * A toggle made while a write is failing for good gets attempts of its own, and the failed
+     * request does not roll it back.
+     */
+    @Test
+    void testOptimistic_ToggleDuringFailingWriteIsNotRolledBack() {
+        // Arrange
+        SaveRecipeInteractor[] interactor = new SaveRecipeInteractor[1];
+        SaveRecipeInputData inputData = new SaveRecipeInputData("raceUser", createTestRecipe("recipe202", "Ramen"));
+        int[] attempts = {0};
+        DataAccessStub dao = new DataAccessStub() {
+            @Override
+            public void saveRecipe(String username, String recipeID) {
+                attempts[0]++;
+                if (attempts[0] == 3) {
+                    // The user unsaves while the last attempt is running
+                    interactor[0].execute(inputData);
+                }
+                throw new RuntimeException("Save operation failed");
+            }
+        };
+        TestPresenter presenter = new TestPresenter();
+        List<Runnable> writes = new ArrayList<>();
+        SaveRecipeWriteQueue queue = new SaveRecipeWriteQueue(dao, writes::add, 3, 0);
+        interactor[0] = new SaveRecipeInteractor(dao, presenter, queue);
+
+        // Act
+        interactor[0].execute(inputData);
+        writes.get(0).run();
+
+        // Assert
+        assertTrue(presenter.prepareUnsaveCalled, "The unsave should have been shown");
+        assertNull(presenter.rollbackData, "The unsave shown must not be rolled back");
+        assertEquals(1, writes.size(), "The unsave should be written by the same task");
+        assertFalse(dao.isRecipeSaved("raceUser", "recipe202"));
+        assertNull(queue.getPendingState("raceUser", "recipe202"));
+    }
+
+    /**
+     * A request made after a failed one was dropped, but before its rollback is reported, keeps its
+     * state shown.
+     */
+    @Test
+    void testOptimistic_RollbackSkippedWhenNewerRequestPending() {
+        // Arrange
+        SaveRecipeInteractor[] interactor = new SaveRecipeInteractor[1];
+        SaveRecipeInputData inputData = new SaveRecipeInputData("raceUser", createTestRecipe("recipe303", "Pho"));
+        boolean[] failing = {true};
+        int[] checks = {0};
+        DataAccessStub dao = new DataAccessStub() {
+            @Override
+            public boolean isRecipeSaved(String username, String recipeID) {
+                checks[0]++;
+                if (checks[0] == 5) {
+                    // The failed save was dropped; the user clicks save again before the rollback
+                    failing[0] = false;
+                    interactor[0].execute(inputData);
+                }
+                return super.isRecipeSaved(username, recipeID);
+            }
+
+            @Override
+            public void saveRecipe(String username, String recipeID) {
+                if (failing[0]) {
+                    throw new RuntimeException("Save operation failed");
+                }
+                super.saveRecipe(username, recipeID);
+            }
+        };
+        TestPresenter presenter = new TestPresenter();
+        List<Runnable> writes = new ArrayList<>();
+        SaveRecipeWriteQueue queue = new SaveRecipeWriteQueue(dao, writes::add, 3, 0);
+        interactor[0] = new SaveRecipeInteractor(dao, presenter, queue);
+
+        // Act
+        interactor[0].execute(inputData);
+        writes.get(0).run();
+
+        // Assert
+        assertNull(presenter.rollbackData, "The newer save shown must not be rolled back");
+        assertEquals(Boolean.TRUE, queue.getPendingState("raceUser", "recipe303"));
+        assertEquals(2, writes.size(), "The newer save should be queued on its own");
+        writes.get(1).run();
+        assertTrue(dao.isRecipeSaved("raceUser", "recipe303"));
+    }
+}
@@ -34,5 +34,12 @@ class SaveRecipeOutputDataTest {
         assertEquals(recipeName, outputData.getRecipeName());
         assertEquals(saved, outputData.isSaved());
     }
-}
 
+    @Test
+    void testGetRecipeId() {
+        SaveRecipeOutputData outputData = new SaveRecipeOutputData("recipe1", "Pad Thai", false);
+
+        assertEquals("recipe1", outputData.getRecipeId());
+        assertNull(new SaveRecipeOutputData("Pad Thai", false).getRecipeId());
+    }
+}
@@ -35,4 +35,9 @@ public class TestRecipeSearchPresenter implements RecipeSearchOutputBoundary {
     public void prepareProgressView(RecipeSearchOutputData progressData) {
         // Not used in these tests, but must be implemented
     }
+
+    @Override
+    public void prepareNextPageView(RecipeSearchOutputData outputData) {
+        // Not used in these tests, but must be implemented
+    }
 }
@@ -1,5 +1,7 @@
 package use_case;
 
+import use_case.save_recipe.SaveRecipeDataAccessInterface;
+import use_case.save_recipe.SaveRecipeWriteQueue;
 import use_case.unsave_recipe.*;
 
 import org.junit.jupiter.api.Test;
@@ -50,6 +52,7 @@ class UnsaveRecipeInteractorTest {
     static class TestPresenter implements UnsaveRecipeOutputBoundary {
         String successMessage;
         String failMessage;
+        String rollbackRecipeId;
         
         boolean prepareSuccessViewCalled = false;
         boolean prepareFailViewCalled = false;
@@ -65,6 +68,12 @@ class UnsaveRecipeInteractorTest {
             this.failMessage = error;
             this.prepareFailViewCalled = true;
         }
+
+        @Override
+        public void prepareRollback(String recipeId, String error) {
+            this.rollbackRecipeId = recipeId;
+            prepareFailView(error);
+        }
     }
 
     // ==============================================================================
@@ -239,5 +248,40 @@ class UnsaveRecipeInteractorTest {
         assertEquals("", dao.lastUnsavedUsername);
         assertEquals("", dao.lastUnsavedRecipeId);
     }
-}
 
+    /**
+     * Test Case 8: Optimistic unsave that fails for good shows the recipe as saved again
+     */
+    @Test
+    void testExecute_OptimisticRollback() {
+        // Arrange
+        DataAccessStub dao = new DataAccessStub();
+        TestPresenter presenter = new TestPresenter();
+        SaveRecipeDataAccessInterface store = new SaveRecipeDataAccessInterface() {
+            @Override
+            public boolean isRecipeSaved(String username, String recipeID) {
+                return true;
+            }
+
+            @Override
+            public void saveRecipe(String username, String recipeID) {
+            }
+
+            @Override
+            public void unsaveRecipe(String username, String recipeID) {
+                throw new RuntimeException("Connection timeout");
+            }
+        };
+        UnsaveRecipeInteractor interactor = new UnsaveRecipeInteractor(dao, presenter,
+                new SaveRecipeWriteQueue(store, Runnable::run, 2, 0));
+
+        // Act
+        interactor.execute("user", "recipe1");
+
+        // Assert
+        assertTrue(presenter.prepareSuccessViewCalled, "The unsave should have been shown first");
+        assertTrue(presenter.prepareFailViewCalled);
+        assertEquals("recipe1", presenter.rollbackRecipeId, "Only the unsaved recipe should be rolled back");
+        assertEquals("Failed to unsave recipe: Connection timeout", presenter.failMessage);
+    }
+}
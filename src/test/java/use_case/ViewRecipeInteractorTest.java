@@ -2,12 +2,14 @@ package use_case;
 
 import entity.Ingredient;
 import entity.Recipe;
+import entity.RecipeSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import use_case.save_recipe.SaveRecipeDataAccessInterface;
 import use_case.view_recipe.*;
 
+import javax.swing.*;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -36,6 +38,7 @@ class ViewRecipeInteractorTest {
         saveRecipeDataAccess = new TestSaveRecipeDataAccess();
         editReviewDataAccess = new EditReviewInteractorTest.TestEditReviewDataAccess();
         interactor = new ViewRecipeInteractor(dataAccess, presenter, saveRecipeDataAccess, editReviewDataAccess);
+        interactor.setTestMode(true);
     }
 
     @Test
@@ -209,6 +212,43 @@ class ViewRecipeInteractorTest {
         assertEquals(username, presenter.outputData.getUsername());
     }
 
+    @Test
+    @DisplayName("View Recipe: Success - Summary from a list is replaced by the full recipe")
+    void testViewRecipeLoadsFullRecipeForSummary() {
+        // Arrange
+        String recipeId = "testRecipeId";
+        String username = "testUser";
+        Recipe fullRecipe = createTestRecipe(recipeId, username);
+        dataAccess.setRecipeToReturn(fullRecipe);
+        RecipeSummary summary = new RecipeSummary(recipeId, username, "Test Recipe Title", new ArrayList<>(),
+                "Test Cuisine", new ArrayList<>(), Recipe.Status.PUBLISHED, new Date(), new Date(), "");
+
+        // Act
+        interactor.execute(new ViewRecipeInputData(summary, username));
+
+        // Assert
+        assertTrue(presenter.successViewCalled);
+        assertSame(fullRecipe, presenter.outputData.getRecipe());
+        assertEquals("Test Description", presenter.outputData.getRecipe().getDescription());
+    }
+
+    @Test
+    @DisplayName("View Recipe: Failure - Summary whose recipe no longer exists")
+    void testViewRecipeSummaryNotFound() {
+        // Arrange
+        dataAccess.setRecipeToReturn(null);
+        RecipeSummary summary = new RecipeSummary("goneId", "testUser", "Gone", new ArrayList<>(),
+                "Test Cuisine", new ArrayList<>(), Recipe.Status.PUBLISHED, new Date(), new Date(), "");
+
+        // Act
+        interactor.execute(new ViewRecipeInputData(summary, "testUser"));
+
+        // Assert
+        assertTrue(presenter.failViewCalled);
+        assertFalse(presenter.successViewCalled);
+        assertEquals("Recipe not found with ID: goneId", presenter.errorMessage);
+    }
+
     @Test
     @DisplayName("View Recipe: Failure - No recipe or ID provided")
     void testViewRecipeFailureNoInput() {
@@ -225,6 +265,27 @@ class ViewRecipeInteractorTest {
         assertEquals("Recipe not found: No recipe object or ID provided.", presenter.errorMessage);
     }
 
+    @Test
+    @DisplayName("View Recipe: Success - The full recipe is loaded off the EDT and presented on it")
+    void testViewRecipeLoadsOffEventDispatchThread() throws Exception {
+        // Arrange
+        ViewRecipeInteractor asyncInteractor =
+                new ViewRecipeInteractor(dataAccess, presenter, saveRecipeDataAccess, editReviewDataAccess);
+        dataAccess.setRecipeToReturn(createTestRecipe("testRecipeId", "testUser"));
+        RecipeSummary summary = new RecipeSummary("testRecipeId", "testUser", "Test Recipe Title", new ArrayList<>(),
+                "Test Cuisine", new ArrayList<>(), Recipe.Status.PUBLISHED, new Date(), new Date(), "");
+
+        // Act
+        SwingUtilities.invokeAndWait(() -> asyncInteractor.execute(new ViewRecipeInputData(summary, "testUser")));
+        boolean presented = presenter.presented.await(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertTrue(presented);
+        assertTrue(presenter.successViewCalled);
+        assertFalse(dataAccess.loadedOnEventDispatchThread, "The recipe must not be loaded on the EDT");
+        assertTrue(presenter.presentedOnEventDispatchThread);
+    }
+
     /**
      * Helper method to create a standard recipe for testing.
      * @return A sample Recipe object.
@@ -252,6 +313,7 @@ class ViewRecipeInteractorTest {
         private Recipe recipeToReturn;
         private boolean shouldThrowException = false;
         private final CountDownLatch latch = new CountDownLatch(1);
+        volatile boolean loadedOnEventDispatchThread = false;
 
         public void setRecipeToReturn(Recipe recipe) {
             this.recipeToReturn = recipe;
@@ -263,6 +325,7 @@ class ViewRecipeInteractorTest {
 
         @Override
         public Recipe findById(String recipeId) {
+            loadedOnEventDispatchThread = SwingUtilities.isEventDispatchThread();
             return recipeToReturn;
         }
 
@@ -316,17 +379,23 @@ class ViewRecipeInteractorTest {
         boolean failViewCalled = false;
         ViewRecipeOutputData outputData = null;
         String errorMessage = null;
+        boolean presentedOnEventDispatchThread = false;
+        final CountDownLatch presented = new CountDownLatch(1);
 
         @Override
         public void prepareSuccessView(ViewRecipeOutputData outputData) {
             successViewCalled = true;
             this.outputData = outputData;
+            presentedOnEventDispatchThread = SwingUtilities.isEventDispatchThread();
+            presented.countDown();
         }
 
         @Override
         public void prepareFailView(String errorMessage) {
             failViewCalled = true;
             this.errorMessage = errorMessage;
+            presentedOnEventDispatchThread = SwingUtilities.isEventDispatchThread();
+            presented.countDown();
         }
     }
 